@@ -0,0 +1,123 @@
+package ie.atu.sw;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Abstract Batching Strategy - Groups work items into fixed size batches so
+ * that the cost of handing work to another thread is paid once per batch rather
+ * than once per item.
+ * 
+ * See ExecutionStrategy.
+ * 
+ * @author Ben Murray
+ * @version 1.0
+ * @since JDK 19
+ *
+ */
+public abstract class AbstractBatchingStrategy implements ExecutionStrategy {
+
+	protected int batchSize;
+	protected LatencyHistogram batchLatency;
+
+	/**
+	 * Constructor for AbstractBatchingStrategy.
+	 * 
+	 * @param batchSize Number of items handed to a worker at a time.
+	 */
+	protected AbstractBatchingStrategy(int batchSize) {
+		// O(1) set value of batchSize.
+		if (batchSize < 1) {
+			throw new IllegalArgumentException("Batch size must be at least 1: " + batchSize);
+		}
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Gets number of items handed to a worker at a time.
+	 * 
+	 * @return Batch size.
+	 */
+	public int getBatchSize() {
+		// O(1) return int from memory.
+		return batchSize;
+	}
+
+	/**
+	 * Gets histogram of the time each batch takes to run.
+	 * 
+	 * @return Histogram, or null if batches are not timed.
+	 */
+	public LatencyHistogram getBatchLatency() {
+		// O(1) return histogram from memory.
+		return batchLatency;
+	}
+
+	/**
+	 * Sets histogram of the time each batch takes to run. Null, the default,
+	 * times nothing.
+	 * 
+	 * @param batchLatency Histogram, or null.
+	 */
+	public void setBatchLatency(LatencyHistogram batchLatency) {
+		// O(1) set value of batchLatency.
+		this.batchLatency = batchLatency;
+	}
+
+	/**
+	 * Gets a runnable that runs task on every item of a batch, timing the batch
+	 * if a histogram is set.
+	 * 
+	 * @param <T>   Type of work item.
+	 * @param batch Batch of work items.
+	 * @param task  Action to be performed on each item.
+	 * @return Runnable for a worker.
+	 */
+	protected <T> Runnable runBatch(List<T> batch, Consumer<T> task) {
+		// O(1) - the runnable is O(b) for b items.
+		LatencyHistogram latency = batchLatency;
+		if (latency == null) {
+			return () -> batch.forEach(task);
+		}
+		return () -> {
+			long start = System.nanoTime();
+			try {
+				batch.forEach(task);
+			} finally {
+				latency.recordSince(start);
+			}
+		};
+	}
+
+	/**
+	 * Splits the stream into batches and passes each full (or final, partial)
+	 * batch to the submitter on the calling thread.
+	 * 
+	 * @param <T>       Type of work item.
+	 * @param items     Stream of work items.
+	 * @param submitter Action that hands a batch to a worker.
+	 */
+	protected <T> void forEachBatch(Stream<T> items, Consumer<List<T>> submitter) {
+		// O(n) where n = number of items, each added to exactly one batch.
+		List<T> batch = new ArrayList<T>(batchSize);
+		var iterator = items.iterator();
+		while (iterator.hasNext()) {
+			batch.add(iterator.next());
+			if (batch.size() == batchSize) {
+				submitter.accept(batch);
+				batch = new ArrayList<T>(batchSize);
+			}
+		}
+		if (!batch.isEmpty()) {
+			submitter.accept(batch);
+		}
+	}
+
+	@Override
+	public String getName() {
+		// O(1) build short String.
+		return ExecutionStrategy.super.getName() + "[batch=" + batchSize + "]";
+	}
+}
@@ -1,16 +1,16 @@
 package ie.atu.sw;
 
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.stream.Stream;
 
 /**
  * Abstract Parser - Parses a text file and extracts data (sets of words,
- * mappings etc.).
+ * mappings etc.). Files may be gzip compressed.
  * 
- * See Parsator.
+ * See Parsator, CompressedInput.
  * 
  * @author Ben Murray
  * @version 1.0
@@ -21,6 +21,7 @@ public abstract class AbstractParser implements Parsator {
 
 	protected String file = "";
 	protected Collection<String> words;
+	protected ProgressTracker progress;
 
 	/**
 	 * Gets a collection of words extracted from a text file.
@@ -62,6 +63,27 @@ public abstract class AbstractParser implements Parsator {
 		this.file = file;
 	}
 
+	/**
+	 * Gets tracker counting lines and words as they are parsed.
+	 * 
+	 * @return Progress tracker, or null if progress is not tracked.
+	 */
+	public ProgressTracker getProgress() {
+		// O(1) return tracker from memory.
+		return progress;
+	}
+
+	/**
+	 * Sets tracker counting lines and words as they are parsed. Null, the
+	 * default, tracks nothing.
+	 * 
+	 * @param progress Progress tracker, or null.
+	 */
+	public void setProgress(ProgressTracker progress) {
+		// O(1) set value of progress.
+		this.progress = progress;
+	}
+
 	/**
 	 * Parses a text file, extracts a collection of words.
 	 */
@@ -70,16 +92,20 @@ public abstract class AbstractParser implements Parsator {
 		// O(n²) calls process() (O(n)) n times.
 		setWords(this.words);
 		String file = this.file;
-		try {
-			Files.lines(Paths.get(file)).forEach(text -> process(text));
+		try (Stream<String> lines = CompressedInput.lines(Paths.get(file))) {
+			lines.forEach(text -> process(text));
 		} catch (IOException e) {
-			System.out.println("[ERROR] IO Exception. Returning to Menu.");
-			Menu.showMenu();
+			System.out.println("[ERROR] IO Exception. " + Menu.getRecoveryNote());
+			Menu.recover(e);
 		}
 	}
 
 	private void process(String text) {
 		// O(n) (depending on collection type) adds word to collection n times.
-		Arrays.stream(text.toLowerCase().split("\\s+")).forEach(w -> words.add(w));
+		String[] split = text.toLowerCase().split("\\s+");
+		Arrays.stream(split).forEach(w -> words.add(w));
+		if (progress != null) {
+			progress.addLine(text.length(), split.length);
+		}
 	}
 }
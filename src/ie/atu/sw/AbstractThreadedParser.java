@@ -5,13 +5,15 @@ import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.concurrent.Executors;
+import java.util.stream.Stream;
 
 /**
  * Abstract Threaded Parser - Leverages virtual threads to parse a text file and
- * extract data (sets of words, mappings etc.).
+ * extract data (sets of words, mappings etc.). How lines are dispatched to
+ * threads is decided by a pluggable ExecutionStrategy, one virtual thread per
+ * line by default. Files may be gzip compressed.
  * 
- * See Parsator.
+ * See Parsator, ExecutionStrategy, CompressedInput.
  * 
  * @author Ben Murray
  * @version 1.0
@@ -21,7 +23,9 @@ import java.util.concurrent.Executors;
 public abstract class AbstractThreadedParser implements Parsator {
 
 	protected Collection<String> words;
+	protected ProgressTracker progress;
 	protected String file;
+	protected ExecutionStrategy strategy = new VirtualThreadPerTaskStrategy();
 
 	/**
 	 * Gets a collection of words extracted from a text file.
@@ -64,26 +68,74 @@ public abstract class AbstractThreadedParser implements Parsator {
 	}
 
 	/**
-	 * Parses a file using virtual threads, extracts a collection of words.
+	 * Gets the strategy used to run per-line tasks.
+	 * 
+	 * @return Execution strategy for this parser.
+	 */
+	public ExecutionStrategy getStrategy() {
+		// O(1) return strategy from memory.
+		return strategy;
+	}
+
+	/**
+	 * Sets the strategy used to run per-line tasks, eg. sequential, virtual
+	 * thread per batch or a fixed platform pool.
+	 * 
+	 * @param strategy Execution strategy for this parser.
+	 */
+	public void setStrategy(ExecutionStrategy strategy) {
+		// O(1) set value of strategy.
+		this.strategy = strategy;
+	}
+
+	/**
+	 * Gets tracker counting lines and words as they are parsed.
+	 * 
+	 * @return Progress tracker, or null if progress is not tracked.
+	 */
+	public ProgressTracker getProgress() {
+		// O(1) return tracker from memory.
+		return progress;
+	}
+
+	/**
+	 * Sets tracker counting lines and words as they are parsed. Null, the
+	 * default, tracks nothing.
+	 * 
+	 * @param progress Progress tracker, or null.
+	 */
+	public void setProgress(ProgressTracker progress) {
+		// O(1) set value of progress.
+		this.progress = progress;
+	}
+
+	/**
+	 * Parses a file using the configured execution strategy (virtual threads by
+	 * default), extracts a collection of words.
 	 */
 	@Override
 	public void parse() {
 		/*
-		 * O(n²) calls processDictionary() (O(n)) n times. Mitigated by use of Virtual
-		 * Threads, implementation adapted from VirtualThreadFileParser.java.
+		 * O(n²) calls process() (O(n)) n times. Mitigated by use of Virtual Threads,
+		 * implementation adapted from VirtualThreadFileParser.java.
 		 */
 		setWords(this.words);
 		String file = this.file;
-		try (var pool = Executors.newVirtualThreadPerTaskExecutor()) {
-			Files.lines(Paths.get(file)).forEach(text -> pool.execute(() -> process(text)));
+		try (Stream<String> lines = CompressedInput.lines(Paths.get(file))) {
+			strategy.begin(file, Files.size(Paths.get(file)));
+			strategy.execute(lines, text -> process(text));
 		} catch (IOException e) {
-			System.out.println("[ERROR] IO Exception. Returning to Menu.");
-			Menu.showMenu();
+			System.out.println("[ERROR] IO Exception. " + Menu.getRecoveryNote());
+			Menu.recover(e);
 		}
 	}
 
 	// O(n) (depending on collection type) adds word to collection n times.
 	private void process(String text) {
-		Arrays.stream(text.toLowerCase().split("\\s+")).forEach(w -> words.add(w));
+		String[] split = text.toLowerCase().split("\\s+");
+		Arrays.stream(split).forEach(w -> words.add(w));
+		if (progress != null) {
+			progress.addLine(text.length(), split.length);
+		}
 	}
 }
@@ -0,0 +1,355 @@
+package ie.atu.sw;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Adaptive Strategy - Runs batches of work items on a pool of platform threads
+ * whose batch size and worker count are tuned while the first part of an input
+ * is parsed, then kept for the rest of it and saved for the next run.
+ *
+ * Throughput is measured over short epochs. Between epochs one setting is
+ * moved: the batch size doubled or halved, or a worker added or removed. A
+ * move that raises throughput by more than 5% is kept and tried again,
+ * otherwise it is undone and the next move is tried, hill-climbing until no
+ * move helps or the step limit is reached. Which moves are tried first
+ * depends on where time is lost: if the reader is kept waiting for a free
+ * slot in the queue the workers are the bottleneck, so workers are added
+ * first; if workers sit idle waiting for batches, batch sizes are tried first.
+ *
+ * Settings are saved to a properties file per input profile, the input's file
+ * extension and size rounded to a power of four, so a dictionary of a few KB
+ * and a manuscript of many GB are tuned separately. An input whose profile has
+ * saved settings starts from them and is not tuned again. If an input runs out
+ * before tuning settles, the best settings measured so far are saved.
+ *
+ * See ExecutionStrategy.begin(), FixedPoolStrategy, Indexer.setAdaptiveTuning().
+ *
+ * @author Ben Murray
+ * @version 1.0
+ * @since JDK 19
+ *
+ */
+public class AdaptiveStrategy implements ExecutionStrategy {
+
+	private static final int MAX_BATCH = 1 << 16;
+	private static final long EPOCH_NANOS = 20_000_000;
+	private static final int MAX_STEPS = 16;
+	private static final double MIN_GAIN = 1.05;
+	private static final int QUEUED_PER_WORKER = 2;
+
+	private Path settingsFile;
+	private int maxWorkers = 4 * Runtime.getRuntime().availableProcessors();
+	private volatile int batchSize = 64;
+	private volatile int workers = Runtime.getRuntime().availableProcessors();
+	private String profile;
+	private boolean tuning;
+	private static final ReentrantLock SETTINGS_LOCK = new ReentrantLock();
+
+	// Hill-climbing state, only touched by the thread calling execute().
+	private double best;
+	private List<int[]> moves;
+	private int move;
+	private int failures;
+	private int steps;
+	private int[] previous;
+
+	/**
+	 * Constructor for AdaptiveStrategy.
+	 *
+	 * @param settingsFile Properties file tuned settings are loaded from and
+	 *                     saved to, created if missing.
+	 */
+	public AdaptiveStrategy(Path settingsFile) {
+		// O(1) set value of settingsFile.
+		this.settingsFile = settingsFile;
+	}
+
+	/**
+	 * Gets the current number of items handed to a worker at a time.
+	 *
+	 * @return Batch size.
+	 */
+	public int getBatchSize() {
+		// O(1) return int from memory.
+		return batchSize;
+	}
+
+	/**
+	 * Gets the current number of worker threads.
+	 *
+	 * @return Worker count.
+	 */
+	public int getWorkers() {
+		// O(1) return int from memory.
+		return workers;
+	}
+
+	/**
+	 * Gets the profile of the input being parsed.
+	 *
+	 * @return Profile, eg. "csv-4^11", or null before begin().
+	 */
+	public String getProfile() {
+		// O(1) return String from memory.
+		return profile;
+	}
+
+	/**
+	 * Checks if settings are still being tuned for the current input.
+	 *
+	 * @return True while tuning.
+	 */
+	public boolean isTuning() {
+		// O(1) return boolean from memory.
+		return tuning;
+	}
+
+	/**
+	 * Looks up settings saved for the input's profile, or starts tuning if
+	 * there are none.
+	 */
+	@Override
+	public void begin(String inputName, long inputSize) {
+		// O(p) loads p saved profiles.
+		profile = profileOf(inputName, inputSize);
+		Properties settings = load();
+		String savedBatch = settings.getProperty(profile + ".batch");
+		String savedWorkers = settings.getProperty(profile + ".workers");
+		if (savedBatch != null && savedWorkers != null) {
+			batchSize = clamp(Integer.parseInt(savedBatch), 1, MAX_BATCH);
+			workers = clamp(Integer.parseInt(savedWorkers), 1, maxWorkers);
+			tuning = false;
+		} else {
+			tuning = true;
+			best = -1;
+			moves = null;
+			steps = 0;
+			failures = 0;
+		}
+	}
+
+	/**
+	 * Runs task for each item in batches on the pool, tuning while the input is
+	 * parsed if begin() found no saved settings, and waits for all to finish.
+	 */
+	@Override
+	public <T> void execute(Stream<T> items, Consumer<T> task) {
+		// O(n) each item is batched and processed once, plus O(1) per batch to
+		// measure.
+		ThreadPoolExecutor pool = new ThreadPoolExecutor(workers, workers, 30, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<Runnable>());
+		ReentrantLock slots = new ReentrantLock();
+		Condition freed = slots.newCondition();
+		AtomicLong outstanding = new AtomicLong();
+		LongAdder done = new LongAdder();
+		LongAdder busy = new LongAdder();
+		long blocked = 0;
+		long epochStart = System.nanoTime();
+		long epochDone = 0;
+		long epochBusy = 0;
+		try {
+			var iterator = items.iterator();
+			List<T> batch = new ArrayList<T>(batchSize);
+			while (iterator.hasNext()) {
+				batch.add(iterator.next());
+				if (batch.size() < batchSize && iterator.hasNext()) {
+					continue;
+				}
+				long wait = System.nanoTime();
+				slots.lock();
+				try {
+					while (outstanding.get() >= (long) QUEUED_PER_WORKER * pool.getMaximumPoolSize()) {
+						freed.awaitUninterruptibly();
+					}
+				} finally {
+					slots.unlock();
+				}
+				blocked += System.nanoTime() - wait;
+				outstanding.incrementAndGet();
+				List<T> submitted = batch;
+				pool.execute(() -> {
+					long start = System.nanoTime();
+					try {
+						submitted.forEach(task);
+					} finally {
+						busy.add(System.nanoTime() - start);
+						done.add(submitted.size());
+						outstanding.decrementAndGet();
+						slots.lock();
+						try {
+							freed.signal();
+						} finally {
+							slots.unlock();
+						}
+					}
+				});
+				batch = new ArrayList<T>(batchSize);
+
+				long now = System.nanoTime();
+				if (tuning && now - epochStart >= EPOCH_NANOS) {
+					long elapsed = now - epochStart;
+					double throughput = (done.sum() - epochDone) / (elapsed / 1e9);
+					double idle = 1 - (busy.sum() - epochBusy) / ((double) elapsed * pool.getMaximumPoolSize());
+					climb(throughput, blocked / (double) elapsed, idle);
+					resize(pool, workers);
+					blocked = 0;
+					epochStart = now;
+					epochDone = done.sum();
+					epochBusy = busy.sum();
+				}
+			}
+			slots.lock();
+			try {
+				while (outstanding.get() > 0) {
+					freed.awaitUninterruptibly();
+				}
+			} finally {
+				slots.unlock();
+			}
+			if (tuning && moves != null) {
+				// Input ran out mid-climb, keep the best settings measured.
+				batchSize = previous[0];
+				workers = previous[1];
+				tuning = false;
+				save();
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	private void climb(double throughput, double blocked, double idle) {
+		// O(1) - one hill-climbing step per epoch.
+		if (best < 0) {
+			best = throughput;
+			moves = blocked > idle ? List.of(new int[] { 0, 1 }, new int[] { 1, 0 }, new int[] { -1, 0 },
+					new int[] { 0, -1 })
+					: List.of(new int[] { 1, 0 }, new int[] { -1, 0 }, new int[] { 0, -1 }, new int[] { 0, 1 });
+			move = 0;
+			apply();
+			return;
+		}
+		steps++;
+		if (throughput > best * MIN_GAIN) {
+			best = throughput;
+			failures = 0;
+		} else {
+			batchSize = previous[0];
+			workers = previous[1];
+			failures++;
+			move = (move + 1) % moves.size();
+		}
+		if (failures >= moves.size() || steps >= MAX_STEPS) {
+			tuning = false;
+			save();
+			return;
+		}
+		apply();
+	}
+
+	private void apply() {
+		// O(1) makes the current move, skipping moves out of range.
+		previous = new int[] { batchSize, workers };
+		for (int tried = 0; tried < moves.size(); tried++) {
+			int[] step = moves.get(move);
+			int nextBatch = step[0] > 0 ? batchSize * 2 : step[0] < 0 ? batchSize / 2 : batchSize;
+			int nextWorkers = workers + step[1];
+			if (nextBatch >= 1 && nextBatch <= MAX_BATCH && nextWorkers >= 1 && nextWorkers <= maxWorkers) {
+				batchSize = nextBatch;
+				workers = nextWorkers;
+				return;
+			}
+			failures++;
+			move = (move + 1) % moves.size();
+		}
+	}
+
+	private static void resize(ThreadPoolExecutor pool, int workers) {
+		// O(1) - grow the maximum before the core, shrink the core first.
+		if (workers > pool.getMaximumPoolSize()) {
+			pool.setMaximumPoolSize(workers);
+			pool.setCorePoolSize(workers);
+		} else if (workers < pool.getMaximumPoolSize()) {
+			pool.setCorePoolSize(workers);
+			pool.setMaximumPoolSize(workers);
+		}
+	}
+
+	/**
+	 * Gets the profile settings are saved under for an input.
+	 *
+	 * @param inputName Path or name of input.
+	 * @param inputSize Size of input in bytes, or -1 if unknown.
+	 * @return Extension and size class, eg. "csv-4^11" for 4 to 16 MB.
+	 */
+	static String profileOf(String inputName, long inputSize) {
+		// O(n) where n = length of name.
+		String name = inputName == null ? "" : Path.of(inputName).getFileName().toString();
+		boolean gzip = name.endsWith(".gz");
+		if (gzip) {
+			name = name.substring(0, name.length() - 3);
+		}
+		int dot = name.lastIndexOf('.');
+		String extension = dot < 0 ? "none" : name.substring(dot + 1);
+		int sizeClass = inputSize <= 0 ? 0 : (63 - Long.numberOfLeadingZeros(inputSize)) / 2;
+		return extension + (gzip ? ".gz" : "") + "-4^" + sizeClass;
+	}
+
+	private Properties load() {
+		// O(p) reads p properties.
+		Properties settings = new Properties();
+		SETTINGS_LOCK.lock();
+		try (Reader reader = Files.newBufferedReader(settingsFile)) {
+			settings.load(reader);
+		} catch (IOException e) {
+			// No settings saved yet, tune from the defaults.
+		} finally {
+			SETTINGS_LOCK.unlock();
+		}
+		return settings;
+	}
+
+	private void save() {
+		// O(p) rewrites p properties, keeping other profiles.
+		SETTINGS_LOCK.lock();
+		try {
+			Properties settings = load();
+			settings.setProperty(profile + ".batch", Integer.toString(batchSize));
+			settings.setProperty(profile + ".workers", Integer.toString(workers));
+			try (Writer writer = Files.newBufferedWriter(settingsFile)) {
+				settings.store(writer, "AdaptiveStrategy settings per input profile");
+			}
+		} catch (IOException e) {
+			System.out.println("[WARNING] Could not save tuned settings to " + settingsFile);
+		} finally {
+			SETTINGS_LOCK.unlock();
+		}
+	}
+
+	private static int clamp(int value, int min, int max) {
+		// O(1) compare.
+		return Math.max(min, Math.min(max, value));
+	}
+
+	@Override
+	public String getName() {
+		// O(1) build short String.
+		return "AdaptiveStrategy[batch=" + batchSize + ", workers=" + workers + "]";
+	}
+}
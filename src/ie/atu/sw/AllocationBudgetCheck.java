@@ -0,0 +1,230 @@
+package ie.atu.sw;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Allocation Budget Check - Guards the indexing hot path against allocation
+ * regressions. The parsers, Filter, MapBuilder and Outputter are run over
+ * fixed, generated inputs, and the bytes each allocates are measured with the
+ * ThreadMXBean allocation counter, per token for tokenizing and parsing the
+ * text, and per entry or word for the other stages.
+ *
+ * Everything runs on the calling thread, parsers with SequentialStrategy, as
+ * the counter only sees the current platform thread. The stages are run
+ * several times first so the JIT has compiled, and escape analysed, the hot
+ * path, and the lowest figure of the measured runs is kept.
+ *
+ * Each stage has a budget in bytes per unit, about a quarter above what it
+ * allocated when the check was written, overridden with a system property, eg.
+ * -Dbudget.tokenize=64. The check exits with status 1 if any stage is over
+ * budget, so it can gate a build.
+ *
+ * See CorpusGenerator, Tokenizer.
+ *
+ * @author Ben Murray
+ * @version 1.0
+ * @since JDK 19
+ *
+ */
+public class AllocationBudgetCheck {
+
+	private static final int WARMUP_RUNS = 3;
+	private static final int MEASURED_RUNS = 3;
+
+	private com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+			.getThreadMXBean();
+	private Path dictionary;
+	private Path common;
+	private Path text;
+	private Path output;
+	private List<String> lines;
+	private Map<String, Stage> stages = new LinkedHashMap<String, Stage>();
+
+	/**
+	 * Stage - Allocation measured for one stage.
+	 *
+	 * @param key    Name of the stage's budget property, after "budget.".
+	 * @param unit   What allocation is divided by, eg. "token".
+	 * @param units  Number of units processed per run.
+	 * @param bytes  Fewest bytes allocated by a measured run.
+	 * @param budget Most bytes allowed per unit.
+	 */
+	public record Stage(String key, String unit, long units, long bytes, double budget) {
+
+		/**
+		 * Gets bytes allocated per unit.
+		 *
+		 * @return Bytes per unit, 0 if there were no units.
+		 */
+		public double bytesPerUnit() {
+			// O(1) divide.
+			return units == 0 ? 0 : (double) bytes / units;
+		}
+
+		/**
+		 * Checks the stage kept to its budget.
+		 *
+		 * @return True if bytes per unit are within budget.
+		 */
+		public boolean passed() {
+			// O(1) compare.
+			return bytesPerUnit() <= budget;
+		}
+	}
+
+	/**
+	 * Constructor for AllocationBudgetCheck, generating the inputs if they are
+	 * not already in the directory.
+	 *
+	 * @param workDir Directory holding inputs and output.
+	 * @throws IOException If the inputs cannot be written or read.
+	 */
+	public AllocationBudgetCheck(Path workDir) throws IOException {
+		// O(n) writes and reads n bytes of text.
+		Files.createDirectories(workDir);
+		this.dictionary = workDir.resolve("dictionary.csv");
+		this.common = workDir.resolve("common.txt");
+		this.text = workDir.resolve("text.txt");
+		this.output = workDir.resolve("index.txt");
+		if (!Files.exists(text)) {
+			CorpusGenerator generator = new CorpusGenerator(42, 20_000, 1.0);
+			generator.writeDictionary(dictionary, 0.8);
+			generator.writeCommonWords(common, 1000);
+			generator.writeText(text, 2L << 20);
+		}
+		this.lines = Files.readAllLines(text);
+		if (!threads.isThreadAllocatedMemorySupported()) {
+			throw new UnsupportedOperationException("This JVM does not count allocated bytes per thread");
+		}
+		threads.setThreadAllocatedMemoryEnabled(true);
+	}
+
+	/**
+	 * Runs every stage, warming up first, and records their allocation.
+	 *
+	 * @return Stages in pipeline order.
+	 */
+	public List<Stage> run() {
+		// O(r * n) for r runs of the pipeline over n bytes.
+		for (int run = 0; run < WARMUP_RUNS + MEASURED_RUNS; run++) {
+			runPipeline(run >= WARMUP_RUNS);
+		}
+		return new ArrayList<Stage>(stages.values());
+	}
+
+	private void runPipeline(boolean measure) {
+		// O(n) - one pass of every stage.
+		long[] tokens = new long[1];
+		Tokenizer tokenizer = Tokenizer.getDefault();
+		long start = allocated();
+		for (String line : lines) {
+			tokenizer.tokenize(line, word -> tokens[0]++);
+		}
+		record(measure, "tokenize", "token", tokens[0], start, 88);
+
+		DictionaryParser dp = new DictionaryParser();
+		dp.setStrategy(new SequentialStrategy());
+		dp.setFile(dictionary.toString());
+		start = allocated();
+		dp.parse();
+		record(measure, "dictionary", "entry", dp.getDictionaryWords().size(), start, 512);
+
+		CommonWordsParser cwp = new CommonWordsParser();
+		cwp.setStrategy(new SequentialStrategy());
+		cwp.setFile(common.toString());
+		start = allocated();
+		cwp.parse();
+		record(measure, "commonWords", "word", cwp.getWords().size(), start, 1280);
+
+		UserInputParser uip = new UserInputParser();
+		uip.setFile(text.toString());
+		start = allocated();
+		uip.parse();
+		record(measure, "userText", "token", tokens[0], start, 152);
+
+		HashSet<String> userSet = new HashSet<String>(uip.getUserWordSet());
+		HashSet<String> dictionarySet = new HashSet<String>(dp.getDictionaryWordSet());
+		HashSet<String> commonSet = cwp.getCommonWordSet();
+		Filter f = new Filter(userSet, dictionarySet, commonSet);
+		int userWords = userSet.size();
+		start = allocated();
+		HashSet<String> filtered = f.getFilteredWords();
+		record(measure, "filter", "user word", userWords, start, 8);
+
+		MapBuilder mb = new MapBuilder();
+		Map<String, TreeSet<Integer>> pages = uip.getIndex();
+		start = allocated();
+		mb.buildMap(filtered, pages, dp.getDictionaryWords());
+		record(measure, "mapBuild", "entry", filtered.size(), start, 96);
+
+		Outputter o = new Outputter();
+		start = allocated();
+		o.saveToFile(mb.getFinalMap(), output.toString());
+		record(measure, "save", "entry", filtered.size(), start, 1024);
+	}
+
+	private long allocated() {
+		// O(1) reads this thread's allocation counter.
+		return threads.getCurrentThreadAllocatedBytes();
+	}
+
+	private void record(boolean measure, String key, String unit, long units, long start, double defaultBudget) {
+		// O(1) keeps the fewest bytes allocated by a measured run.
+		long bytes = allocated() - start;
+		if (!measure) {
+			return;
+		}
+		double budget = Double.parseDouble(System.getProperty("budget." + key, Double.toString(defaultBudget)));
+		Stage previous = stages.get(key);
+		if (previous == null || bytes < previous.bytes()) {
+			stages.put(key, new Stage(key, unit, units, bytes, budget));
+		}
+	}
+
+	/**
+	 * Formats stages as a table.
+	 *
+	 * @param stages Stages of run().
+	 * @return Table, one line per stage.
+	 */
+	public static String report(List<Stage> stages) {
+		// O(s) for s stages.
+		StringBuilder sb = new StringBuilder();
+		sb.append(String.format("%-12s %-10s %10s %14s %12s %10s  %s%n", "Stage", "Unit", "Units", "Bytes",
+				"Bytes/unit", "Budget", "Result"));
+		for (Stage stage : stages) {
+			sb.append(String.format("%-12s %-10s %10d %14d %12.1f %10.1f  %s%n", stage.key(), stage.unit(),
+					stage.units(), stage.bytes(), stage.bytesPerUnit(), stage.budget(),
+					stage.passed() ? "OK" : "OVER BUDGET"));
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Main - Runs the check, eg. "AllocationBudgetCheck alloc-check". Exits
+	 * with status 1 if any stage is over budget.
+	 *
+	 * @param args Optional working directory, default "allocation".
+	 * @throws IOException If the inputs cannot be written or read.
+	 */
+	public static void main(String[] args) throws IOException {
+		// O(r * n) - see run().
+		Path dir = Path.of(args.length > 0 ? args[0] : "allocation");
+		Menu.setHeadless(true);
+		List<Stage> stages = new AllocationBudgetCheck(dir).run();
+		System.out.print(report(stages));
+		if (stages.stream().anyMatch(stage -> !stage.passed())) {
+			System.out.println("[ERROR] Allocation budget exceeded.");
+			System.exit(1);
+		}
+	}
+}
@@ -0,0 +1,312 @@
+package ie.atu.sw;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Batch Runner - Indexes many texts without the interactive Menu, in one JVM,
+ * so startup and JIT warm-up are paid once rather than per document. Jobs are
+ * read from a manifest, one per line, as space separated key=value options:
+ *
+ * text=, dictionary=, common= and output= paths are required. sorted=n saves a
+ * sorted dump with a sidecar entry every n words, compressed=true also saves a
+ * ".idx", top=n prints the n most frequent words, unique=true prints the
+ * number of unique words, estimate=true estimates them, suggest=true saves
+ * spelling suggestions, and vocabulary= names the EligibleVocabulary file, or
+ * none to parse the dictionary for every job. tuning= names a settings file
+ * for AdaptiveStrategy, shared by jobs so inputs of a profile are tuned once.
+ * Blank lines and lines starting with # are skipped.
+ *
+ * Jobs run on a shared pool with a fixed number of platform threads, each job
+ * with its own Indexer, whose parsers share the JVM's virtual thread
+ * carriers. The vocabulary of each dictionary and common words pair is
+ * checked, and built if needed, once before any job starts, so every job
+ * using that pair maps the same file instead of parsing the dictionary. A
+ * failed job is recorded and the others carry on; timings and failures are
+ * reported once all have finished.
+ *
+ * See Indexer, Menu.setHeadless(), VocabularyBuilder.
+ *
+ * @author Ben Murray
+ * @version 1.0
+ * @since JDK 19
+ *
+ */
+public class BatchRunner {
+
+	private static final Set<String> OPTIONS = Set.of("text", "dictionary", "common", "output", "sorted",
+			"compressed", "top", "unique", "estimate", "suggest", "vocabulary", "tuning");
+
+	private int workers;
+	private ReentrantLock printLock = new ReentrantLock();
+
+	/**
+	 * Job - One line of a manifest.
+	 *
+	 * @param number  Line number in the manifest.
+	 * @param options Option names mapped to values.
+	 */
+	public record Job(int number, Map<String, String> options) {
+
+		/**
+		 * Gets an option.
+		 *
+		 * @param name     Option name.
+		 * @param fallback Value if the option was not given.
+		 * @return Value of option.
+		 */
+		public String get(String name, String fallback) {
+			// O(1) get from HashMap.
+			return options.getOrDefault(name, fallback);
+		}
+	}
+
+	/**
+	 * Result - Outcome of one job.
+	 *
+	 * @param job    Job run.
+	 * @param words  Number of words in its index, or -1 if it failed.
+	 * @param millis Wall clock time taken.
+	 * @param error  Reason for failure, or null if it succeeded.
+	 */
+	public record Result(Job job, int words, long millis, String error) {
+	}
+
+	/**
+	 * Constructor for BatchRunner.
+	 *
+	 * @param workers Most jobs run at once.
+	 */
+	public BatchRunner(int workers) {
+		// O(1) set value of workers.
+		if (workers < 1) {
+			throw new IllegalArgumentException("Worker count must be at least 1: " + workers);
+		}
+		this.workers = workers;
+	}
+
+	/**
+	 * Reads a manifest of jobs.
+	 *
+	 * @param manifest Path of manifest file.
+	 * @return Jobs in manifest order.
+	 * @throws IOException If the file cannot be read, or a line is not a valid
+	 *                     job.
+	 */
+	public static List<Job> readManifest(Path manifest) throws IOException {
+		// O(n) where n = number of lines in manifest.
+		List<Job> jobs = new ArrayList<Job>();
+		List<String> lines = Files.readAllLines(manifest, StandardCharsets.UTF_8);
+		for (int line = 1; line <= lines.size(); line++) {
+			String text = lines.get(line - 1).strip();
+			if (text.isEmpty() || text.startsWith("#")) {
+				continue;
+			}
+			Map<String, String> options = new HashMap<String, String>();
+			for (String field : text.split("\\s+")) {
+				int equals = field.indexOf('=');
+				if (equals < 1 || !OPTIONS.contains(field.substring(0, equals))) {
+					throw new IOException("Line " + line + ": unknown option " + field);
+				}
+				options.put(field.substring(0, equals), field.substring(equals + 1));
+			}
+			for (String required : List.of("text", "dictionary", "common", "output")) {
+				if (!options.containsKey(required)) {
+					throw new IOException("Line " + line + ": missing " + required + "=");
+				}
+			}
+			jobs.add(new Job(line, options));
+		}
+		return jobs;
+	}
+
+	/**
+	 * Runs jobs on the pool and waits for all of them. Menu must be headless,
+	 * see Menu.setHeadless().
+	 *
+	 * @param jobs Jobs to run.
+	 * @return Results in job order.
+	 * @throws InterruptedException If interrupted while waiting for jobs.
+	 */
+	public List<Result> run(List<Job> jobs) throws InterruptedException {
+		// O(j) jobs, each as costly as Indexer.getNewIndex(), run w at a time.
+		Map<List<String>, Path> vocabularies = prepareVocabularies(jobs);
+		ExecutorService pool = Executors.newFixedThreadPool(workers);
+		try {
+			List<Future<Result>> futures = new ArrayList<Future<Result>>();
+			for (Job job : jobs) {
+				Path vocabulary = vocabularies.get(vocabularyKey(job));
+				futures.add(pool.submit(() -> runJob(job, vocabulary)));
+			}
+			List<Result> results = new ArrayList<Result>();
+			for (Future<Result> future : futures) {
+				try {
+					results.add(future.get());
+				} catch (ExecutionException e) {
+					// runJob() catches its own failures, this is an Error.
+					throw new IllegalStateException(e.getCause());
+				}
+			}
+			return results;
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	private static List<String> vocabularyKey(Job job) {
+		// O(1) - dictionary, common words and vocabulary file, defaulted as
+		// documented, so jobs only share a vocabulary they all named.
+		String dictionary = job.get("dictionary", "");
+		return List.of(dictionary, job.get("common", ""),
+				job.get("vocabulary", dictionary + VocabularyBuilder.DEFAULT_SUFFIX));
+	}
+
+	private Map<List<String>, Path> prepareVocabularies(List<Job> jobs) {
+		// O(d) builds each of d distinct, out of date vocabularies once. Jobs
+		// with vocabulary=none map to null.
+		Map<List<String>, Path> vocabularies = new LinkedHashMap<List<String>, Path>();
+		for (Job job : jobs) {
+			List<String> key = vocabularyKey(job);
+			String dictionary = key.get(0);
+			String common = key.get(1);
+			String name = key.get(2);
+			if (name.equals("none") || vocabularies.containsKey(key)) {
+				continue;
+			}
+			Path vocabulary = Path.of(name);
+			try {
+				if (!EligibleVocabulary.isCurrent(vocabulary, Path.of(dictionary), Path.of(common))) {
+					VocabularyBuilder.build(Path.of(dictionary), Path.of(common), vocabulary);
+				}
+				vocabularies.put(key, vocabulary);
+			} catch (IOException | RuntimeException e) {
+				System.out.println("[WARNING] Could not prepare vocabulary " + vocabulary + ": " + e.getMessage()
+						+ ". Jobs will parse " + dictionary + " themselves.");
+				vocabularies.put(key, null);
+			}
+		}
+		return vocabularies;
+	}
+
+	private Result runJob(Job job, Path vocabulary) {
+		// O(n²) - see Indexer.getNewIndex(List).
+		long start = System.currentTimeMillis();
+		try (Indexer indexer = new Indexer()) {
+			indexer.setVocabularyArtifact(vocabulary);
+			indexer.setSortedOutput(Integer.parseInt(job.get("sorted", "0")));
+			indexer.setSaveCompressed(Boolean.parseBoolean(job.get("compressed", "false")));
+			indexer.setEstimateUniqueWords(Boolean.parseBoolean(job.get("estimate", "false")));
+			indexer.setSuggestSpellings(Boolean.parseBoolean(job.get("suggest", "false")));
+			String tuning = job.get("tuning", null);
+			indexer.setAdaptiveTuning(tuning == null ? null : Path.of(tuning));
+			Map<String, IndexEntry> index = indexer.getNewIndex(List.of(job.get("dictionary", ""),
+					job.get("common", ""), job.get("text", ""), job.get("output", "")));
+			printResults(job, indexer, index);
+			return new Result(job, index.size(), System.currentTimeMillis() - start, null);
+		} catch (RuntimeException e) {
+			String error = e.getCause() != null ? e.getCause().toString() : e.toString();
+			return new Result(job, -1, System.currentTimeMillis() - start, error);
+		}
+	}
+
+	private void printResults(Job job, Indexer indexer, Map<String, IndexEntry> index) {
+		// O(n log n) for n words, if top n or unique words were asked for. One
+		// job prints at a time so its lines stay together.
+		int top = Integer.parseInt(job.get("top", "0"));
+		boolean unique = Boolean.parseBoolean(job.get("unique", "false"));
+		if (top <= 0 && !unique) {
+			return;
+		}
+		Outputter o = new Outputter();
+		printLock.lock();
+		try {
+			System.out.println("== Job " + job.number() + ": " + job.get("output", "") + " ==");
+			if (unique) {
+				o.printUniqueWords(index);
+				if (indexer.getRawSketch() != null) {
+					o.printEstimatedUniqueWords(indexer.getRawSketch(), indexer.getEligibleSketch());
+				}
+			}
+			if (top > 0) {
+				o.printMostFrequentWords(index, top);
+			}
+		} finally {
+			printLock.unlock();
+		}
+	}
+
+	/**
+	 * Formats results as a table, with totals.
+	 *
+	 * @param results Results of run().
+	 * @return Table, one line per job.
+	 */
+	public static String report(List<Result> results) {
+		// O(j) for j jobs.
+		StringBuilder table = new StringBuilder();
+		table.append(String.format("%-6s %-8s %10s %10s  %s%n", "Line", "Status", "Words", "ms", "Output"));
+		long millis = 0;
+		int failed = 0;
+		for (Result result : results) {
+			millis += result.millis();
+			String output = result.job().get("output", "");
+			if (result.error() == null) {
+				table.append(String.format("%-6d %-8s %10d %10d  %s%n", result.job().number(), "OK",
+						result.words(), result.millis(), output));
+			} else {
+				failed++;
+				table.append(String.format("%-6d %-8s %10s %10d  %s: %s%n", result.job().number(), "FAILED", "-",
+						result.millis(), output, result.error()));
+			}
+		}
+		table.append(String.format("%d jobs, %d failed, %d ms in jobs%n", results.size(), failed, millis));
+		return table.toString();
+	}
+
+	/**
+	 * Main - Runs a manifest, eg. "BatchRunner jobs.txt 4". Exits with status 1
+	 * if the manifest is invalid or any job failed.
+	 *
+	 * @param args Manifest path, optional number of jobs run at once, default
+	 *             the number of available processors.
+	 * @throws InterruptedException If interrupted while waiting for jobs.
+	 */
+	public static void main(String[] args) throws InterruptedException {
+		// O(j) jobs - see run().
+		if (args.length < 1) {
+			System.out.println("Usage: BatchRunner <manifest> [<workers>]");
+			return;
+		}
+		List<Job> jobs;
+		try {
+			jobs = readManifest(Path.of(args[0]));
+		} catch (IOException e) {
+			System.out.println("[ERROR] Invalid manifest " + args[0] + ". " + e.getMessage());
+			System.exit(1);
+			return;
+		}
+		int workers = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		Menu.setHeadless(true);
+		long start = System.currentTimeMillis();
+		List<Result> results = new BatchRunner(workers).run(jobs);
+		System.out.println();
+		System.out.print(report(results));
+		System.out.println("Batch finished in " + (System.currentTimeMillis() - start) + " milliseconds.");
+		if (results.stream().anyMatch(result -> result.error() != null)) {
+			System.exit(1);
+		}
+	}
+}
@@ -0,0 +1,385 @@
+package ie.atu.sw;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Compressed Index File - Binary alternative to the text index written by
+ * Outputter.saveToFile(). Words are written in sorted order, each followed by
+ * its definition and its page list encoded by PostingsCodec.
+ *
+ * An opened file keeps the raw bytes and a directory of where each word's
+ * entry starts, built by skipping over page lists block by block, so single
+ * entries and page cursors are decoded only when asked for.
+ *
+ * Large indexes can be written one entry at a time with a Writer, and read one
+ * entry at a time with entries(), which maps the file rather than loading it,
+ * or with read(DataInput, BiConsumer) straight off a stream such as a socket.
+ *
+ * See PostingsCodec, IndexFileReader, IndexFormatBenchmark, IndexMerger.
+ *
+ * @author Ben Murray
+ * @version 1.0
+ * @since JDK 19
+ *
+ */
+public class CompressedIndexFile {
+
+	private static final int FILE_MAGIC = 0x49445831;
+
+	private ByteBuffer data;
+	private TreeMap<String, Integer> directory = new TreeMap<String, Integer>();
+
+	private CompressedIndexFile(ByteBuffer data) {
+		// O(n) builds directory of n words.
+		this.data = data;
+		if (data.getInt() != FILE_MAGIC) {
+			throw new IllegalArgumentException("Not a compressed index file");
+		}
+		int count = data.getInt();
+		for (int i = 0; i < count; i++) {
+			String word = readString(data);
+			directory.put(word, data.position());
+			skipString(data);
+			PostingsCodec.skip(data);
+		}
+	}
+
+	/**
+	 * Writes an index in compressed form.
+	 *
+	 * @param index Finished index of words, their definitions and list of pages
+	 *              they are found on.
+	 * @param file  Path to file index will be written to.
+	 * @throws IOException If the file cannot be written.
+	 */
+	public static void write(Map<String, IndexEntry> index, Path file) throws IOException {
+		// O(n log n) - see write(Map, OutputStream).
+		try (OutputStream out = Files.newOutputStream(file)) {
+			write(index, out);
+		}
+	}
+
+	/**
+	 * Writes an index in compressed form to a stream, eg. a socket. The stream
+	 * is flushed but not closed.
+	 *
+	 * @param index Finished index of words, their definitions and list of pages
+	 *              they are found on.
+	 * @param out   Destination.
+	 * @throws IOException If out cannot be written.
+	 */
+	public static void write(Map<String, IndexEntry> index, OutputStream out) throws IOException {
+		// O(n log n) sorts n words, then O(p) encodes p pages in total.
+		DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out, 1 << 16));
+		data.writeInt(FILE_MAGIC);
+		data.writeInt(index.size());
+		for (Map.Entry<String, IndexEntry> entry : new TreeMap<String, IndexEntry>(index).entrySet()) {
+			writeString(data, entry.getKey());
+			writeString(data, entry.getValue().getDefinition());
+			PostingsCodec.encode(entry.getValue().getPages(), data);
+		}
+		data.flush();
+	}
+
+	/**
+	 * Reads a whole compressed index back into IndexEntry objects.
+	 *
+	 * @param file Path of file written by write().
+	 * @return Sorted mapping of words to index entries.
+	 * @throws IOException If the file cannot be read.
+	 */
+	public static TreeMap<String, IndexEntry> read(Path file) throws IOException {
+		// O(p) - see read(ByteBuffer).
+		return read(ByteBuffer.wrap(Files.readAllBytes(file)));
+	}
+
+	/**
+	 * Reads a whole compressed index back into IndexEntry objects.
+	 *
+	 * @param data Array backed buffer positioned at the start of an index
+	 *             written by write().
+	 * @return Sorted mapping of words to index entries.
+	 */
+	public static TreeMap<String, IndexEntry> read(ByteBuffer data) {
+		// O(p) decodes p pages in total.
+		if (data.getInt() != FILE_MAGIC) {
+			throw new IllegalArgumentException("Not a compressed index");
+		}
+		TreeMap<String, IndexEntry> index = new TreeMap<String, IndexEntry>();
+		int count = data.getInt();
+		for (int i = 0; i < count; i++) {
+			String word = readString(data);
+			String definition = readString(data);
+			index.put(word, new IndexEntry(definition, PostingsCodec.decode(data)));
+		}
+		return index;
+	}
+
+	/**
+	 * Reads a compressed index from a stream, eg. a socket, passing each entry to
+	 * sink as soon as it is decoded, so the index is never held whole. Stops at
+	 * the end of the index, leaving anything after it unread.
+	 *
+	 * @param in   Source positioned at the start of an index written by write().
+	 * @param sink Receives each word and its entry, in sorted order.
+	 * @return Number of entries read.
+	 * @throws IOException If in cannot be read, ends within the index, or does
+	 *                     not hold a compressed index.
+	 */
+	public static int read(DataInput in, BiConsumer<String, IndexEntry> sink) throws IOException {
+		// O(p) decodes p pages in total, holding one entry at a time.
+		if (in.readInt() != FILE_MAGIC) {
+			throw new IOException("Not a compressed index");
+		}
+		int count = in.readInt();
+		for (int i = 0; i < count; i++) {
+			String word = readString(in);
+			String definition = readString(in);
+			sink.accept(word, new IndexEntry(definition, PostingsCodec.decode(in)));
+		}
+		return count;
+	}
+
+	/**
+	 * Streams the entries of a compressed index in sorted order, decoding each
+	 * only as it is reached. The file is memory mapped, so only the current
+	 * entry is held on the heap. Close the stream to release the file.
+	 *
+	 * @param file Path of file written by write() or a Writer.
+	 * @return Stream of words and their index entries.
+	 * @throws IOException If the file cannot be mapped, or is not a compressed
+	 *                     index.
+	 */
+	public static Stream<Map.Entry<String, IndexEntry>> entries(Path file) throws IOException {
+		// O(1) maps the file, O(p) decodes p pages as the stream is consumed.
+		ByteBuffer data;
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+		if (data.remaining() < 8 || data.getInt() != FILE_MAGIC) {
+			throw new IOException("Not a compressed index file: " + file);
+		}
+		int count = data.getInt();
+		Iterator<Map.Entry<String, IndexEntry>> iterator = new Iterator<Map.Entry<String, IndexEntry>>() {
+			private int read = 0;
+
+			public boolean hasNext() {
+				return read < count;
+			}
+
+			public Map.Entry<String, IndexEntry> next() {
+				if (read == count) {
+					throw new NoSuchElementException();
+				}
+				read++;
+				String word = readString(data);
+				String definition = readString(data);
+				return new AbstractMap.SimpleImmutableEntry<String, IndexEntry>(word,
+						new IndexEntry(definition, PostingsCodec.decode(data)));
+			}
+		};
+		return StreamSupport.stream(Spliterators.spliterator(iterator, count,
+				Spliterator.ORDERED | Spliterator.SORTED | Spliterator.DISTINCT | Spliterator.NONNULL), false);
+	}
+
+	/**
+	 * Checks whether a file is a compressed index, from its first 4 bytes.
+	 *
+	 * @param file Path of file to check.
+	 * @return True if file starts like a compressed index.
+	 * @throws IOException If the file cannot be read.
+	 */
+	public static boolean isCompressed(Path file) throws IOException {
+		// O(1) reads 4 bytes.
+		try (InputStream in = Files.newInputStream(file)) {
+			byte[] magic = in.readNBytes(4);
+			return magic.length == 4 && ByteBuffer.wrap(magic).getInt() == FILE_MAGIC;
+		}
+	}
+
+	/**
+	 * Opens a Writer that writes a compressed index one entry at a time, so an
+	 * index never has to be held whole, eg. while merging.
+	 *
+	 * @param file Path to file index will be written to.
+	 * @return Writer, entries must be added in sorted order.
+	 * @throws IOException If the file cannot be created.
+	 */
+	public static Writer writer(Path file) throws IOException {
+		// O(1) opens file and writes header.
+		return new Writer(file);
+	}
+
+	/**
+	 * Opens a compressed index for lookups of single words.
+	 *
+	 * @param file Path of file written by write().
+	 * @return Opened index.
+	 * @throws IOException If the file cannot be read.
+	 */
+	public static CompressedIndexFile open(Path file) throws IOException {
+		// O(n + b) for n words with b page blocks in total.
+		return new CompressedIndexFile(ByteBuffer.wrap(Files.readAllBytes(file)));
+	}
+
+	/**
+	 * Gets the words in the index, in sorted order.
+	 *
+	 * @return Set of words.
+	 */
+	public Set<String> getWords() {
+		// O(1) view of directory keys.
+		return directory.navigableKeySet();
+	}
+
+	/**
+	 * Decodes the entry for one word.
+	 *
+	 * @param word Normalised word.
+	 * @return Index entry, or null if word is not in the index.
+	 */
+	public IndexEntry getEntry(String word) {
+		// O(log n) directory lookup, O(p) decodes p pages.
+		Integer offset = directory.get(word);
+		if (offset == null) {
+			return null;
+		}
+		ByteBuffer in = data.duplicate().position(offset);
+		String definition = readString(in);
+		return new IndexEntry(definition, PostingsCodec.decode(in));
+	}
+
+	/**
+	 * Gets a cursor over the pages of one word, without decoding them.
+	 *
+	 * @param word Normalised word.
+	 * @return Cursor over pages, or null if word is not in the index.
+	 */
+	public PostingsCodec.PageCursor getPages(String word) {
+		// O(log n) directory lookup.
+		Integer offset = directory.get(word);
+		if (offset == null) {
+			return null;
+		}
+		ByteBuffer in = data.duplicate().position(offset);
+		skipString(in);
+		return new PostingsCodec.PageCursor(in);
+	}
+
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		// O(n) where n = length of value.
+		byte[] bytes = (value == null ? "" : value).getBytes(StandardCharsets.UTF_8);
+		PostingsCodec.writeVarInt(out, bytes.length);
+		out.write(bytes);
+	}
+
+	private static String readString(ByteBuffer in) {
+		// O(n) where n = length of string, copied first if in is mapped.
+		int length = PostingsCodec.readVarInt(in);
+		if (!in.hasArray()) {
+			byte[] bytes = new byte[length];
+			in.get(bytes);
+			return new String(bytes, StandardCharsets.UTF_8);
+		}
+		String value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+		in.position(in.position() + length);
+		return value;
+	}
+
+	private static String readString(DataInput in) throws IOException {
+		// O(n) where n = length of string.
+		byte[] bytes = new byte[PostingsCodec.readVarInt(in)];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static void skipString(ByteBuffer in) {
+		// O(1) moves past a length prefixed string.
+		int length = PostingsCodec.readVarInt(in);
+		in.position(in.position() + length);
+	}
+
+	/**
+	 * Writer - Writes a compressed index one entry at a time. The word count in
+	 * the header is filled in when the Writer is closed.
+	 */
+	public static class Writer implements Closeable {
+
+		private Path file;
+		private DataOutputStream data;
+		private String previous;
+		private int count;
+
+		private Writer(Path file) throws IOException {
+			// O(1) opens file and writes header with a placeholder count.
+			this.file = file;
+			this.data = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16));
+			data.writeInt(FILE_MAGIC);
+			data.writeInt(0);
+		}
+
+		/**
+		 * Writes one entry.
+		 *
+		 * @param word  Word, greater than every word already added.
+		 * @param entry Definition and pages of word.
+		 * @throws IOException If the file cannot be written.
+		 */
+		public void add(String word, IndexEntry entry) throws IOException {
+			// O(p) encodes p pages.
+			if (previous != null && word.compareTo(previous) <= 0) {
+				throw new IllegalArgumentException("Words out of order: " + previous + ", " + word);
+			}
+			writeString(data, word);
+			writeString(data, entry.getDefinition());
+			PostingsCodec.encode(entry.getPages(), data);
+			previous = word;
+			count++;
+		}
+
+		/**
+		 * Gets number of entries written so far.
+		 *
+		 * @return Entries written.
+		 */
+		public int getCount() {
+			// O(1) return int from memory.
+			return count;
+		}
+
+		/**
+		 * Closes the file and fills in the word count.
+		 */
+		@Override
+		public void close() throws IOException {
+			// O(1) rewrites 4 bytes of header.
+			data.close();
+			try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+				channel.write(ByteBuffer.allocate(4).putInt(0, count), 4);
+			}
+		}
+	}
+}
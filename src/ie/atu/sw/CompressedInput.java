@@ -0,0 +1,381 @@
+package ie.atu.sw;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Compressed Input - Opens input files whether plain or gzip compressed, so
+ * parsers can read .gz dictionaries and texts directly. Plain files are read
+ * as before. Gzip files are decompressed by a background thread into a small
+ * queue of chunks, so decompression overlaps with tokenizing.
+ *
+ * Gzip files made of many small members that record their own compressed size
+ * in the header (the blocked gzip format written by bgzip, and by
+ * writeBlocked() below) are decompressed in parallel, several members per
+ * task, and the results are read back in order. Other gzip files, including
+ * plain concatenations of members, are decompressed on the background thread
+ * alone, as their member boundaries are only found by decompressing.
+ *
+ * See AbstractParser, AbstractThreadedParser, UserInputParser, MappedFile.
+ *
+ * @author Ben Murray
+ * @version 1.0
+ * @since JDK 19
+ *
+ */
+public class CompressedInput {
+
+	private static final int CHUNK_SIZE = 1 << 18;
+	private static final int MEMBERS_PER_TASK = 16;
+	private static final int BLOCK_INPUT_SIZE = 0xFF00;
+	private static final int GZIP_MAGIC = 0x8B1F;
+	private static final int FEXTRA = 4;
+	private static final byte[] END = new byte[0];
+
+	/**
+	 * Checks if a file starts with the gzip magic number.
+	 *
+	 * @param file Path of file.
+	 * @return True if file is gzip compressed.
+	 * @throws IOException If the file cannot be read.
+	 */
+	public static boolean isGzip(Path file) throws IOException {
+		// O(1) reads 2 bytes.
+		try (InputStream in = Files.newInputStream(file)) {
+			int first = in.read();
+			int second = in.read();
+			return second != -1 && (first | second << 8) == GZIP_MAGIC;
+		}
+	}
+
+	/**
+	 * Gets the lines of a plain or gzip compressed UTF-8 file, splitting lines
+	 * as Files.lines() does. Close the stream to stop decompression early.
+	 *
+	 * @param file Path of file.
+	 * @return Stream of lines.
+	 * @throws IOException If the file cannot be opened.
+	 */
+	public static Stream<String> lines(Path file) throws IOException {
+		// O(1) to open, decompression runs as lines are consumed.
+		if (!isGzip(file)) {
+			return Files.lines(file);
+		}
+		BufferedReader reader = new BufferedReader(new InputStreamReader(open(file), StandardCharsets.UTF_8),
+				CHUNK_SIZE);
+		return reader.lines().onClose(() -> {
+			try {
+				reader.close();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+	}
+
+	/**
+	 * Opens a plain or gzip compressed file, returning its decompressed bytes.
+	 *
+	 * @param file Path of file.
+	 * @return Stream of decompressed bytes.
+	 * @throws IOException If the file cannot be opened.
+	 */
+	public static InputStream open(Path file) throws IOException {
+		// O(m) reads the headers of m members to find block boundaries.
+		if (!isGzip(file)) {
+			return Files.newInputStream(file);
+		}
+		MappedFile source = MappedFile.open(file);
+		List<long[]> members = findMembers(source);
+		return members == null ? openSequential(file) : openParallel(source, members);
+	}
+
+	/**
+	 * Maps a plain file, or decompresses a gzip file into memory, for readers
+	 * that need random access such as CsvDictionaryReader.
+	 *
+	 * @param file Path of file.
+	 * @return Mapped or decompressed file contents.
+	 * @throws IOException If the file cannot be read.
+	 */
+	public static MappedFile map(Path file) throws IOException {
+		// O(n) where n = decompressed size, O(1) for plain files.
+		if (!isGzip(file)) {
+			return MappedFile.open(file);
+		}
+		try (InputStream in = open(file)) {
+			return MappedFile.load(in);
+		}
+	}
+
+	/**
+	 * Compresses a file as a series of small gzip members, each recording its
+	 * compressed size, so it can later be decompressed in parallel. Readable by
+	 * any gzip tool.
+	 *
+	 * @param source Path of file to compress.
+	 * @param target Path of compressed file.
+	 * @throws IOException If either file cannot be accessed.
+	 */
+	public static void writeBlocked(Path source, Path target) throws IOException {
+		// O(n) where n = size of source.
+		Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+		CRC32 crc = new CRC32();
+		byte[] compressed = new byte[BLOCK_INPUT_SIZE + 1024];
+		try (InputStream in = Files.newInputStream(source); OutputStream out = Files.newOutputStream(target)) {
+			byte[] block;
+			do {
+				block = in.readNBytes(BLOCK_INPUT_SIZE);
+				deflater.reset();
+				deflater.setInput(block);
+				deflater.finish();
+				int length = deflater.deflate(compressed);
+				crc.reset();
+				crc.update(block);
+				int size = 18 + length + 8;
+				out.write(new byte[] { 0x1F, (byte) 0x8B, 8, FEXTRA, 0, 0, 0, 0, 0, (byte) 0xFF, 6, 0, 'B', 'C', 2,
+						0, (byte) (size - 1), (byte) ((size - 1) >>> 8) });
+				out.write(compressed, 0, length);
+				writeIntLE(out, (int) crc.getValue());
+				writeIntLE(out, block.length);
+			} while (block.length > 0);
+		} finally {
+			deflater.end();
+		}
+	}
+
+	/**
+	 * Compresses a file for parallel decompression.
+	 *
+	 * Usage: CompressedInput &lt;source&gt; &lt;target.gz&gt;
+	 *
+	 * @param args Source and target paths.
+	 */
+	public static void main(String[] args) throws IOException {
+		// O(n) where n = size of source.
+		writeBlocked(Path.of(args[0]), Path.of(args[1]));
+	}
+
+	private static List<long[]> findMembers(MappedFile source) {
+		// O(m) - walks the member headers, returns null unless every member
+		// records its size in a "BC" extra field.
+		List<long[]> members = new ArrayList<long[]>();
+		long position = 0;
+		while (position < source.size()) {
+			if (position + 18 > source.size() || shortAt(source, position) != GZIP_MAGIC
+					|| source.get(position + 2) != 8 || source.get(position + 3) != FEXTRA) {
+				return null;
+			}
+			long size = -1;
+			long field = position + 12;
+			long extraEnd = field + shortAt(source, position + 10);
+			while (field + 4 <= extraEnd) {
+				int length = shortAt(source, field + 2);
+				if (source.get(field) == 'B' && source.get(field + 1) == 'C' && length == 2) {
+					size = shortAt(source, field + 4) + 1;
+				}
+				field += 4 + length;
+			}
+			if (size == -1 || position + size > source.size()) {
+				return null;
+			}
+			members.add(new long[] { position, size, extraEnd - position });
+			position += size;
+		}
+		return members;
+	}
+
+	private static InputStream openSequential(Path file) {
+		// O(1) starts one thread decompressing the whole file in order.
+		BlockingQueue<Future<byte[]>> queue = new ArrayBlockingQueue<Future<byte[]>>(4);
+		Thread reader = Thread.ofPlatform().daemon().name("gzip-reader").start(() -> {
+			try {
+				try (InputStream in = new GZIPInputStream(Files.newInputStream(file), CHUNK_SIZE)) {
+					byte[] chunk;
+					while ((chunk = in.readNBytes(CHUNK_SIZE)).length > 0) {
+						queue.put(CompletableFuture.completedFuture(chunk));
+					}
+					queue.put(CompletableFuture.completedFuture(END));
+				} catch (IOException e) {
+					queue.put(CompletableFuture.failedFuture(e));
+				}
+			} catch (InterruptedException e) {
+				// Reader closed early.
+			}
+		});
+		return new ChunkInputStream(queue, reader::interrupt);
+	}
+
+	private static InputStream openParallel(MappedFile source, List<long[]> members) {
+		// O(1) starts a thread submitting tasks of 16 members each to a pool
+		// sized to the number of cores, queueing their results in file order.
+		int threads = Runtime.getRuntime().availableProcessors();
+		ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+			Thread thread = new Thread(runnable, "gzip-inflater");
+			thread.setDaemon(true);
+			return thread;
+		});
+		BlockingQueue<Future<byte[]>> queue = new ArrayBlockingQueue<Future<byte[]>>(threads * 2);
+		Thread reader = Thread.ofPlatform().daemon().name("gzip-reader").start(() -> {
+			try {
+				for (int i = 0; i < members.size(); i += MEMBERS_PER_TASK) {
+					List<long[]> task = members.subList(i, Math.min(members.size(), i + MEMBERS_PER_TASK));
+					queue.put(pool.submit(() -> inflate(source, task)));
+				}
+				queue.put(CompletableFuture.completedFuture(END));
+			} catch (InterruptedException e) {
+				pool.shutdownNow();
+			} finally {
+				pool.shutdown();
+			}
+		});
+		return new ChunkInputStream(queue, () -> {
+			reader.interrupt();
+			pool.shutdownNow();
+		});
+	}
+
+	private static byte[] inflate(MappedFile source, List<long[]> members) throws IOException {
+		// O(n) where n = decompressed size of members, sized exactly from the
+		// length recorded in each member's trailer.
+		long total = 0;
+		for (long[] member : members) {
+			total += intAt(source, member[0] + member[1] - 4) & 0xFFFFFFFFL;
+		}
+		byte[] output = new byte[Math.toIntExact(total)];
+		Inflater inflater = new Inflater(true);
+		CRC32 crc = new CRC32();
+		int written = 0;
+		try {
+			for (long[] member : members) {
+				int length = (int) (member[1] - member[2] - 8);
+				byte[] input = new byte[length];
+				source.read(member[0] + member[2], input, 0, length);
+				int size = intAt(source, member[0] + member[1] - 4);
+				inflater.reset();
+				inflater.setInput(input);
+				int inflated = 0;
+				while (inflated < size && !inflater.finished()) {
+					int count = inflater.inflate(output, written + inflated, size - inflated);
+					if (count == 0 && inflater.needsInput()) {
+						break;
+					}
+					inflated += count;
+				}
+				crc.reset();
+				crc.update(output, written, inflated);
+				if (inflated != size || (int) crc.getValue() != intAt(source, member[0] + member[1] - 8)) {
+					throw new ZipException("Corrupt gzip member at offset " + member[0]);
+				}
+				written += size;
+			}
+		} catch (DataFormatException e) {
+			throw new ZipException(e.getMessage());
+		} finally {
+			inflater.end();
+		}
+		return output;
+	}
+
+	private static int shortAt(MappedFile source, long position) {
+		// O(1) little endian unsigned 16 bit value.
+		return (source.get(position) & 0xFF) | (source.get(position + 1) & 0xFF) << 8;
+	}
+
+	private static int intAt(MappedFile source, long position) {
+		// O(1) little endian 32 bit value.
+		return shortAt(source, position) | shortAt(source, position + 2) << 16;
+	}
+
+	private static void writeIntLE(OutputStream out, int value) throws IOException {
+		// O(1) writes 4 bytes.
+		out.write(new byte[] { (byte) value, (byte) (value >>> 8), (byte) (value >>> 16), (byte) (value >>> 24) });
+	}
+
+	/**
+	 * Chunk Input Stream - Reads decompressed chunks from a queue, in order,
+	 * waiting for each one to be ready.
+	 */
+	private static class ChunkInputStream extends InputStream {
+		private BlockingQueue<Future<byte[]>> queue;
+		private Runnable onClose;
+		private byte[] chunk;
+		private int position;
+
+		private ChunkInputStream(BlockingQueue<Future<byte[]>> queue, Runnable onClose) {
+			// O(1) set values of fields.
+			this.queue = queue;
+			this.onClose = onClose;
+		}
+
+		@Override
+		public int read() throws IOException {
+			// O(1) amortised.
+			return fill() ? chunk[position++] & 0xFF : -1;
+		}
+
+		@Override
+		public int read(byte[] destination, int offset, int length) throws IOException {
+			// O(n) where n = length.
+			if (length == 0) {
+				return 0;
+			}
+			if (!fill()) {
+				return -1;
+			}
+			int count = Math.min(length, chunk.length - position);
+			System.arraycopy(chunk, position, destination, offset, count);
+			position += count;
+			return count;
+		}
+
+		@Override
+		public void close() {
+			// O(1) stops decompression threads.
+			chunk = END;
+			position = 0;
+			onClose.run();
+		}
+
+		private boolean fill() throws IOException {
+			// O(1) takes the next chunk once the current one is used up.
+			while (chunk == null || position == chunk.length) {
+				if (chunk == END) {
+					return false;
+				}
+				try {
+					chunk = queue.take().get();
+					position = 0;
+				} catch (InterruptedException e) {
+					throw new InterruptedIOException("Interrupted while decompressing");
+				} catch (ExecutionException e) {
+					throw e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+				}
+			}
+			return true;
+		}
+	}
+}
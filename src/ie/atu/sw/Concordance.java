@@ -0,0 +1,100 @@
+package ie.atu.sw;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Concordance - Key word in context (KWIC) snippets for indexed words. Each
+ * occurrence is located through the PositionIndex and LineOffsetTable, and
+ * only the lines holding the requested context are read from the mapped
+ * source, so the cost depends on the number of occurrences rather than the
+ * size of the document.
+ *
+ * See UserInputParser.getConcordance().
+ *
+ * @author Ben Murray
+ * @version 1.0
+ * @since JDK 19
+ *
+ */
+public class Concordance {
+
+	private MappedFile source;
+	private LineOffsetTable lines;
+	private PositionIndex positions;
+	private Tokenizer tokenizer;
+
+	/**
+	 * Constructor for Concordance.
+	 *
+	 * @param source    Mapped source text.
+	 * @param lines     Line offsets of the source text.
+	 * @param positions Word positions recorded while parsing the source text.
+	 * @param tokenizer Tokenizer used while parsing, so words line up with
+	 *                  positions.
+	 */
+	public Concordance(MappedFile source, LineOffsetTable lines, PositionIndex positions, Tokenizer tokenizer) {
+		// O(1) set values of fields.
+		this.source = source;
+		this.lines = lines;
+		this.positions = positions;
+		this.tokenizer = tokenizer;
+	}
+
+	/**
+	 * Gets a snippet for every occurrence of a word, with the word in brackets
+	 * and up to context words either side, eg. "the quick [brown] fox jumps".
+	 *
+	 * @param word    Normalised word.
+	 * @param context Number of words either side of each occurrence.
+	 * @return List of snippets in document order.
+	 */
+	public List<String> getSnippets(String word, int context) {
+		// O(k * c) for k occurrences with c words of context each.
+		List<String> snippets = new ArrayList<String>();
+		for (long position : positions.getPositions(word)) {
+			snippets.add(getSnippet(position, context));
+		}
+		return snippets;
+	}
+
+	/**
+	 * Gets a snippet around the word at a given position.
+	 *
+	 * @param position Word position, see PositionIndex.
+	 * @param context  Number of words either side of the position.
+	 * @return Snippet with the word at position in brackets.
+	 */
+	public String getSnippet(long position, int context) {
+		// O(c) reads only the lines spanned by c words of context.
+		long first = Math.max(0, position - context);
+		long last = Math.min(positions.getWordCount() - 1, position + context);
+		StringBuilder snippet = new StringBuilder();
+		for (int line = positions.lineOf(first); line <= positions.lineOf(last); line++) {
+			long[] ordinal = { positions.getFirstWord(line) };
+			tokenizer.tokenize(readLine(line), w -> {
+				long current = ordinal[0]++;
+				if (current >= first && current <= last) {
+					if (snippet.length() > 0) {
+						snippet.append(' ');
+					}
+					snippet.append(current == position ? "[" + w + "]" : w);
+				}
+			});
+		}
+		return snippet.toString();
+	}
+
+	private String readLine(int line) {
+		// O(n) where n = length of line.
+		long start = lines.getStart(line);
+		int length = (int) (lines.getEnd(line) - start);
+		byte[] bytes = new byte[length];
+		source.read(start, bytes, 0, length);
+		while (length > 0 && (bytes[length - 1] == '\n' || bytes[length - 1] == '\r')) {
+			length--;
+		}
+		return new String(bytes, 0, length, StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,216 @@
+package ie.atu.sw;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Concurrent Postings - Multimap of words to the pages they are found on, for
+ * many tokenizing threads to write to at once without locks.
+ *
+ * Each word has a small array of stripes, and each writer appends to the
+ * stripe picked by its thread id, so threads adding the same hot word (eg.
+ * "the") mostly touch different memory. A stripe is a chain of int segments,
+ * each twice the size of the last; a page is appended by claiming a slot with
+ * one atomic increment, and a full segment is replaced by compare-and-set. A
+ * writer also skips a page equal to the last one its stripe saw, so a word
+ * repeated on a page costs a read rather than an append.
+ *
+ * Stripes are unordered and may hold duplicates. Reading a word merges its
+ * stripes into sorted, distinct pages, so reads should be made once writers
+ * have finished, eg. after ExecutionStrategy.execute() returns.
+ *
+ * See UserInputParser.setStrategy(), PostingsBenchmark.
+ *
+ * @author Ben Murray
+ * @version 1.0
+ * @since JDK 19
+ *
+ */
+public class ConcurrentPostings {
+
+	private static final int FIRST_SEGMENT = 4;
+
+	private ConcurrentHashMap<String, Postings> words = new ConcurrentHashMap<String, Postings>();
+	private int stripes;
+
+	/**
+	 * Constructor for ConcurrentPostings, with one stripe per available
+	 * processor, rounded up to a power of two.
+	 */
+	public ConcurrentPostings() {
+		// O(1) - see ConcurrentPostings(int).
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Constructor for ConcurrentPostings.
+	 *
+	 * @param stripes Number of stripes per word, rounded up to a power of two.
+	 */
+	public ConcurrentPostings(int stripes) {
+		// O(1) round up to a power of two.
+		this.stripes = Integer.highestOneBit(Math.max(1, stripes - 1)) << (stripes > 1 ? 1 : 0);
+	}
+
+	/**
+	 * Records that word is found on page. Safe to call from any number of
+	 * threads at once.
+	 *
+	 * @param word Normalised word.
+	 * @param page Page number, at least 1.
+	 */
+	public void add(String word, int page) {
+		// O(1) amortised - a lock free map read, then one atomic increment.
+		Postings postings = words.get(word);
+		if (postings == null) {
+			postings = words.computeIfAbsent(word, w -> new Postings(stripes));
+		}
+		postings.add(page);
+	}
+
+	/**
+	 * Gets number of distinct words recorded.
+	 *
+	 * @return Number of words.
+	 */
+	public int size() {
+		// O(1) size of ConcurrentHashMap.
+		return words.size();
+	}
+
+	/**
+	 * Gets the words recorded.
+	 *
+	 * @return Unordered view of words.
+	 */
+	public Set<String> getWords() {
+		// O(1) view of map keys.
+		return words.keySet();
+	}
+
+	/**
+	 * Gets the pages a word is found on.
+	 *
+	 * @param word Normalised word.
+	 * @return Pages in ascending order without duplicates, empty if word has
+	 *         not been recorded.
+	 */
+	public int[] getPages(String word) {
+		// O(p log p) sorts p appended pages.
+		Postings postings = words.get(word);
+		return postings == null ? new int[0] : postings.toSortedArray();
+	}
+
+	/**
+	 * Copies every word and its pages into the map form used by Filter and
+	 * MapBuilder.
+	 *
+	 * @return Mapping of words to sorted sets of pages.
+	 */
+	public Map<String, TreeSet<Integer>> toMap() {
+		// O(p log p) for p pages in total.
+		HashMap<String, TreeSet<Integer>> map = new HashMap<String, TreeSet<Integer>>(words.size() * 4 / 3 + 1);
+		words.forEach((word, postings) -> {
+			TreeSet<Integer> pages = new TreeSet<Integer>();
+			for (int page : postings.toSortedArray()) {
+				pages.add(page);
+			}
+			map.put(word, pages);
+		});
+		return map;
+	}
+
+	private static class Postings {
+
+		private AtomicReferenceArray<Segment> stripes;
+		private int mask;
+
+		private Postings(int stripes) {
+			// O(1) - stripes are created on first use.
+			this.stripes = new AtomicReferenceArray<Segment>(stripes);
+			this.mask = stripes - 1;
+		}
+
+		private void add(int page) {
+			// O(1) amortised, lock free.
+			long id = Thread.currentThread().threadId();
+			int stripe = (int) (id ^ (id >>> 16)) * 0x9E3779B9 >>> 16 & mask;
+			Segment segment = stripes.get(stripe);
+			while (true) {
+				if (segment == null) {
+					Segment first = new Segment(FIRST_SEGMENT, null);
+					if (stripes.compareAndSet(stripe, null, first)) {
+						segment = first;
+					} else {
+						segment = stripes.get(stripe);
+						continue;
+					}
+				}
+				if (segment.last == page) {
+					return;
+				}
+				int slot = segment.size.getAndIncrement();
+				if (slot < segment.pages.length) {
+					segment.pages[slot] = page;
+					segment.last = page;
+					return;
+				}
+				Segment next = new Segment(segment.pages.length * 2, segment);
+				if (!stripes.compareAndSet(stripe, segment, next)) {
+					next = stripes.get(stripe);
+				}
+				segment = next;
+			}
+		}
+
+		private int[] toSortedArray() {
+			// O(p log p) gathers, sorts and removes duplicates of p pages.
+			int total = 0;
+			for (int i = 0; i < stripes.length(); i++) {
+				for (Segment s = stripes.get(i); s != null; s = s.previous) {
+					total += Math.min(s.size.get(), s.pages.length);
+				}
+			}
+			int[] pages = new int[total];
+			int n = 0;
+			for (int i = 0; i < stripes.length(); i++) {
+				for (Segment s = stripes.get(i); s != null; s = s.previous) {
+					int filled = Math.min(s.size.get(), s.pages.length);
+					for (int j = 0; j < filled; j++) {
+						if (s.pages[j] != 0) {
+							pages[n++] = s.pages[j];
+						}
+					}
+				}
+			}
+			Arrays.sort(pages, 0, n);
+			int distinct = 0;
+			for (int i = 0; i < n; i++) {
+				if (distinct == 0 || pages[i] != pages[distinct - 1]) {
+					pages[distinct++] = pages[i];
+				}
+			}
+			return Arrays.copyOf(pages, distinct);
+		}
+	}
+
+	private static class Segment {
+
+		private int[] pages;
+		private AtomicInteger size = new AtomicInteger();
+		private Segment previous;
+		private volatile int last;
+
+		private Segment(int capacity, Segment previous) {
+			// O(n) allocates n slots.
+			this.pages = new int[capacity];
+			this.previous = previous;
+		}
+	}
+}
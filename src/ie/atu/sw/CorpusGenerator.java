@@ -0,0 +1,222 @@
+package ie.atu.sw;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Corpus Generator - Produces deterministic, seeded synthetic inputs for
+ * scaling tests: a text file whose words follow a Zipfian distribution, a
+ * dictionary file in the format expected by DictionaryParser and a matching
+ * common words file.
+ *
+ * The same seed, vocabulary size and exponent always produce the same files, so
+ * results from different runs and machines can be compared directly.
+ *
+ * See ScalingHarness.
+ *
+ * @author Ben Murray
+ * @version 1.0
+ * @since JDK 19
+ *
+ */
+public class CorpusGenerator {
+
+	private static final int MIN_WORD_LENGTH = 2;
+	private static final int MAX_WORD_LENGTH = 12;
+	private static final int MIN_WORDS_PER_LINE = 6;
+	private static final int MAX_WORDS_PER_LINE = 16;
+
+	private long seed;
+	private List<String> vocabulary;
+	private double[] cumulative;
+
+	/**
+	 * Constructor for CorpusGenerator, builds a ranked vocabulary and its Zipfian
+	 * cumulative distribution.
+	 *
+	 * @param seed           Seed for all random choices made by this generator.
+	 * @param vocabularySize Number of distinct words in the vocabulary.
+	 * @param exponent       Zipf exponent, 1.0 approximates natural English text.
+	 */
+	public CorpusGenerator(long seed, int vocabularySize, double exponent) {
+		// O(n) where n = vocabularySize.
+		this.seed = seed;
+		this.vocabulary = buildVocabulary(new Random(seed), vocabularySize);
+		this.cumulative = buildDistribution(vocabularySize, exponent);
+	}
+
+	/**
+	 * Gets the ranked vocabulary, most frequent word first.
+	 *
+	 * @return List of vocabulary words in rank order.
+	 */
+	public List<String> getVocabulary() {
+		// O(1) return list from memory.
+		return vocabulary;
+	}
+
+	/**
+	 * Writes a text file of approximately the requested size, with word
+	 * frequencies following the generator's Zipfian distribution. Output is
+	 * streamed, so files far larger than the heap can be produced.
+	 *
+	 * @param file  Path of text file to be written.
+	 * @param bytes Target size of the file in bytes.
+	 * @throws IOException If the file cannot be written.
+	 */
+	public void writeText(Path file, long bytes) throws IOException {
+		// O(n) where n = number of words written.
+		Random random = new Random(seed ^ bytes);
+		StringBuilder line = new StringBuilder(128);
+		long written = 0;
+		try (BufferedWriter bw = Files.newBufferedWriter(file, StandardCharsets.US_ASCII)) {
+			while (written < bytes) {
+				line.setLength(0);
+				int words = MIN_WORDS_PER_LINE + random.nextInt(MAX_WORDS_PER_LINE - MIN_WORDS_PER_LINE + 1);
+				for (int i = 0; i < words; i++) {
+					String word = nextWord(random);
+					if (i == 0) {
+						line.append(Character.toUpperCase(word.charAt(0))).append(word, 1, word.length());
+					} else {
+						line.append(' ').append(word);
+					}
+					if (random.nextInt(12) == 0) {
+						line.append(random.nextBoolean() ? ',' : ';');
+					}
+				}
+				line.append('.');
+				bw.write(line.toString());
+				bw.newLine();
+				written += line.length() + 1;
+			}
+		}
+	}
+
+	/**
+	 * Writes a dictionary file containing a share of the vocabulary, one
+	 * "Word,Definition" record per line.
+	 *
+	 * @param file     Path of dictionary file to be written.
+	 * @param coverage Fraction (0 - 1) of vocabulary words given a definition.
+	 * @throws IOException If the file cannot be written.
+	 */
+	public void writeDictionary(Path file, double coverage) throws IOException {
+		// O(n) where n = vocabulary size.
+		Random random = new Random(seed + 1);
+		try (BufferedWriter bw = Files.newBufferedWriter(file, StandardCharsets.US_ASCII)) {
+			for (int rank = 0; rank < vocabulary.size(); rank++) {
+				if (random.nextDouble() >= coverage) {
+					continue;
+				}
+				String word = vocabulary.get(rank);
+				bw.write(Character.toUpperCase(word.charAt(0)) + word.substring(1));
+				bw.write(",Synthetic definition for rank ");
+				bw.write(Integer.toString(rank + 1));
+				bw.write(" in the generated vocabulary; see also ");
+				bw.write(nextWord(random));
+				bw.write('.');
+				bw.newLine();
+			}
+		}
+	}
+
+	/**
+	 * Writes a common words file containing the most frequent vocabulary words,
+	 * one per line.
+	 *
+	 * @param file  Path of common words file to be written.
+	 * @param count Number of top-ranked words to include.
+	 * @throws IOException If the file cannot be written.
+	 */
+	public void writeCommonWords(Path file, int count) throws IOException {
+		// O(n) where n = count.
+		try (BufferedWriter bw = Files.newBufferedWriter(file, StandardCharsets.US_ASCII)) {
+			for (int rank = 0; rank < Math.min(count, vocabulary.size()); rank++) {
+				bw.write(vocabulary.get(rank));
+				bw.newLine();
+			}
+		}
+	}
+
+	/**
+	 * Writes a text file, dictionary and common words list into a directory.
+	 *
+	 * Usage: CorpusGenerator &lt;directory&gt; &lt;text size in MB&gt; [seed]
+	 *
+	 * @param args Output directory, text size in megabytes and optional seed.
+	 */
+	public static void main(String[] args) throws IOException {
+		// O(n) where n = number of words written.
+		if (args.length < 2) {
+			System.out.println("Usage: CorpusGenerator <directory> <text size in MB> [seed]");
+			return;
+		}
+		Path dir = Files.createDirectories(Path.of(args[0]));
+		long bytes = Long.parseLong(args[1]) * 1024 * 1024;
+		long seed = args.length > 2 ? Long.parseLong(args[2]) : 42;
+
+		CorpusGenerator generator = new CorpusGenerator(seed, 50_000, 1.0);
+		generator.writeDictionary(dir.resolve("dictionary.csv"), 0.8);
+		generator.writeCommonWords(dir.resolve("google-1000.txt"), 1000);
+		generator.writeText(dir.resolve("text.txt"), bytes);
+		System.out.println("Corpus written to " + dir.toAbsolutePath());
+	}
+
+	private String nextWord(Random random) {
+		// O(log n) binary search of cumulative distribution.
+		double target = random.nextDouble();
+		int low = 0;
+		int high = cumulative.length - 1;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (cumulative[mid] < target) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return vocabulary.get(low);
+	}
+
+	private static List<String> buildVocabulary(Random random, int size) {
+		// O(n) - each word is generated and checked against a HashSet.
+		List<String> words = new ArrayList<String>(size);
+		HashSet<String> seen = new HashSet<String>();
+		StringBuilder sb = new StringBuilder(MAX_WORD_LENGTH);
+		while (words.size() < size) {
+			sb.setLength(0);
+			// Frequent ranks get shorter words, as in natural language.
+			int maxLength = Math.min(MAX_WORD_LENGTH, MIN_WORD_LENGTH + 2 + words.size() / 500);
+			int length = MIN_WORD_LENGTH + random.nextInt(maxLength - MIN_WORD_LENGTH + 1);
+			for (int i = 0; i < length; i++) {
+				sb.append((char) ('a' + random.nextInt(26)));
+			}
+			String word = sb.toString();
+			if (seen.add(word)) {
+				words.add(word);
+			}
+		}
+		return words;
+	}
+
+	private static double[] buildDistribution(int size, double exponent) {
+		// O(n) - cumulative sum of rank weights 1 / rank^s, normalised to 1.
+		double[] cdf = new double[size];
+		double total = 0;
+		for (int rank = 1; rank <= size; rank++) {
+			total += 1.0 / Math.pow(rank, exponent);
+			cdf[rank - 1] = total;
+		}
+		for (int i = 0; i < size; i++) {
+			cdf[i] /= total;
+		}
+		return cdf;
+	}
+}
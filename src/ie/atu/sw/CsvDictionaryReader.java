@@ -0,0 +1,351 @@
+package ie.atu.sw;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * CSV Dictionary Reader - Reads "word,definition" records from a CSV file in
+ * parallel. Supports quoted fields, escaped quotes ("") and records spanning
+ * several lines. Unquoted definitions containing commas are kept whole rather
+ * than truncated.
+ *
+ * The file is memory mapped and split into byte ranges. A first parallel pass
+ * counts quotes and newlines in each range; a running total of those tells each
+ * range whether it starts inside a quoted field and on which line, so the
+ * second pass can find the first record boundary in its range and parse the
+ * records starting there independently. Malformed records are skipped and
+ * reported through getDiagnostics() rather than thrown on a worker thread.
+ *
+ * See DictionaryParser, MappedFile.
+ *
+ * @author Ben Murray
+ * @version 1.0
+ * @since JDK 19
+ *
+ */
+public class CsvDictionaryReader {
+
+	private static final long MIN_CHUNK_SIZE = 1L << 20;
+	private static final long MAX_CHUNK_SIZE = 64L << 20;
+	private static final int WINDOW_SIZE = 64 * 1024;
+	private static final int MAX_DIAGNOSTICS = 1000;
+
+	private ExecutionStrategy strategy = new VirtualThreadPerTaskStrategy();
+	private long chunkSize = 0;
+	private ConcurrentSkipListMap<Long, String> diagnostics = new ConcurrentSkipListMap<Long, String>();
+	private LongAdder errorCount = new LongAdder();
+	private LongAdder recordCount = new LongAdder();
+
+	/**
+	 * Gets the strategy used to run per-chunk tasks.
+	 *
+	 * @return Execution strategy for this reader.
+	 */
+	public ExecutionStrategy getStrategy() {
+		// O(1) return strategy from memory.
+		return strategy;
+	}
+
+	/**
+	 * Sets the strategy used to run per-chunk tasks.
+	 *
+	 * @param strategy Execution strategy for this reader.
+	 */
+	public void setStrategy(ExecutionStrategy strategy) {
+		// O(1) set value of strategy.
+		this.strategy = strategy;
+	}
+
+	/**
+	 * Gets size in bytes of the ranges the file is split into. 0 means the size
+	 * is chosen from the file size and number of cores.
+	 *
+	 * @return Chunk size in bytes.
+	 */
+	public long getChunkSize() {
+		// O(1) return long from memory.
+		return chunkSize;
+	}
+
+	/**
+	 * Sets size in bytes of the ranges the file is split into, 0 for automatic.
+	 *
+	 * @param chunkSize Chunk size in bytes.
+	 */
+	public void setChunkSize(long chunkSize) {
+		// O(1) set value of chunkSize.
+		this.chunkSize = chunkSize;
+	}
+
+	/**
+	 * Gets messages describing malformed records, in line order. At most the
+	 * first 1000 are kept, see getErrorCount() for the total.
+	 *
+	 * @return List of "Line n: reason" messages.
+	 */
+	public List<String> getDiagnostics() {
+		// O(n) copies n messages into a new list.
+		return new ArrayList<String>(diagnostics.values());
+	}
+
+	/**
+	 * Gets total number of malformed records skipped.
+	 *
+	 * @return Number of malformed records.
+	 */
+	public long getErrorCount() {
+		// O(s) sums s LongAdder cells.
+		return errorCount.sum();
+	}
+
+	/**
+	 * Gets total number of records read successfully.
+	 *
+	 * @return Number of records passed to the sink.
+	 */
+	public long getRecordCount() {
+		// O(s) sums s LongAdder cells.
+		return recordCount.sum();
+	}
+
+	/**
+	 * Reads every record in a CSV file, passing word and definition to sink. The
+	 * sink is called concurrently from several threads.
+	 *
+	 * @param file Path of CSV file.
+	 * @param sink Receives word and definition of each valid record.
+	 * @throws IOException If the file cannot be opened or mapped.
+	 */
+	public void read(Path file, BiConsumer<String, String> sink) throws IOException {
+		// O(n) - two passes over n bytes, each split across the strategy's threads.
+		MappedFile source = CompressedInput.map(file);
+		long size = source.size();
+		long chunk = chunkSize > 0 ? chunkSize : automaticChunkSize(size);
+		int chunks = (int) Math.max(1, (size + chunk - 1) / chunk);
+		strategy.begin(file.toString(), size);
+
+		long[] quotes = new long[chunks];
+		long[] newlines = new long[chunks];
+		strategy.execute(IntStream.range(0, chunks).boxed(), c -> {
+			long[] counts = count(source, c * chunk, Math.min(size, (c + 1) * chunk));
+			quotes[c] = counts[0];
+			newlines[c] = counts[1];
+		});
+
+		boolean[] quotedAtStart = new boolean[chunks];
+		long[] firstLine = new long[chunks];
+		long quoteTotal = 0;
+		long line = 1;
+		for (int c = 0; c < chunks; c++) {
+			quotedAtStart[c] = (quoteTotal & 1) == 1;
+			firstLine[c] = line;
+			quoteTotal += quotes[c];
+			line += newlines[c];
+		}
+
+		strategy.execute(IntStream.range(0, chunks).boxed(), c -> new ChunkParser(source, c * chunk,
+				Math.min(size, (c + 1) * chunk), quotedAtStart[c], firstLine[c], sink).parse());
+	}
+
+	private void diagnose(long line, String reason) {
+		// O(log n) insert into skip list of n diagnostics.
+		errorCount.increment();
+		if (diagnostics.size() < MAX_DIAGNOSTICS) {
+			diagnostics.put(line, "Line " + line + ": " + reason);
+		}
+	}
+
+	private static long automaticChunkSize(long size) {
+		// O(1) - aim for 4 chunks per core, within sensible bounds.
+		long target = size / (4L * Runtime.getRuntime().availableProcessors());
+		return Math.max(MIN_CHUNK_SIZE, Math.min(MAX_CHUNK_SIZE, target));
+	}
+
+	private static long[] count(MappedFile source, long start, long end) {
+		// O(n) where n = end - start.
+		byte[] window = new byte[WINDOW_SIZE];
+		long quotes = 0;
+		long newlines = 0;
+		for (long position = start; position < end; position += WINDOW_SIZE) {
+			int length = source.read(position, window, 0, (int) Math.min(WINDOW_SIZE, end - position));
+			for (int i = 0; i < length; i++) {
+				if (window[i] == '"') {
+					quotes++;
+				} else if (window[i] == '\n') {
+					newlines++;
+				}
+			}
+		}
+		return new long[] { quotes, newlines };
+	}
+
+	/*
+	 * Parses the records that start within one byte range. Records may run past
+	 * the end of the range, the following range skips them.
+	 */
+	private class ChunkParser {
+		private MappedFile source;
+		private long start;
+		private long end;
+		private boolean quotedAtStart;
+		private long line;
+		private BiConsumer<String, String> sink;
+
+		private byte[] window = new byte[WINDOW_SIZE];
+		private long windowStart;
+		private int windowLength;
+		private long position;
+		private byte[] field = new byte[256];
+		private int fieldLength;
+		private List<String> fields = new ArrayList<String>();
+
+		private ChunkParser(MappedFile source, long start, long end, boolean quotedAtStart, long line,
+				BiConsumer<String, String> sink) {
+			// O(1) set values of fields.
+			this.source = source;
+			this.start = start;
+			this.end = end;
+			this.quotedAtStart = quotedAtStart;
+			this.line = line;
+			this.sink = sink;
+		}
+
+		private void parse() {
+			// O(n) where n = bytes in range plus any record running past its end.
+			position = start;
+			windowStart = start;
+			if (start > 0 && (source.get(start - 1) != '\n' || quotedAtStart)) {
+				skipToRecordStart();
+			}
+			while (position < end) {
+				parseRecord();
+			}
+		}
+
+		private void skipToRecordStart() {
+			// O(n) where n = length of record straddling start of range.
+			boolean quoted = quotedAtStart;
+			int b;
+			while ((b = next()) != -1) {
+				if (b == '"') {
+					quoted = !quoted;
+				} else if (b == '\n') {
+					line++;
+					if (!quoted) {
+						return;
+					}
+				}
+			}
+		}
+
+		private void parseRecord() {
+			// O(n) where n = length of record.
+			long recordLine = line;
+			boolean quoted = false;
+			fields.clear();
+			fieldLength = 0;
+			int b;
+			while (true) {
+				b = next();
+				if (b == -1) {
+					if (quoted) {
+						diagnose(recordLine, "unterminated quoted field");
+						return;
+					}
+					break;
+				} else if (quoted) {
+					if (b == '"' && peek() == '"') {
+						next();
+						append('"');
+					} else if (b == '"') {
+						quoted = false;
+					} else {
+						if (b == '\n') {
+							line++;
+						}
+						append(b);
+					}
+				} else if (b == '"') {
+					quoted = true;
+				} else if (b == ',') {
+					endField();
+				} else if (b == '\n') {
+					line++;
+					break;
+				} else {
+					append(b);
+				}
+			}
+			if (fieldLength > 0 && field[fieldLength - 1] == '\r') {
+				fieldLength--;
+			}
+			endField();
+			emit(recordLine);
+		}
+
+		private void emit(long recordLine) {
+			// O(f) where f = number of fields in record.
+			if (fields.size() == 1 && fields.get(0).isEmpty()) {
+				return;
+			} else if (fields.size() < 2) {
+				diagnose(recordLine, "expected word,definition but found a single field");
+				return;
+			}
+			String word = fields.get(0).strip();
+			String definition = fields.size() == 2 ? fields.get(1)
+					: String.join(",", fields.subList(1, fields.size()));
+			if (word.isEmpty()) {
+				diagnose(recordLine, "missing word");
+			} else if (definition.isBlank()) {
+				diagnose(recordLine, "missing definition for '" + word + "'");
+			} else {
+				sink.accept(word, definition);
+				recordCount.increment();
+			}
+		}
+
+		private void append(int b) {
+			// O(1) amortised, field buffer doubles when full.
+			if (fieldLength == field.length) {
+				byte[] larger = new byte[field.length * 2];
+				System.arraycopy(field, 0, larger, 0, fieldLength);
+				field = larger;
+			}
+			field[fieldLength++] = (byte) b;
+		}
+
+		private void endField() {
+			// O(n) decodes n bytes of field.
+			fields.add(new String(field, 0, fieldLength, StandardCharsets.UTF_8));
+			fieldLength = 0;
+		}
+
+		private int next() {
+			// O(1) amortised, refills window every 64 KB.
+			int b = peek();
+			if (b != -1) {
+				position++;
+			}
+			return b;
+		}
+
+		private int peek() {
+			// O(1) amortised, refills window every 64 KB.
+			if (position - windowStart >= windowLength) {
+				windowStart = position;
+				windowLength = source.read(position, window, 0, WINDOW_SIZE);
+				if (windowLength <= 0) {
+					return -1;
+				}
+			}
+			return window[(int) (position - windowStart)] & 0xFF;
+		}
+	}
+}
@@ -1,18 +1,20 @@
 package ie.atu.sw;
 
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.text.Normalizer;
 import java.util.AbstractMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Executors;
 
 /**
  * Dictionary Parser - Leverages virtual threads to efficiently create a mapping
- * of words in a dictionary file to their definitions.
+ * of words in a dictionary file to their definitions. The file is read as CSV,
+ * in parallel byte ranges, so quoted definitions containing commas or line
+ * breaks are kept whole.
  * 
- * See AbstractThreadedParser.
+ * See AbstractThreadedParser, CsvDictionaryReader.
  * 
  * @author Ben Murray
  * @version 1.0
@@ -23,6 +25,9 @@ public class DictionaryParser extends AbstractThreadedParser {
 
 	private AbstractMap<String, String> dictionaryWords = new ConcurrentHashMap<String, String>();
 	private HashSet<String> dictionaryWordSet = new HashSet<String>();
+	private CsvDictionaryReader reader = new CsvDictionaryReader();
+	private boolean offHeapDefinitions = false;
+	private OffHeapDefinitionStore definitionStore;
 
 	/**
 	 * Gets a mapping of words in a dictionary file to their definitions.
@@ -45,27 +50,80 @@ public class DictionaryParser extends AbstractThreadedParser {
 		return dictionaryWordSet;
 	}
 
+	/**
+	 * Sets whether definitions are kept off the heap, in an
+	 * OffHeapDefinitionStore, keeping garbage collection pauses short for very
+	 * large dictionaries. Off by default. Requires --enable-preview on JDK 21.
+	 * 
+	 * @param offHeapDefinitions True to keep definitions off heap.
+	 */
+	public void setOffHeapDefinitions(boolean offHeapDefinitions) {
+		// O(1) set value of offHeapDefinitions.
+		this.offHeapDefinitions = offHeapDefinitions;
+	}
+
+	/**
+	 * Frees the native memory holding definitions, if they were kept off heap.
+	 * Definitions already looked up remain valid, getDictionaryWords() must not
+	 * be used afterwards.
+	 */
+	public void closeDefinitions() {
+		// O(s) frees s native memory segments.
+		if (definitionStore != null) {
+			definitionStore.close();
+			definitionStore = null;
+		}
+	}
+
+	/**
+	 * Gets messages describing malformed dictionary records skipped by the last
+	 * parse, in line order.
+	 * 
+	 * @return List of "Line n: reason" messages.
+	 */
+	public List<String> getDiagnostics() {
+		// O(n) copies n messages into a new list.
+		return reader.getDiagnostics();
+	}
+
 	/**
 	 * Parses a dictionary file to create a mapping of words to their definitions.
+	 * Chunks of the file are dispatched through the configured ExecutionStrategy.
 	 */
 	@Override
 	public void parse() {
-		// O(n²) calls processDictionary() (O(n)) n times. Mitigated by use of Virtual
-		// Threads, implementation adapted from VirtualThreadFileParser.java.
+		// O(n) where n = bytes in file, split across virtual threads by
+		// CsvDictionaryReader.
 		String file = this.file;
-		try (var pool = Executors.newVirtualThreadPerTaskExecutor()) {
-			Files.lines(Paths.get(file)).forEach(text -> pool.execute(() -> processDictionary(text)));
+		if (offHeapDefinitions) {
+			closeDefinitions();
+			definitionStore = new OffHeapDefinitionStore();
+			dictionaryWords = new OffHeapDefinitionMap(definitionStore);
+		}
+		reader = new CsvDictionaryReader();
+		reader.setStrategy(strategy);
+		try {
+			reader.read(Paths.get(file), (word, definition) -> processDictionary(word, definition));
 		} catch (IOException e) {
-			System.out.println("[ERROR] IO Exception. Returning to Menu.");
-			Menu.showMenu();
+			System.out.println("[ERROR] IO Exception. " + Menu.getRecoveryNote());
+			Menu.recover(e);
+		}
+		if (reader.getErrorCount() > 0) {
+			System.out.println("[WARNING] " + reader.getErrorCount()
+					+ " malformed dictionary record(s) skipped. First: " + reader.getDiagnostics().get(0));
 		}
 	}
 
-	private void processDictionary(String text) {
-		// O(n) where n = the number of number of characters in string before ','.
-		// Rationale informed by:
-		// https://softwareengineering.stackexchange.com/questions/331909/whats-the-complexity-of-javas-string-split-function
-		String[] splitLine = text.split(",");
-		dictionaryWords.put(splitLine[0].toLowerCase(), splitLine[1]);
+	private void processDictionary(String word, String definition) {
+		// O(1) put on ConcurrentHashMap, O(w) to check a word of w characters
+		// is composed, the same form UnicodeTokenizer gives user words.
+		String key = word.toLowerCase();
+		if (!Normalizer.isNormalized(key, Normalizer.Form.NFC)) {
+			key = Normalizer.normalize(key, Normalizer.Form.NFC);
+		}
+		dictionaryWords.put(key, definition);
+		if (progress != null) {
+			progress.addLine(word.length() + 1 + definition.length(), 1);
+		}
 	}
 }
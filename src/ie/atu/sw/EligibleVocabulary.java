@@ -0,0 +1,371 @@
+package ie.atu.sw;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Eligible Vocabulary - Memory mapped, open addressing hash table of the words
+ * that can appear in an index (dictionary words that are not common words)
+ * with their definitions, and of the common words. Built once by
+ * VocabularyBuilder, then shared by every run, so filtering a user word is a
+ * single probe and neither the dictionary nor the common words file is parsed.
+ *
+ * Each slot holds a word's hash and the offset of its record, so probes only
+ * compare the bytes of words whose hashes match. Definitions are decoded only
+ * when asked for.
+ *
+ * The file records the size, modification time and SHA-256 hash of both
+ * source files. isCurrent() accepts it if sizes and times match, and otherwise
+ * falls back to comparing hashes, so a file that was only touched does not
+ * force a rebuild.
+ *
+ * See VocabularyBuilder, Filter, Indexer.setVocabularyArtifact().
+ *
+ * @author Ben Murray
+ * @version 1.0
+ * @since JDK 19
+ *
+ */
+public class EligibleVocabulary {
+
+	static final int FILE_MAGIC = 0x564F4331;
+	static final int HEADER_SIZE = 4 + 2 * (8 + 8 + 32) + 4 + 4 + 4;
+	/**
+	 * Flag of a word in the dictionary and not common, see classify().
+	 */
+	public static final byte ELIGIBLE = 0;
+
+	/**
+	 * Flag of a common word, see classify().
+	 */
+	public static final byte COMMON = 1;
+
+	/**
+	 * Returned by classify() for a word in neither file.
+	 */
+	public static final byte ABSENT = -1;
+
+	private ByteBuffer data;
+	private int capacity;
+	private int eligibleCount;
+	private int commonCount;
+	private int poolStart;
+
+	private EligibleVocabulary(ByteBuffer data) throws IOException {
+		// O(1) reads header.
+		this.data = data;
+		if (data.capacity() < HEADER_SIZE || data.getInt(0) != FILE_MAGIC) {
+			throw new IOException("Not a vocabulary file");
+		}
+		this.capacity = data.getInt(HEADER_SIZE - 12);
+		this.eligibleCount = data.getInt(HEADER_SIZE - 8);
+		this.commonCount = data.getInt(HEADER_SIZE - 4);
+		this.poolStart = HEADER_SIZE + capacity * 8;
+	}
+
+	/**
+	 * Maps a vocabulary file. Check isCurrent() first.
+	 *
+	 * @param file Path of file written by VocabularyBuilder.
+	 * @return Opened vocabulary.
+	 * @throws IOException If the file cannot be mapped or is not a vocabulary.
+	 */
+	public static EligibleVocabulary open(Path file) throws IOException {
+		// O(1) maps the file, nothing is read until probed.
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			return new EligibleVocabulary(data);
+		}
+	}
+
+	/**
+	 * Checks whether a vocabulary file was built from the current dictionary
+	 * and common words files.
+	 *
+	 * @param file       Path of vocabulary file.
+	 * @param dictionary Path of dictionary file.
+	 * @param common     Path of common words file.
+	 * @return True if file exists and matches both sources.
+	 * @throws IOException If a source file cannot be read.
+	 */
+	public static boolean isCurrent(Path file, Path dictionary, Path common) throws IOException {
+		// O(1) if sizes and times match, otherwise O(n) hashes n bytes of the
+		// changed sources.
+		if (!Files.isRegularFile(file) || Files.size(file) < HEADER_SIZE) {
+			return false;
+		}
+		ByteBuffer header;
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			header = ByteBuffer.allocate(HEADER_SIZE);
+			while (header.hasRemaining() && channel.read(header) >= 0) {
+			}
+		}
+		header.flip();
+		if (header.getInt() != FILE_MAGIC) {
+			return false;
+		}
+		return matches(header, dictionary) && matches(header, common);
+	}
+
+	private static boolean matches(ByteBuffer header, Path source) throws IOException {
+		// O(1) compares size and time, O(n) hashes source if they differ.
+		long size = header.getLong();
+		long modified = header.getLong();
+		byte[] hash = new byte[32];
+		header.get(hash);
+		if (size != Files.size(source)) {
+			return false;
+		}
+		return modified == Files.getLastModifiedTime(source).toMillis() || Arrays.equals(hash, sha256(source));
+	}
+
+	/**
+	 * Writes size, modification time and SHA-256 hash of a source file.
+	 *
+	 * @param out    Destination.
+	 * @param source Source file.
+	 * @throws IOException If source cannot be read.
+	 */
+	static void writeFingerprint(DataOutputStream out, Path source) throws IOException {
+		// O(n) hashes n bytes.
+		out.writeLong(Files.size(source));
+		out.writeLong(Files.getLastModifiedTime(source).toMillis());
+		out.write(sha256(source));
+	}
+
+	private static byte[] sha256(Path file) throws IOException {
+		// O(n) where n = size of file.
+		try (InputStream in = Files.newInputStream(file)) {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			byte[] buffer = new byte[1 << 16];
+			int read;
+			while ((read = in.read(buffer)) > 0) {
+				digest.update(buffer, 0, read);
+			}
+			return digest.digest();
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is required of every JVM", e);
+		}
+	}
+
+	/**
+	 * Spreads String.hashCode() so open addressing probes well.
+	 *
+	 * @param word Word to hash.
+	 * @return Hash of word.
+	 */
+	static int hash(String word) {
+		// O(n) where n = length of word, cached by String.
+		int h = word.hashCode();
+		return (h ^ (h >>> 16)) * 0x9E3779B9;
+	}
+
+	/**
+	 * Checks whether a word can appear in an index, ie. it has a definition and
+	 * is not a common word.
+	 *
+	 * @param word Normalised word.
+	 * @return True if word is eligible.
+	 */
+	public boolean contains(String word) {
+		// O(1) expected, one probe sequence.
+		int record = find(word);
+		return record >= 0 && data.get(record) == ELIGIBLE;
+	}
+
+	/**
+	 * Classifies a word with a single probe, where calling contains() then
+	 * isCommon() would probe twice.
+	 *
+	 * @param word Normalised word.
+	 * @return ELIGIBLE, COMMON, or ABSENT if the word is in neither file.
+	 */
+	public byte classify(String word) {
+		// O(1) expected, one probe sequence.
+		int record = find(word);
+		return record < 0 ? ABSENT : data.get(record);
+	}
+
+	/**
+	 * Checks whether a word is in the common words file.
+	 *
+	 * @param word Normalised word.
+	 * @return True if word is a common word.
+	 */
+	public boolean isCommon(String word) {
+		// O(1) expected, one probe sequence.
+		int record = find(word);
+		return record >= 0 && data.get(record) == COMMON;
+	}
+
+	/**
+	 * Gets the definition of an eligible word.
+	 *
+	 * @param word Normalised word.
+	 * @return Definition, or null if word is not eligible.
+	 */
+	public String getDefinition(String word) {
+		// O(1) expected probe, O(d) decodes d bytes of definition.
+		int record = find(word);
+		if (record < 0 || data.get(record) != ELIGIBLE) {
+			return null;
+		}
+		ByteBuffer in = data.duplicate().position(record + 1);
+		int wordLength = PostingsCodec.readVarInt(in);
+		in.position(in.position() + wordLength);
+		return readString(in);
+	}
+
+	/**
+	 * Gets number of eligible words.
+	 *
+	 * @return Eligible words.
+	 */
+	public int size() {
+		// O(1) return int from memory.
+		return eligibleCount;
+	}
+
+	/**
+	 * Gets number of common words.
+	 *
+	 * @return Common words.
+	 */
+	public int getCommonCount() {
+		// O(1) return int from memory.
+		return commonCount;
+	}
+
+	/**
+	 * Gets every eligible word, eg. for SpellingSuggester.
+	 *
+	 * @return Eligible words in table order.
+	 */
+	public List<String> getWords() {
+		// O(c) scans c slots.
+		List<String> words = new ArrayList<String>(eligibleCount);
+		for (int slot = 0; slot < capacity; slot++) {
+			int offset = data.getInt(HEADER_SIZE + slot * 8 + 4);
+			if (offset != 0 && data.get(poolStart + offset - 1) == ELIGIBLE) {
+				words.add(readString(data.duplicate().position(poolStart + offset)));
+			}
+		}
+		return words;
+	}
+
+	/**
+	 * Gets a read only map view of eligible words to definitions, for
+	 * MapBuilder. Definitions are decoded on each get().
+	 *
+	 * @return Map view.
+	 */
+	public Map<String, String> asMap() {
+		// O(1) view.
+		return new AbstractMap<String, String>() {
+			@Override
+			public String get(Object word) {
+				return word instanceof String ? getDefinition((String) word) : null;
+			}
+
+			@Override
+			public boolean containsKey(Object word) {
+				return word instanceof String && contains((String) word);
+			}
+
+			@Override
+			public int size() {
+				return eligibleCount;
+			}
+
+			@Override
+			public Set<Map.Entry<String, String>> entrySet() {
+				List<String> words = getWords();
+				return new AbstractSet<Map.Entry<String, String>>() {
+					@Override
+					public Iterator<Map.Entry<String, String>> iterator() {
+						Iterator<String> it = words.iterator();
+						return new Iterator<Map.Entry<String, String>>() {
+							public boolean hasNext() {
+								return it.hasNext();
+							}
+
+							public Map.Entry<String, String> next() {
+								String word = it.next();
+								return new AbstractMap.SimpleImmutableEntry<String, String>(word, getDefinition(word));
+							}
+						};
+					}
+
+					@Override
+					public int size() {
+						return words.size();
+					}
+				};
+			}
+		};
+	}
+
+	private int find(String word) {
+		// O(1) expected - linear probe from the word's hash, comparing bytes only
+		// where stored hashes match. Returns the position of the record's flag.
+		int h = hash(word);
+		int mask = capacity - 1;
+		byte[] bytes = null;
+		for (int slot = h & mask;; slot = (slot + 1) & mask) {
+			int base = HEADER_SIZE + slot * 8;
+			int offset = data.getInt(base + 4);
+			if (offset == 0) {
+				return -1;
+			}
+			if (data.getInt(base) == h) {
+				if (bytes == null) {
+					bytes = word.getBytes(StandardCharsets.UTF_8);
+				}
+				int record = poolStart + offset;
+				if (equalsAt(record, bytes)) {
+					return record - 1;
+				}
+			}
+		}
+	}
+
+	private boolean equalsAt(int position, byte[] bytes) {
+		// O(n) compares n bytes of a length prefixed word.
+		ByteBuffer in = data.duplicate().position(position);
+		if (PostingsCodec.readVarInt(in) != bytes.length) {
+			return false;
+		}
+		int start = in.position();
+		for (int i = 0; i < bytes.length; i++) {
+			if (data.get(start + i) != bytes[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static String readString(ByteBuffer in) {
+		// O(n) where n = length of string.
+		byte[] bytes = new byte[PostingsCodec.readVarInt(in)];
+		in.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,50 @@
+package ie.atu.sw;
+
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Execution Strategy - Decides how the work items produced by a parser (lines,
+ * chunks etc.) are run: sequentially, on virtual threads, on a platform thread
+ * pool or as a parallel stream. Implement to supply a custom execution model.
+ * 
+ * See AbstractThreadedParser, DictionaryParser, StrategyBenchmark.
+ * 
+ * @author Ben Murray
+ * @version 1.0
+ * @since JDK 19
+ *
+ */
+public interface ExecutionStrategy {
+
+	/**
+	 * Runs task once for every item in the stream. Implementations must not
+	 * return until every task has completed.
+	 * 
+	 * @param <T>   Type of work item.
+	 * @param items Stream of work items, consumed by this call.
+	 * @param task  Action to be performed on each item.
+	 */
+	public abstract <T> void execute(Stream<T> items, Consumer<T> task);
+
+	/**
+	 * Tells the strategy which input the following calls to execute() will
+	 * parse, so it can pick settings suited to it. Does nothing by default.
+	 * 
+	 * @param inputName Path or name of input.
+	 * @param inputSize Size of input in bytes, or -1 if unknown.
+	 */
+	public default void begin(String inputName, long inputSize) {
+		// O(1) no settings to pick.
+	}
+
+	/**
+	 * Gets a short, human readable name for this strategy, used in reports.
+	 * 
+	 * @return Name of this strategy.
+	 */
+	public default String getName() {
+		// O(1) return String from class metadata.
+		return getClass().getSimpleName();
+	}
+}
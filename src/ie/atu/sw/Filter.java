@@ -1,11 +1,13 @@
 package ie.atu.sw;
 
 import java.util.HashSet;
+import java.util.Iterator;
 
 /**
  * Filter - Intakes keySets from dictionary, filters sets by removing common
  * words from words found in users file, then retains only the remaining words
- * that are also found in the dictionary.
+ * that are also found in the dictionary. Alternatively each word is classified
+ * by a single probe of an EligibleVocabulary, so neither set need be built.
  * 
  * @author Ben Murray
  * @version 1.0
@@ -18,6 +20,7 @@ public class Filter {
 	private HashSet<String> userSet;
 	private HashSet<String> dictionarySet;
 	private HashSet<String> commonSet;
+	private EligibleVocabulary vocabulary;
 
 	/**
 	 * Constructor for Filter class, takes in keySets from UserInputParser and
@@ -33,6 +36,18 @@ public class Filter {
 		this.commonSet = commonSet;
 	}
 
+	/**
+	 * Constructor for Filter class, classifying each user word with a
+	 * vocabulary rather than taking dictionary and common word sets.
+	 * 
+	 * @param userSet    keySet() from UserInputParser.
+	 * @param vocabulary Eligible and common words, see EligibleVocabulary.
+	 */
+	public Filter(HashSet<String> userSet, EligibleVocabulary vocabulary) {
+		this.userSet = userSet;
+		this.vocabulary = vocabulary;
+	}
+
 	/**
 	 * Gets set of filtered words.
 	 * 
@@ -55,8 +70,37 @@ public class Filter {
 		this.filteredWords = filteredWords;
 	}
 
+	/**
+	 * Gets user words that were dropped because they are not in the dictionary
+	 * (common words are not included). Only valid after getFilteredWords().
+	 * 
+	 * @return HashSet of user words missing from the dictionary.
+	 */
+	public HashSet<String> getRejectedWords() {
+		// O(n) where n = number of user words remaining after common words removed.
+		HashSet<String> rejectedWords = new HashSet<String>(this.userSet);
+		rejectedWords.removeAll(this.filteredWords);
+		return rejectedWords;
+	}
+
 	private void filter() {
 		// O(n) - removeAll/retainAll + setFilteredWords (O(1) operations x n times)
+		if (this.vocabulary != null) {
+			// One probe per word: common words leave the user set, so
+			// getRejectedWords() skips them, and eligible words are kept.
+			HashSet<String> filtered = new HashSet<String>();
+			for (Iterator<String> words = this.userSet.iterator(); words.hasNext();) {
+				String word = words.next();
+				byte flag = this.vocabulary.classify(word);
+				if (flag == EligibleVocabulary.COMMON) {
+					words.remove();
+				} else if (flag == EligibleVocabulary.ELIGIBLE) {
+					filtered.add(word);
+				}
+			}
+			setFilteredWords(filtered);
+			return;
+		}
 		this.userSet.removeAll(this.commonSet);
 		this.dictionarySet.retainAll(this.userSet);
 		setFilteredWords(this.dictionarySet);
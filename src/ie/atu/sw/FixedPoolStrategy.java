@@ -0,0 +1,82 @@
+package ie.atu.sw;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Fixed Pool Strategy - Runs batches of work items on a fixed size pool of
+ * platform threads.
+ * 
+ * See AbstractBatchingStrategy.
+ * 
+ * @author Ben Murray
+ * @version 1.0
+ * @since JDK 19
+ *
+ */
+public class FixedPoolStrategy extends AbstractBatchingStrategy {
+
+	private int threads;
+
+	/**
+	 * Constructor for FixedPoolStrategy.
+	 * 
+	 * @param threads   Number of platform threads in the pool.
+	 * @param batchSize Number of items handed to a pool thread at a time.
+	 */
+	public FixedPoolStrategy(int threads, int batchSize) {
+		// O(1) set values of threads and batchSize.
+		super(batchSize);
+		if (threads < 1) {
+			throw new IllegalArgumentException("Thread count must be at least 1: " + threads);
+		}
+		this.threads = threads;
+	}
+
+	/**
+	 * Gets number of platform threads in the pool.
+	 * 
+	 * @return Number of platform threads.
+	 */
+	public int getThreads() {
+		// O(1) return int from memory.
+		return threads;
+	}
+
+	/**
+	 * Runs task for each item on the pool, waits for all to finish. A new pool is
+	 * created and shut down for each call.
+	 */
+	@Override
+	public <T> void execute(Stream<T> items, Consumer<T> task) {
+		// O(n) each item is batched and processed once.
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try {
+			forEachBatch(items, batch -> pool.execute(runBatch(batch, task)));
+		} finally {
+			pool.shutdown();
+			awaitTermination(pool);
+		}
+	}
+
+	@Override
+	public String getName() {
+		// O(1) build short String.
+		return "FixedPoolStrategy[threads=" + threads + ", batch=" + batchSize + "]";
+	}
+
+	private static void awaitTermination(ExecutorService pool) {
+		// O(1) blocks until pool has drained.
+		try {
+			while (!pool.awaitTermination(1, TimeUnit.MINUTES)) {
+				// Keep waiting, tasks are still running.
+			}
+		} catch (InterruptedException e) {
+			pool.shutdownNow();
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,119 @@
+package ie.atu.sw;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Footprint Report - Rows of estimated heap footprint, one per structure per
+ * stage of indexing, with entry counts and average bytes per entry. Printed as
+ * a table for the console or as JSON for other tools.
+ *
+ * See HeapFootprint, Indexer.setFootprintMode().
+ *
+ * @author Ben Murray
+ * @version 1.0
+ * @since JDK 19
+ *
+ */
+public class FootprintReport {
+
+	private List<Row> rows = new ArrayList<Row>();
+
+	/**
+	 * Row - Estimated footprint of one structure after one stage.
+	 *
+	 * @param stage     Stage of indexing just finished.
+	 * @param structure Name of the structure.
+	 * @param entries   Number of entries held.
+	 * @param bytes     Estimated bytes retained.
+	 * @param note      Qualification of the estimate, or empty.
+	 */
+	public record Row(String stage, String structure, long entries, long bytes, String note) {
+
+		/**
+		 * Gets average bytes per entry.
+		 *
+		 * @return Bytes per entry, or 0 if there are no entries.
+		 */
+		public double bytesPerEntry() {
+			// O(1) divide.
+			return entries == 0 ? 0 : (double) bytes / entries;
+		}
+	}
+
+	/**
+	 * Adds a row to the report.
+	 *
+	 * @param stage     Stage of indexing just finished.
+	 * @param structure Name of the structure.
+	 * @param entries   Number of entries held.
+	 * @param bytes     Estimated bytes retained.
+	 * @param note      Qualification of the estimate, or empty.
+	 */
+	public void add(String stage, String structure, long entries, long bytes, String note) {
+		// O(1) add to ArrayList.
+		rows.add(new Row(stage, structure, entries, bytes, note));
+	}
+
+	/**
+	 * Gets rows in the order they were added.
+	 *
+	 * @return Rows of the report.
+	 */
+	public List<Row> getRows() {
+		// O(1) return list from memory.
+		return rows;
+	}
+
+	/**
+	 * Formats the report as a fixed width table.
+	 *
+	 * @return Table, one line per row.
+	 */
+	public String toTable() {
+		// O(r) where r = number of rows.
+		StringBuilder sb = new StringBuilder();
+		sb.append(String.format("%-16s %-28s %12s %14s %12s  %s%n", "Stage", "Structure", "Entries", "Est. bytes",
+				"Bytes/entry", "Note"));
+		for (Row row : rows) {
+			sb.append(String.format("%-16s %-28s %12d %14d %12.1f  %s%n", row.stage(), row.structure(),
+					row.entries(), row.bytes(), row.bytesPerEntry(), row.note()));
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Formats the report as a JSON array of row objects.
+	 *
+	 * @return JSON text.
+	 */
+	public String toJson() {
+		// O(r) where r = number of rows.
+		StringBuilder sb = new StringBuilder("[\n");
+		for (int i = 0; i < rows.size(); i++) {
+			Row row = rows.get(i);
+			sb.append(String.format(Locale.ROOT,
+					"  {\"stage\": %s, \"structure\": %s, \"entries\": %d, \"bytes\": %d, \"bytesPerEntry\": %.1f, \"note\": %s}",
+					quote(row.stage()), quote(row.structure()), row.entries(), row.bytes(), row.bytesPerEntry(),
+					quote(row.note())));
+			sb.append(i < rows.size() - 1 ? ",\n" : "\n");
+		}
+		return sb.append("]\n").toString();
+	}
+
+	private static String quote(String s) {
+		// O(n) escapes n characters.
+		StringBuilder sb = new StringBuilder("\"");
+		for (char c : s.toCharArray()) {
+			if (c == '"' || c == '\\') {
+				sb.append('\\').append(c);
+			} else if (c < 0x20) {
+				sb.append(String.format("\\u%04x", (int) c));
+			} else {
+				sb.append(c);
+			}
+		}
+		return sb.append('"').toString();
+	}
+}
@@ -0,0 +1,240 @@
+package ie.atu.sw;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.ToLongFunction;
+
+import com.sun.management.HotSpotDiagnosticMXBean;
+
+/**
+ * Heap Footprint - Estimates the retained heap size of the pipeline's main
+ * structures from the object layout of the running JVM (header size,
+ * reference size and alignment, read from HotSpot's flags), without a heap
+ * dump or agent. Collection internals are sized from the JDK implementations:
+ * hash tables at the capacity their load factor implies, one node per entry,
+ * and for skip lists the expected one index node per three entries.
+ *
+ * In LAYOUT mode every element is measured. In SAMPLED mode only an evenly
+ * spaced sample of elements is measured and the total scaled up, which is
+ * much cheaper for large maps of strings.
+ *
+ * Estimates are retained sizes of what each structure owns. Sets that only
+ * refer to strings owned by another structure, such as the copies made for
+ * Filter, are sized without those strings and say so in their note.
+ *
+ * See FootprintReport, Indexer.setFootprintMode().
+ *
+ * @author Ben Murray
+ * @version 1.0
+ * @since JDK 19
+ *
+ */
+public class HeapFootprint {
+
+	/**
+	 * Mode - Whether every element is measured, or a sample.
+	 */
+	public enum Mode {
+		LAYOUT, SAMPLED
+	}
+
+	private Mode mode;
+	private int sampleSize = 1000;
+	private int header;
+	private int arrayHeader;
+	private int reference;
+	private int alignment;
+
+	/**
+	 * Constructor for HeapFootprint, reads the object layout of this JVM.
+	 *
+	 * @param mode Whether every element is measured, or a sample.
+	 */
+	public HeapFootprint(Mode mode) {
+		// O(1) reads 3 VM flags.
+		this.mode = mode;
+		boolean compressedOops = true;
+		boolean compressedClasses = true;
+		this.alignment = 8;
+		try {
+			HotSpotDiagnosticMXBean hotspot = ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class);
+			compressedOops = Boolean.parseBoolean(hotspot.getVMOption("UseCompressedOops").getValue());
+			compressedClasses = Boolean.parseBoolean(hotspot.getVMOption("UseCompressedClassPointers").getValue());
+			this.alignment = Integer.parseInt(hotspot.getVMOption("ObjectAlignmentInBytes").getValue());
+		} catch (RuntimeException e) {
+			// Not HotSpot, assume the common 64 bit layout.
+		}
+		this.header = compressedClasses ? 12 : 16;
+		this.arrayHeader = header + 4;
+		this.reference = compressedOops ? 4 : 8;
+	}
+
+	/**
+	 * Sets number of elements measured per structure in SAMPLED mode, 1000 by
+	 * default.
+	 *
+	 * @param sampleSize Elements to measure.
+	 */
+	public void setSampleSize(int sampleSize) {
+		// O(1) set value of sampleSize.
+		this.sampleSize = Math.max(1, sampleSize);
+	}
+
+	/**
+	 * Estimates a map of words to definitions, eg.
+	 * DictionaryParser.getDictionaryWords().
+	 *
+	 * @param map Map of strings to strings, or an OffHeapDefinitionMap.
+	 * @return Estimated bytes.
+	 */
+	public long stringMap(Map<String, String> map) {
+		// O(n) in LAYOUT mode, O(s) element sizes in SAMPLED mode.
+		if (map instanceof OffHeapDefinitionMap) {
+			// Words and boxed handles on heap, definitions in native memory.
+			return concurrentHashMap(map.size()) + sum(map.keySet(), word -> string(word) + object(4));
+		}
+		long table = map instanceof ConcurrentHashMap ? concurrentHashMap(map.size()) : hashMap(map.size());
+		return table + sum(map.entrySet(), entry -> string(entry.getKey()) + string(entry.getValue()));
+	}
+
+	/**
+	 * Estimates a set of words.
+	 *
+	 * @param set           HashSet or ConcurrentSkipListSet of strings.
+	 * @param countElements False if the strings are owned by another structure.
+	 * @return Estimated bytes.
+	 */
+	public long stringSet(Set<String> set, boolean countElements) {
+		// O(n) in LAYOUT mode, O(s) element sizes in SAMPLED mode.
+		long structure;
+		if (set instanceof ConcurrentSkipListSet) {
+			int indexes = set.size() / 3;
+			structure = object(reference) + object(7 * reference) + (long) set.size() * object(3 * reference)
+					+ (long) indexes * object(3 * reference);
+		} else {
+			structure = object(reference) + hashMap(set.size());
+		}
+		return structure + (countElements ? sum(set, this::string) : 0);
+	}
+
+	/**
+	 * Estimates a map of words to page sets, eg. UserInputParser.getIndex().
+	 *
+	 * @param postings Map of words to sets of page numbers.
+	 * @return Estimated bytes.
+	 */
+	public long postings(Map<String, TreeSet<Integer>> postings) {
+		// O(n) in LAYOUT mode, O(s) element sizes in SAMPLED mode.
+		return hashMap(postings.size()) + sum(postings.entrySet(), entry -> string(entry.getKey())
+				+ (entry.getValue() == null ? 0 : treeSet(entry.getValue())));
+	}
+
+	/**
+	 * Estimates a finished index. Words and page sets are shared with the
+	 * parser's postings, so only the map and IndexEntry objects are counted.
+	 *
+	 * @param index Map of words to index entries.
+	 * @return Estimated bytes.
+	 */
+	public long index(Map<String, IndexEntry> index) {
+		// O(1) - every element has the same shallow size.
+		return hashMap(index.size()) + (long) index.size() * object(2 * reference + 4);
+	}
+
+	/**
+	 * Estimates a String, including its byte array.
+	 *
+	 * @param s String to measure.
+	 * @return Estimated bytes.
+	 */
+	public long string(String s) {
+		// O(n) checks whether n characters fit the compact Latin-1 form.
+		if (s == null) {
+			return 0;
+		}
+		boolean latin1 = true;
+		for (int i = 0; i < s.length() && latin1; i++) {
+			latin1 = s.charAt(i) < 256;
+		}
+		return object(reference + 4 + 1 + 1) + array((long) s.length() * (latin1 ? 1 : 2));
+	}
+
+	private long treeSet(TreeSet<Integer> set) {
+		// O(n) counts boxed values outside the Integer cache.
+		long boxed = set.stream().filter(page -> page < -128 || page > 127).count();
+		return object(reference) + object(7 * reference + 8) + set.size() * object(5 * reference + 1)
+				+ boxed * object(4);
+	}
+
+	private long hashMap(int size) {
+		// O(1) map object, table at the capacity load factor 0.75 implies, and
+		// one node per entry.
+		return object(4 * reference + 16) + table(size) + (long) size * object(4 + 3 * reference);
+	}
+
+	private long concurrentHashMap(int size) {
+		// O(1) as hashMap(), with ConcurrentHashMap's larger map object.
+		return object(6 * reference + 8 + 12) + table(size) + (long) size * object(4 + 3 * reference);
+	}
+
+	private long table(int size) {
+		// O(1) bucket array of the next power of two above size / 0.75.
+		int capacity = Integer.highestOneBit(Math.max(16, (int) (size / 0.75f) + 1) - 1) << 1;
+		return array((long) capacity * reference);
+	}
+
+	private long object(long fields) {
+		// O(1) header plus fields, rounded up to the alignment.
+		return align(header + fields);
+	}
+
+	private long array(long bytes) {
+		// O(1) array header plus elements, rounded up to the alignment.
+		return align(arrayHeader + bytes);
+	}
+
+	private long align(long bytes) {
+		// O(1) round up to a multiple of alignment.
+		return (bytes + alignment - 1) / alignment * alignment;
+	}
+
+	private <T> long sum(Collection<T> items, ToLongFunction<T> size) {
+		// O(n) in LAYOUT mode. In SAMPLED mode every k-th item is measured and
+		// the sum scaled up by k.
+		int total = items.size();
+		if (mode == Mode.LAYOUT || total <= sampleSize) {
+			long bytes = 0;
+			for (T item : items) {
+				bytes += size.applyAsLong(item);
+			}
+			return bytes;
+		}
+		int stride = total / sampleSize;
+		long bytes = 0;
+		int measured = 0;
+		int i = 0;
+		for (T item : items) {
+			if (i++ % stride == 0) {
+				bytes += size.applyAsLong(item);
+				measured++;
+			}
+		}
+		return Math.round((double) bytes / measured * total);
+	}
+
+	/**
+	 * Gets the bytes in use on the heap right now, including garbage not yet
+	 * collected.
+	 *
+	 * @return Heap bytes used.
+	 */
+	public static long heapUsed() {
+		// O(1) reads MemoryMXBean.
+		return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+	}
+}
@@ -0,0 +1,150 @@
+package ie.atu.sw;
+
+/**
+ * HyperLogLog - Fixed size sketch estimating the number of distinct words
+ * added to it, in constant memory (2^precision bytes). Sketches with the same
+ * precision can be merged, so chunks or documents can be counted separately and
+ * combined. Not thread safe, give each thread its own sketch and merge.
+ *
+ * Typical relative error is 1.04 / sqrt(2^precision), eg. about 0.8% for the
+ * 16 KB sketch at precision 14.
+ *
+ * See UserInputParser, Outputter.printEstimatedUniqueWords().
+ *
+ * @author Ben Murray
+ * @version 1.0
+ * @since JDK 19
+ *
+ */
+public class HyperLogLog {
+
+	private static final int MIN_PRECISION = 4;
+	private static final int MAX_PRECISION = 18;
+
+	private int precision;
+	private byte[] registers;
+
+	/**
+	 * Constructor for HyperLogLog.
+	 *
+	 * @param precision Number of bits used to select a register, 4 - 18.
+	 */
+	public HyperLogLog(int precision) {
+		// O(m) allocates m = 2^precision registers.
+		if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+			throw new IllegalArgumentException("Precision must be between 4 and 18: " + precision);
+		}
+		this.precision = precision;
+		this.registers = new byte[1 << precision];
+	}
+
+	/**
+	 * Creates the smallest sketch whose typical relative error is within a
+	 * bound.
+	 *
+	 * @param relativeError Target relative error, eg. 0.01 for 1%.
+	 * @return Empty sketch.
+	 */
+	public static HyperLogLog forErrorBound(double relativeError) {
+		// O(m) allocates m registers.
+		double registers = Math.pow(1.04 / relativeError, 2);
+		int precision = (int) Math.ceil(Math.log(registers) / Math.log(2));
+		return new HyperLogLog(Math.max(MIN_PRECISION, Math.min(MAX_PRECISION, precision)));
+	}
+
+	/**
+	 * Gets number of bits used to select a register.
+	 *
+	 * @return Precision of this sketch.
+	 */
+	public int getPrecision() {
+		// O(1) return int from memory.
+		return precision;
+	}
+
+	/**
+	 * Gets typical relative error of estimates from this sketch.
+	 *
+	 * @return Relative error, eg. 0.008 for 0.8%.
+	 */
+	public double getRelativeError() {
+		// O(1) calculation.
+		return 1.04 / Math.sqrt(registers.length);
+	}
+
+	/**
+	 * Adds a word to the sketch.
+	 *
+	 * @param word Word to be counted.
+	 */
+	public void add(String word) {
+		// O(n) hash of n characters, O(1) register update.
+		long hash = hash(word);
+		int index = (int) (hash >>> (64 - precision));
+		long remaining = (hash << precision) | (1L << (precision - 1));
+		byte rank = (byte) (Long.numberOfLeadingZeros(remaining) + 1);
+		if (rank > registers[index]) {
+			registers[index] = rank;
+		}
+	}
+
+	/**
+	 * Merges another sketch into this one. Afterwards this sketch estimates the
+	 * distinct words added to either.
+	 *
+	 * @param other Sketch with the same precision.
+	 */
+	public void merge(HyperLogLog other) {
+		// O(m) compares m registers.
+		if (other.precision != precision) {
+			throw new IllegalArgumentException(
+					"Cannot merge sketches of precision " + precision + " and " + other.precision);
+		}
+		for (int i = 0; i < registers.length; i++) {
+			if (other.registers[i] > registers[i]) {
+				registers[i] = other.registers[i];
+			}
+		}
+	}
+
+	/**
+	 * Estimates number of distinct words added.
+	 *
+	 * @return Estimated distinct count.
+	 */
+	public long estimate() {
+		// O(m) sums m registers.
+		int m = registers.length;
+		double sum = 0;
+		int zeros = 0;
+		for (byte register : registers) {
+			sum += 1.0 / (1L << register);
+			if (register == 0) {
+				zeros++;
+			}
+		}
+		double alpha = m == 16 ? 0.673 : m == 32 ? 0.697 : m == 64 ? 0.709 : 0.7213 / (1 + 1.079 / m);
+		double estimate = alpha * m * m / sum;
+		if (estimate <= 2.5 * m && zeros > 0) {
+			// Small range correction: linear counting is more accurate here.
+			estimate = m * Math.log((double) m / zeros);
+		}
+		return Math.round(estimate);
+	}
+
+	private static long hash(String word) {
+		// O(n) - FNV-1a over the characters, then the MurmurHash3 finaliser to
+		// spread the bits used for register selection and rank.
+		long h = 0xcbf29ce484222325L;
+		for (int i = 0; i < word.length(); i++) {
+			h ^= word.charAt(i);
+			h *= 0x100000001b3L;
+		}
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb93fe53e3b53L;
+		h ^= h >>> 33;
+		return h;
+	}
+}
@@ -1,11 +1,16 @@
 package ie.atu.sw;
 
+import java.util.Collections;
+import java.util.SortedSet;
 import java.util.TreeSet;
 
 /**
  * IndexEntry - Contains details related to parsed words (dictionary definition
  * and pages on which each word appeared).
  * 
+ * Entries are built up in place by MapBuilder. immutableCopy() gives an entry
+ * with its own pages that can no longer be changed, as published by Indexer.
+ * 
  * @author Ben Murray
  * @version 1.0
  * @since JDK 19
@@ -13,8 +18,9 @@ import java.util.TreeSet;
  */
 public class IndexEntry implements Comparable<IndexEntry> {
 	private String definition;
-	private TreeSet<Integer> pages = new TreeSet<Integer>();
+	private SortedSet<Integer> pages = new TreeSet<Integer>();
 	private int totalPages = this.pages.size();;
+	private boolean immutable = false;
 
 	/**
 	 * Gets dictionary definition associated with a word. Is mapped to word by
@@ -35,6 +41,7 @@ public class IndexEntry implements Comparable<IndexEntry> {
 	 */
 	public void setDefinition(String definition) {
 		// O(1) save string to memory.
+		checkMutable();
 		this.definition = definition;
 	}
 
@@ -42,10 +49,10 @@ public class IndexEntry implements Comparable<IndexEntry> {
 	 * Gets list of pages on which a given word is found. Is mapped to word by
 	 * MapBuilder.
 	 * 
-	 * @return TreeSet of page numbers. TreeSet is used to guarantee sorted output
-	 *         when printed to file.
+	 * @return Sorted set of page numbers, a TreeSet to guarantee sorted output
+	 *         when printed to file. Unmodifiable if this entry is immutable.
 	 */
-	public TreeSet<Integer> getPages() {
+	public SortedSet<Integer> getPages() {
 		// O(1) return set from memory.
 		return pages;
 	}
@@ -57,6 +64,7 @@ public class IndexEntry implements Comparable<IndexEntry> {
 	 */
 	public void setPages(TreeSet<Integer> pages) {
 		// O(n) Add to HashSet is O(1) n times, assuming set is being created.
+		checkMutable();
 		this.pages = pages;
 	}
 
@@ -73,6 +81,42 @@ public class IndexEntry implements Comparable<IndexEntry> {
 		this.pages = pageList;
 	}
 
+	/**
+	 * Copies this entry with its own copy of its pages. The copy cannot be
+	 * changed: its pages are unmodifiable and its setters throw
+	 * UnsupportedOperationException, so it can be shared between readers.
+	 * 
+	 * @return Immutable copy of this entry, or this entry if already immutable.
+	 */
+	public IndexEntry immutableCopy() {
+		// O(p) copies p pages.
+		if (immutable) {
+			return this;
+		}
+		IndexEntry copy = new IndexEntry(definition, new TreeSet<Integer>(pages));
+		copy.pages = Collections.unmodifiableSortedSet(copy.pages);
+		copy.totalPages = totalPages;
+		copy.immutable = true;
+		return copy;
+	}
+
+	/**
+	 * Checks if this entry is an immutable copy, see immutableCopy().
+	 * 
+	 * @return True if this entry cannot be changed.
+	 */
+	public boolean isImmutable() {
+		// O(1) return boolean from memory.
+		return immutable;
+	}
+
+	private void checkMutable() {
+		// O(1) compare.
+		if (immutable) {
+			throw new UnsupportedOperationException("IndexEntry is an immutable copy");
+		}
+	}
+
 	/**
 	 * Comparable implementation for use in sorting.
 	 */
@@ -0,0 +1,160 @@
+package ie.atu.sw;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.AbstractMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Index File Reader - Reads an index saved by Outputter.saveToFile() back into
+ * IndexEntry objects. Definitions may span several lines, everything between
+ * the "Definition: " line and the "Pages : " line is kept. Section headers of
+ * sorted indexes are skipped. Entries can also be streamed one at a time with
+ * entries().
+ *
+ * See Outputter, CompressedIndexFile, IndexMerger.
+ *
+ * @author Ben Murray
+ * @version 1.0
+ * @since JDK 19
+ *
+ */
+public class IndexFileReader {
+
+	private static final String DEFINITION = "Definition: ";
+	private static final String PAGES = "Pages : [";
+
+	/**
+	 * Reads a text index file.
+	 *
+	 * @param file Path of file written by Outputter.saveToFile().
+	 * @return Sorted mapping of words to index entries.
+	 * @throws IOException If the file cannot be read.
+	 */
+	public static TreeMap<String, IndexEntry> read(Path file) throws IOException {
+		// O(n) where n = size of file.
+		TreeMap<String, IndexEntry> index = new TreeMap<String, IndexEntry>();
+		try (Stream<Map.Entry<String, IndexEntry>> entries = entries(file)) {
+			entries.forEach(entry -> index.put(entry.getKey(), entry.getValue()));
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+		return index;
+	}
+
+	/**
+	 * Streams the entries of a text index file in file order, which is only
+	 * sorted if the index saved was. Only the current entry is held in memory.
+	 * Close the stream to close the file.
+	 *
+	 * @param file Path of file written by Outputter.saveToFile().
+	 * @return Stream of words and their index entries. Read errors are thrown
+	 *         as UncheckedIOException.
+	 * @throws IOException If the file cannot be opened.
+	 */
+	public static Stream<Map.Entry<String, IndexEntry>> entries(Path file) throws IOException {
+		// O(1) opens file, O(n) parses n bytes as the stream is consumed.
+		BufferedReader reader = Files.newBufferedReader(file);
+		Iterator<Map.Entry<String, IndexEntry>> iterator = new Iterator<Map.Entry<String, IndexEntry>>() {
+			private Map.Entry<String, IndexEntry> next;
+
+			public boolean hasNext() {
+				if (next == null) {
+					next = readEntry(reader);
+				}
+				return next != null;
+			}
+
+			public Map.Entry<String, IndexEntry> next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				Map.Entry<String, IndexEntry> entry = next;
+				next = null;
+				return entry;
+			}
+		};
+		return StreamSupport
+				.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+				.onClose(() -> {
+					try {
+						reader.close();
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				});
+	}
+
+	/**
+	 * Reads the next entry, skipping section headers written by
+	 * Outputter.saveSorted().
+	 *
+	 * @param reader Reader positioned at the start of an entry or section.
+	 * @return Next word and its index entry, or null at the end of the file.
+	 */
+	static Map.Entry<String, IndexEntry> readEntry(BufferedReader reader) {
+		// O(n) where n = length of entry.
+		try {
+			String line;
+			String word = null;
+			StringBuilder definition = null;
+			while ((line = reader.readLine()) != null) {
+				if (word == null) {
+					if (!line.isEmpty() && !isSectionHeader(line)) {
+						word = Character.toLowerCase(line.charAt(0)) + line.substring(1);
+					}
+				} else if (definition == null) {
+					if (line.equals(DEFINITION)) {
+						definition = new StringBuilder();
+					}
+				} else if (line.startsWith(PAGES) && line.endsWith("]")) {
+					return new AbstractMap.SimpleImmutableEntry<String, IndexEntry>(word,
+							new IndexEntry(definition.toString(), parsePages(line)));
+				} else {
+					if (definition.length() > 0) {
+						definition.append('\n');
+					}
+					definition.append(line);
+				}
+			}
+			return null;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static boolean isSectionHeader(String line) {
+		// O(1) checks for a "== A ==" line.
+		return line.startsWith("== ") && line.endsWith(" ==");
+	}
+
+	private static TreeSet<Integer> parsePages(String line) {
+		// O(n) where n = length of line.
+		TreeSet<Integer> pages = new TreeSet<Integer>();
+		int value = 0;
+		boolean inNumber = false;
+		for (int i = PAGES.length(); i < line.length(); i++) {
+			char c = line.charAt(i);
+			if (c >= '0' && c <= '9') {
+				value = value * 10 + (c - '0');
+				inNumber = true;
+			} else if (inNumber) {
+				pages.add(value);
+				value = 0;
+				inNumber = false;
+			}
+		}
+		return pages;
+	}
+}
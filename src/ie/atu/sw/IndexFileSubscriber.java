@@ -0,0 +1,92 @@
+package ie.atu.sw;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+
+/**
+ * Index File Subscriber - Writes entries from an IndexPublisher to a text
+ * index file as they arrive, in the format of Outputter.saveToFile(). Entries
+ * are requested in batches, so the publisher only builds entries as fast as
+ * they are written.
+ *
+ * See IndexPublisher, Outputter.
+ *
+ * @author Ben Murray
+ * @version 1.0
+ * @since JDK 19
+ *
+ */
+public class IndexFileSubscriber implements Flow.Subscriber<Map.Entry<String, IndexEntry>> {
+
+	private static final int BATCH_SIZE = 256;
+
+	private String file;
+	private PrintWriter pw;
+	private Flow.Subscription subscription;
+	private long written;
+	private CompletableFuture<Long> completion = new CompletableFuture<Long>();
+
+	/**
+	 * Constructor for IndexFileSubscriber, opens the output file.
+	 *
+	 * @param file Path to file index will be written to.
+	 * @throws FileNotFoundException If the file cannot be created.
+	 */
+	public IndexFileSubscriber(String file) throws FileNotFoundException {
+		// O(1) opens file.
+		this.file = file;
+		this.pw = new PrintWriter(file);
+	}
+
+	/**
+	 * Gets a future completed with the number of entries written once the
+	 * publisher completes, or completed exceptionally if it fails or the file
+	 * could not be written.
+	 *
+	 * @return Completion of this subscriber.
+	 */
+	public CompletableFuture<Long> getCompletion() {
+		// O(1) return future from memory.
+		return completion;
+	}
+
+	@Override
+	public void onSubscribe(Flow.Subscription subscription) {
+		// O(1) requests the first batch.
+		this.subscription = subscription;
+		subscription.request(BATCH_SIZE);
+	}
+
+	@Override
+	public void onNext(Map.Entry<String, IndexEntry> entry) {
+		// O(p) writes an entry with p pages, requests the next batch when this
+		// one is written.
+		Outputter.writeEntry(pw, entry.getKey(), entry.getValue());
+		if (++written % BATCH_SIZE == 0) {
+			subscription.request(BATCH_SIZE);
+		}
+	}
+
+	@Override
+	public void onError(Throwable throwable) {
+		// O(1) closes file.
+		pw.close();
+		completion.completeExceptionally(throwable);
+	}
+
+	@Override
+	public void onComplete() {
+		// O(1) flushes and closes file, failing if any write failed.
+		boolean failed = pw.checkError();
+		pw.close();
+		if (failed) {
+			completion.completeExceptionally(new IOException("Could not write index to " + file));
+		} else {
+			completion.complete(written);
+		}
+	}
+}
@@ -0,0 +1,87 @@
+package ie.atu.sw;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Index Format Benchmark - Compares the text index written by
+ * Outputter.saveToFile() with the compressed index written by
+ * CompressedIndexFile: size on disk, time to write and time to load back into
+ * IndexEntry objects. Checks both formats load to the same index.
+ *
+ * See CompressedIndexFile, IndexFileReader.
+ *
+ * @author Ben Murray
+ * @version 1.0
+ * @since JDK 19
+ *
+ */
+public class IndexFormatBenchmark {
+
+	private static final int ROUNDS = 5;
+
+	/**
+	 * Runs the comparison on an existing text index.
+	 *
+	 * Usage: IndexFormatBenchmark &lt;text index file&gt;
+	 *
+	 * @param args Path of a text index saved by the Indexer.
+	 */
+	public static void main(String[] args) throws IOException {
+		// O(r * n) - r rounds over an index of n words.
+		Path text = Path.of(args[0]);
+		Path compressed = Path.of(args[0] + ".idx");
+		Path rewritten = Path.of(args[0] + ".txt");
+		TreeMap<String, IndexEntry> index = IndexFileReader.read(text);
+		Outputter outputter = new Outputter();
+
+		long textWrite = Long.MAX_VALUE;
+		long compressedWrite = Long.MAX_VALUE;
+		long textLoad = Long.MAX_VALUE;
+		long compressedLoad = Long.MAX_VALUE;
+		for (int round = 0; round < ROUNDS; round++) {
+			long start = System.nanoTime();
+			outputter.saveToFile(index, rewritten.toString());
+			textWrite = Math.min(textWrite, System.nanoTime() - start);
+
+			start = System.nanoTime();
+			CompressedIndexFile.write(index, compressed);
+			compressedWrite = Math.min(compressedWrite, System.nanoTime() - start);
+
+			start = System.nanoTime();
+			IndexFileReader.read(rewritten);
+			textLoad = Math.min(textLoad, System.nanoTime() - start);
+
+			start = System.nanoTime();
+			CompressedIndexFile.read(compressed);
+			compressedLoad = Math.min(compressedLoad, System.nanoTime() - start);
+		}
+
+		boolean matches = sameIndex(index, CompressedIndexFile.read(compressed));
+		System.out.printf("%d words, round trip %s%n", index.size(), matches ? "OK" : "MISMATCH");
+		System.out.printf("%-12s %12s %10s %10s%n", "Format", "Bytes", "Write ms", "Load ms");
+		System.out.printf("%-12s %12d %10.1f %10.1f%n", "Text", Files.size(rewritten), textWrite / 1e6,
+				textLoad / 1e6);
+		System.out.printf("%-12s %12d %10.1f %10.1f%n", "Compressed", Files.size(compressed),
+				compressedWrite / 1e6, compressedLoad / 1e6);
+		Files.delete(rewritten);
+	}
+
+	private static boolean sameIndex(Map<String, IndexEntry> expected, Map<String, IndexEntry> actual) {
+		// O(p) compares p pages in total.
+		if (!expected.keySet().equals(actual.keySet())) {
+			return false;
+		}
+		for (String word : expected.keySet()) {
+			IndexEntry a = expected.get(word);
+			IndexEntry b = actual.get(word);
+			if (!a.getDefinition().equals(b.getDefinition()) || !a.getPages().equals(b.getPages())) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
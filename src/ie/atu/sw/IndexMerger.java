@@ -0,0 +1,310 @@
+package ie.atu.sw;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+/**
+ * Index Merger - Combines indexes of separate volumes of a series, saved as
+ * text by Outputter.saveToFile() or in compressed form, into one index. The
+ * pages of each volume are moved up by a page offset, by default the last
+ * page of the volumes before it, so the series is numbered as if it were one
+ * text. A word found in several volumes keeps the definition of the first
+ * volume that has one.
+ *
+ * Inputs are streamed and merged k ways, by a priority queue holding the
+ * current entry of each input, so memory depends on the number of inputs
+ * rather than their size. Text indexes are saved in hash order, so inputs
+ * found to be unsorted are first split into sorted runs of at most
+ * getRunSize() entries in temporary compressed files, which are merged as
+ * extra inputs.
+ *
+ * See IndexFileReader, CompressedIndexFile.
+ *
+ * @author Ben Murray
+ * @version 1.0
+ * @since JDK 19
+ *
+ */
+public class IndexMerger {
+
+	private List<Path> volumes = new ArrayList<Path>();
+	private List<Integer> offsets = new ArrayList<Integer>();
+	private int runSize = 50000;
+	private List<Path> runs = new ArrayList<Path>();
+
+	/**
+	 * Adds a volume, its pages following on from the last page of the volumes
+	 * added before it.
+	 *
+	 * @param index Path of a text or compressed index.
+	 */
+	public void addVolume(Path index) {
+		// O(1) add to ArrayLists.
+		volumes.add(index);
+		offsets.add(null);
+	}
+
+	/**
+	 * Adds a volume with a fixed page offset.
+	 *
+	 * @param index      Path of a text or compressed index.
+	 * @param pageOffset Number added to every page of this volume, 0 to keep
+	 *                   page numbers unchanged.
+	 */
+	public void addVolume(Path index, int pageOffset) {
+		// O(1) add to ArrayLists.
+		volumes.add(index);
+		offsets.add(pageOffset);
+	}
+
+	/**
+	 * Gets the most entries held in memory while sorting an unsorted input.
+	 *
+	 * @return Entries per sorted run.
+	 */
+	public int getRunSize() {
+		// O(1) return int from memory.
+		return runSize;
+	}
+
+	/**
+	 * Sets the most entries held in memory while sorting an unsorted input,
+	 * 50,000 by default.
+	 *
+	 * @param runSize Entries per sorted run.
+	 */
+	public void setRunSize(int runSize) {
+		// O(1) set value of runSize.
+		this.runSize = Math.max(1, runSize);
+	}
+
+	/**
+	 * Merges the volumes into one index file, compressed if its name ends in
+	 * ".idx", otherwise text in the format of Outputter.saveToFile() in sorted
+	 * order.
+	 *
+	 * @param output Path to file merged index will be written to.
+	 * @return Number of words in merged index.
+	 * @throws IOException If an input cannot be read or output written.
+	 */
+	public long merge(Path output) throws IOException {
+		// O(n log k) for n entries across k inputs, see merge(EntrySink).
+		if (output.getFileName().toString().endsWith(".idx")) {
+			try (CompressedIndexFile.Writer writer = CompressedIndexFile.writer(output)) {
+				return merge((word, entry) -> writer.add(word, entry));
+			}
+		}
+		try (PrintWriter pw = new PrintWriter(Files.newBufferedWriter(output))) {
+			return merge((word, entry) -> Outputter.writeEntry(pw, word, entry));
+		}
+	}
+
+	/**
+	 * Merges the volumes, passing each merged entry to sink in sorted order.
+	 *
+	 * @param sink Receiver of merged entries.
+	 * @return Number of words merged.
+	 * @throws IOException If an input cannot be read, or sink fails.
+	 */
+	public long merge(EntrySink sink) throws IOException {
+		// O(n log k) for n entries across k inputs, plus O(n log r) to sort
+		// unsorted inputs in runs of r entries.
+		PriorityQueue<Cursor> queue = new PriorityQueue<Cursor>();
+		List<Stream<Map.Entry<String, IndexEntry>>> streams = new ArrayList<Stream<Map.Entry<String, IndexEntry>>>();
+		try {
+			int offset = 0;
+			for (int volume = 0; volume < volumes.size(); volume++) {
+				Path index = volumes.get(volume);
+				Scan scan = scan(index);
+				int pageOffset = offsets.get(volume) == null ? offset : offsets.get(volume);
+				offset = Math.max(offset, pageOffset + scan.lastPage());
+				List<Path> inputs = scan.sorted() ? List.of(index) : sortRuns(index);
+				for (Path input : inputs) {
+					Stream<Map.Entry<String, IndexEntry>> entries = entries(input);
+					streams.add(entries);
+					Cursor cursor = new Cursor(entries.iterator(), volume, pageOffset);
+					if (cursor.advance()) {
+						queue.add(cursor);
+					}
+				}
+			}
+			long merged = 0;
+			while (!queue.isEmpty()) {
+				String word = queue.peek().word();
+				String definition = null;
+				TreeSet<Integer> pages = new TreeSet<Integer>();
+				while (!queue.isEmpty() && queue.peek().word().equals(word)) {
+					Cursor cursor = queue.poll();
+					IndexEntry entry = cursor.entry();
+					if (definition == null || definition.isEmpty()) {
+						definition = entry.getDefinition();
+					}
+					for (int page : entry.getPages()) {
+						pages.add(page + cursor.offset);
+					}
+					if (cursor.advance()) {
+						queue.add(cursor);
+					}
+				}
+				sink.accept(word, new IndexEntry(definition, pages));
+				merged++;
+			}
+			return merged;
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		} finally {
+			streams.forEach(Stream::close);
+			for (Path run : runs) {
+				Files.deleteIfExists(run);
+			}
+			runs.clear();
+		}
+	}
+
+	private Scan scan(Path index) throws IOException {
+		// O(n) reads n entries, holding one at a time.
+		String previous = null;
+		boolean sorted = true;
+		int lastPage = 0;
+		try (Stream<Map.Entry<String, IndexEntry>> entries = entries(index)) {
+			Iterator<Map.Entry<String, IndexEntry>> it = entries.iterator();
+			while (it.hasNext()) {
+				Map.Entry<String, IndexEntry> entry = it.next();
+				if (previous != null && entry.getKey().compareTo(previous) <= 0) {
+					sorted = false;
+				}
+				if (!entry.getValue().getPages().isEmpty()) {
+					lastPage = Math.max(lastPage, entry.getValue().getPages().last());
+				}
+				previous = entry.getKey();
+			}
+		}
+		return new Scan(sorted, lastPage);
+	}
+
+	private List<Path> sortRuns(Path index) throws IOException {
+		// O(n log r) sorts n entries in runs of r.
+		List<Path> sorted = new ArrayList<Path>();
+		TreeMap<String, IndexEntry> run = new TreeMap<String, IndexEntry>();
+		try (Stream<Map.Entry<String, IndexEntry>> entries = entries(index)) {
+			Iterator<Map.Entry<String, IndexEntry>> it = entries.iterator();
+			while (it.hasNext()) {
+				Map.Entry<String, IndexEntry> entry = it.next();
+				run.put(entry.getKey(), entry.getValue());
+				if (run.size() == runSize || !it.hasNext()) {
+					Path file = Files.createTempFile("index-run", ".idx");
+					runs.add(file);
+					sorted.add(file);
+					CompressedIndexFile.write(run, file);
+					run.clear();
+				}
+			}
+		}
+		return sorted;
+	}
+
+	private static Stream<Map.Entry<String, IndexEntry>> entries(Path index) throws IOException {
+		// O(1) opens index in whichever format it was saved.
+		return CompressedIndexFile.isCompressed(index) ? CompressedIndexFile.entries(index)
+				: IndexFileReader.entries(index);
+	}
+
+	/**
+	 * Entry Sink - Receives merged entries.
+	 */
+	@FunctionalInterface
+	public interface EntrySink {
+
+		/**
+		 * Receives one merged entry.
+		 *
+		 * @param word  Word, greater than every word received before it.
+		 * @param entry Definition and merged pages of word.
+		 * @throws IOException If the entry cannot be written.
+		 */
+		public abstract void accept(String word, IndexEntry entry) throws IOException;
+	}
+
+	private record Scan(boolean sorted, int lastPage) {
+	}
+
+	private static class Cursor implements Comparable<Cursor> {
+
+		private Iterator<Map.Entry<String, IndexEntry>> entries;
+		private int volume;
+		private int offset;
+		private Map.Entry<String, IndexEntry> current;
+
+		private Cursor(Iterator<Map.Entry<String, IndexEntry>> entries, int volume, int offset) {
+			// O(1) set values.
+			this.entries = entries;
+			this.volume = volume;
+			this.offset = offset;
+		}
+
+		private boolean advance() {
+			// O(1) reads the next entry, false at the end of the input.
+			current = entries.hasNext() ? entries.next() : null;
+			return current != null;
+		}
+
+		private String word() {
+			// O(1) return String from memory.
+			return current.getKey();
+		}
+
+		private IndexEntry entry() {
+			// O(1) return entry from memory.
+			return current.getValue();
+		}
+
+		@Override
+		public int compareTo(Cursor other) {
+			// O(1) orders by word, then by volume so definitions are taken from
+			// the first volume.
+			int order = word().compareTo(other.word());
+			return order != 0 ? order : Integer.compare(volume, other.volume);
+		}
+	}
+
+	/**
+	 * Main - Merges indexes from the command line, eg. "IndexMerger series.txt
+	 * volume1.txt volume2.idx". Pages of each volume follow on from the one
+	 * before, unless --keep-pages is given first.
+	 *
+	 * @param args Optional --keep-pages, output path, then input paths in
+	 *             volume order.
+	 * @throws IOException If an input cannot be read or output written.
+	 */
+	public static void main(String[] args) throws IOException {
+		// O(n log k) - see merge().
+		int first = args.length > 0 && args[0].equals("--keep-pages") ? 1 : 0;
+		if (args.length - first < 2) {
+			System.out.println("Usage: IndexMerger [--keep-pages] <output> <index> [<index> ...]");
+			return;
+		}
+		IndexMerger merger = new IndexMerger();
+		for (int i = first + 1; i < args.length; i++) {
+			if (first == 1) {
+				merger.addVolume(Path.of(args[i]), 0);
+			} else {
+				merger.addVolume(Path.of(args[i]));
+			}
+		}
+		long start = System.currentTimeMillis();
+		long words = merger.merge(Path.of(args[first]));
+		System.out.println("Merged " + words + " words from " + (args.length - first - 1) + " indexes in "
+				+ (System.currentTimeMillis() - start) + " milliseconds.");
+	}
+}
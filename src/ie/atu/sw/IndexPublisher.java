@@ -0,0 +1,153 @@
+package ie.atu.sw;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Index Publisher - Publishes an index one entry at a time, in sorted word
+ * order, as a java.util.concurrent.Flow publisher. Entries are only built when
+ * the subscriber asks for them, and each word's pages are handed over and
+ * dropped from the parser's map as its entry is sent, so a subscriber that
+ * writes entries out and lets them go never has the whole finished index in
+ * memory at once.
+ *
+ * As the pages are handed over, an IndexPublisher accepts a single
+ * subscriber. Entries are delivered on a virtual thread, never more than the
+ * subscriber has requested.
+ *
+ * See Indexer.publishIndex(), IndexFileSubscriber.
+ *
+ * @author Ben Murray
+ * @version 1.0
+ * @since JDK 19
+ *
+ */
+public class IndexPublisher implements Flow.Publisher<Map.Entry<String, IndexEntry>> {
+
+	private String[] words;
+	private Map<String, TreeSet<Integer>> pages;
+	private Map<String, String> definitions;
+	private AtomicBoolean subscribed = new AtomicBoolean();
+
+	/**
+	 * Constructor for IndexPublisher.
+	 *
+	 * @param filteredSet Words to be published, see Filter.
+	 * @param pages       Mapping of words to pages, see UserInputParser.
+	 *                    Published words are removed from it.
+	 * @param definitions Mapping of dictionary words to definitions.
+	 */
+	public IndexPublisher(Set<String> filteredSet, Map<String, TreeSet<Integer>> pages,
+			Map<String, String> definitions) {
+		// O(n log n) sorts n words.
+		this.words = filteredSet.toArray(new String[0]);
+		Arrays.sort(this.words);
+		this.pages = pages;
+		this.definitions = definitions;
+	}
+
+	/**
+	 * Gets number of entries that will be published.
+	 *
+	 * @return Number of entries.
+	 */
+	public int size() {
+		// O(1) return length of array.
+		return words.length;
+	}
+
+	@Override
+	public void subscribe(Flow.Subscriber<? super Map.Entry<String, IndexEntry>> subscriber) {
+		// O(1) - entries are only sent as they are requested.
+		if (!subscribed.compareAndSet(false, true)) {
+			subscriber.onSubscribe(new Flow.Subscription() {
+				public void request(long n) {
+				}
+
+				public void cancel() {
+				}
+			});
+			subscriber.onError(new IllegalStateException("IndexPublisher allows only one subscriber"));
+			return;
+		}
+		subscriber.onSubscribe(new IndexSubscription(subscriber));
+	}
+
+	/**
+	 * Index Subscription - Tracks outstanding demand and runs a single drain
+	 * loop at a time, started by request().
+	 */
+	private class IndexSubscription implements Flow.Subscription {
+		private Flow.Subscriber<? super Map.Entry<String, IndexEntry>> subscriber;
+		private AtomicLong demand = new AtomicLong();
+		private AtomicInteger pending = new AtomicInteger();
+		private volatile boolean done;
+		private int next;
+
+		private IndexSubscription(Flow.Subscriber<? super Map.Entry<String, IndexEntry>> subscriber) {
+			// O(1) set value of subscriber.
+			this.subscriber = subscriber;
+		}
+
+		@Override
+		public void request(long n) {
+			// O(1) adds demand, starting a drain loop if none is running.
+			if (done) {
+				return;
+			} else if (n <= 0) {
+				done = true;
+				subscriber.onError(new IllegalArgumentException("Request must be positive: " + n));
+				return;
+			}
+			demand.getAndAccumulate(n, (current, add) -> current + add < 0 ? Long.MAX_VALUE : current + add);
+			if (pending.getAndIncrement() == 0) {
+				Thread.startVirtualThread(this::drain);
+			}
+		}
+
+		@Override
+		public void cancel() {
+			// O(1) stops delivery at the next entry.
+			done = true;
+		}
+
+		private void drain() {
+			// O(k) builds and sends k requested entries.
+			int missed = 1;
+			do {
+				long requested = demand.get();
+				long sent = 0;
+				try {
+					while (sent < requested && next < words.length) {
+						if (done) {
+							return;
+						}
+						String word = words[next++];
+						subscriber.onNext(Map.entry(word, new IndexEntry(definitions.get(word), pages.remove(word))));
+						sent++;
+					}
+				} catch (Throwable t) {
+					// Signal the failure, or the subscriber would wait forever.
+					done = true;
+					subscriber.onError(t);
+					return;
+				}
+				if (next == words.length && !done) {
+					done = true;
+					subscriber.onComplete();
+					return;
+				}
+				if (requested != Long.MAX_VALUE) {
+					demand.addAndGet(-sent);
+				}
+				missed = pending.addAndGet(-missed);
+			} while (missed != 0);
+		}
+	}
+}
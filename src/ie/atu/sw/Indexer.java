@@ -1,54 +1,128 @@
 package ie.atu.sw;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Indexer - Encapsulates index generating process, delegates
  * responsibilities to relevant classes.
  * 
+ * Each build uses fresh parsers and a fresh MapBuilder, and the finished index
+ * is published as an immutable snapshot with a single atomic swap: an
+ * unmodifiable map of immutable copies of its entries, each with its own
+ * pages, so nothing the parsers or MapBuilder still hold is shared. Readers
+ * of getCurrentIndex() therefore see either the previous index or the new one,
+ * never one being built, and keep a consistent view for as long as they hold
+ * on to a snapshot. Builds themselves run one at a time.
+ * 
  * See DictionaryParser, CommonWordParser, UserInputParser, MapBuilder,
- * Outputter.
+ * Outputter, EligibleVocabulary.
  * 
  * @author Ben Murray
  * @version 1.0
  * @since JDK 19
  *
  */
-public class Indexer {
+public class Indexer implements AutoCloseable {
 
 	private DictionaryParser dp = new DictionaryParser();
 	private CommonWordsParser cwp = new CommonWordsParser();
 	private UserInputParser uip = new UserInputParser();
 	private MapBuilder mb = new MapBuilder();
 	private Outputter o = new Outputter();
-	private Map<String, IndexEntry> Index;
+	private AtomicReference<Map<String, IndexEntry>> current = new AtomicReference<Map<String, IndexEntry>>();
+	private Map<String, IndexEntry> building;
+	private ReentrantLock buildLock = new ReentrantLock();
+	private boolean offHeapDefinitions = false;
 	private long time;
+	private boolean estimateUniqueWords = false;
+	private HyperLogLog rawSketch;
+	private HyperLogLog eligibleSketch;
+	private boolean suggestSpellings = false;
+	private Map<String, List<String>> suggestions;
+	private boolean saveCompressed = false;
+	private int sortedInterval = 0;
+	private int shards = 1;
+	private HeapFootprint footprint;
+	private FootprintReport footprintReport;
+	private long progressInterval = 0;
+	private ProgressTracker progress;
+	private Path vocabularyArtifact;
+	private Path adaptiveSettings;
+	private boolean trackLatency = false;
+	private LatencyReport latencyReport;
+	private String stage;
+	private long stageStart;
 
 	/**
-	 * Gets index for first time.
+	 * Builds a new index from the files chosen in the Menu and publishes it as
+	 * the current index. Waits for any build already running to finish first.
 	 * 
-	 * @return Index of user words, definitions and lists of pages where words
-	 *         occur.
+	 * @return Unmodifiable index of user words, definitions and lists of pages
+	 *         where words occur. If the build failed, the current index.
 	 */
 	public Map<String, IndexEntry> getNewIndex() {
-		// O(n²) - calls generateIndex() which has O(n²) time complexity.
-		generateIndex();
-		return Index;
+		// O(n²) - see getNewIndex(List).
+		return getNewIndex(Menu.getPaths());
+	}
+
+	/**
+	 * Builds a new index from the given files rather than those chosen in the
+	 * Menu, eg. for BatchRunner, and publishes it as the current index. Waits
+	 * for any build already running to finish first.
+	 * 
+	 * @param paths Paths of dictionary, common words, text and output files, in
+	 *              the order of Menu.getPaths().
+	 * @return Unmodifiable index of user words, definitions and lists of pages
+	 *         where words occur. If the build failed, the current index.
+	 */
+	public Map<String, IndexEntry> getNewIndex(List<String> paths) {
+		// O(n²) - calls generateIndex() which has O(n²) time complexity. A lock
+		// rather than synchronized, which would pin a virtual thread's carrier
+		// while the parsers wait on their own virtual threads.
+		buildLock.lock();
+		try {
+			generateIndex(paths);
+			return current.get();
+		} finally {
+			buildLock.unlock();
+		}
 	}
 
 	/**
-	 * Gets index for subsequent uses elsewhere in program. Will not work if
+	 * Builds a new index in the background, on a virtual thread. Readers keep
+	 * getting the current index until the new one is published.
+	 * 
+	 * @return Future completed with the new index, see getNewIndex().
+	 */
+	public CompletableFuture<Map<String, IndexEntry>> rebuildAsync() {
+		// O(1) starts a virtual thread, see getNewIndex().
+		return CompletableFuture.supplyAsync(this::getNewIndex,
+				task -> Thread.ofVirtual().name("index-rebuild").start(task));
+	}
+
+	/**
+	 * Gets the last index published, without waiting for a build in progress.
+	 * The snapshot never changes, later builds publish new ones. Will be null if
 	 * getNewIndex has not already been called.
 	 * 
-	 * @return Index of user words, definitions and lists of pages where words
-	 *         occur.
+	 * @return Immutable index of user words, definitions and lists of pages
+	 *         where words occur, see IndexEntry.immutableCopy().
 	 */
 	public Map<String, IndexEntry> getCurrentIndex() {
-		// O(1) return map from memory.
-		return Index;
+		// O(1) read of AtomicReference.
+		return current.get();
 	}
 
 	/**
@@ -71,39 +145,568 @@ public class Indexer {
 		this.time = time;
 	}
 
-	private void generateIndex() {
+	/**
+	 * Sets whether distinct words are also estimated with HyperLogLog sketches
+	 * while the user file is parsed, both before and after filtering. Off by
+	 * default.
+	 * 
+	 * @param estimateUniqueWords True to estimate distinct words.
+	 */
+	public void setEstimateUniqueWords(boolean estimateUniqueWords) {
+		// O(1) set value of estimateUniqueWords.
+		this.estimateUniqueWords = estimateUniqueWords;
+	}
 
-		// O(n²) - includes buildMap() & getFilteredWords() functions, O(n²) dominates.
-		List<String> menuPaths = new ArrayList<String>();
+	/**
+	 * Gets sketch of all distinct words in the user file.
+	 * 
+	 * @return Sketch, or null if estimation was off.
+	 */
+	public HyperLogLog getRawSketch() {
+		// O(1) return sketch from memory.
+		return rawSketch;
+	}
+
+	/**
+	 * Gets sketch of distinct words in the user file that pass the Filter, ie.
+	 * are in the dictionary and are not common words.
+	 * 
+	 * @return Sketch, or null if estimation was off.
+	 */
+	public HyperLogLog getEligibleSketch() {
+		// O(1) return sketch from memory.
+		return eligibleSketch;
+	}
+
+	/**
+	 * Sets whether words missing from the dictionary are matched to their nearest
+	 * dictionary entries. Suggestions are saved next to the output file, and
+	 * cached next to the dictionary for later runs. Off by default.
+	 * 
+	 * @param suggestSpellings True to suggest spellings.
+	 */
+	public void setSuggestSpellings(boolean suggestSpellings) {
+		// O(1) set value of suggestSpellings.
+		this.suggestSpellings = suggestSpellings;
+	}
+
+	/**
+	 * Gets suggested dictionary entries for each user word missing from the
+	 * dictionary.
+	 * 
+	 * @return Sorted mapping of missing words to suggestions, or null if
+	 *         suggestions were off.
+	 */
+	public Map<String, List<String>> getSuggestions() {
+		// O(1) return map from memory.
+		return suggestions;
+	}
+
+	/**
+	 * Sets whether the index is also saved in compressed binary form, next to
+	 * the text output with ".idx" appended to its name. Off by default.
+	 * 
+	 * @param saveCompressed True to also save a compressed index.
+	 */
+	public void setSaveCompressed(boolean saveCompressed) {
+		// O(1) set value of saveCompressed.
+		this.saveCompressed = saveCompressed;
+	}
+
+	/**
+	 * Sets whether the text index is saved in sorted order, in sections by
+	 * initial letter, with a sidecar of offsets for SortedIndexLookup, see
+	 * Outputter.saveSorted(). 0, the default, saves in hash order.
+	 * 
+	 * @param sortedInterval Number of words between offsets in the sidecar, eg.
+	 *                       64, or 0 for hash order.
+	 */
+	public void setSortedOutput(int sortedInterval) {
+		// O(1) set value of sortedInterval.
+		this.sortedInterval = sortedInterval;
+	}
+
+	/**
+	 * Sets number of worker JVMs the text is split across, see ShardCoordinator.
+	 * 1, the default, indexes in this JVM. Unique word estimates and spelling
+	 * suggestions are only produced when indexing in this JVM.
+	 * 
+	 * @param shards Number of worker JVMs.
+	 */
+	public void setShards(int shards) {
+		// O(1) set value of shards.
+		this.shards = shards;
+	}
+
+	/**
+	 * Sets whether the heap footprint of each structure is estimated after each
+	 * stage of indexing, see HeapFootprint. The report is printed as a table
+	 * and saved as JSON next to the output with ".footprint.json" appended to
+	 * its name. Off (null) by default.
+	 * 
+	 * @param mode LAYOUT to measure every element, SAMPLED to measure a sample,
+	 *             or null for no accounting.
+	 */
+	public void setFootprintMode(HeapFootprint.Mode mode) {
+		// O(1) reads the JVM's object layout.
+		this.footprint = mode == null ? null : new HeapFootprint(mode);
+	}
+
+	/**
+	 * Gets the heap footprint report of the last run.
+	 * 
+	 * @return Report, or null if accounting was off.
+	 */
+	public FootprintReport getFootprintReport() {
+		// O(1) return report from memory.
+		return footprintReport;
+	}
+
+	/**
+	 * Sets how often a progress line (stage, percent complete, rate and ETA) is
+	 * printed while an index is built. The same figures are published over JMX
+	 * as ProgressTracker.OBJECT_NAME for the duration of the run. 0, the
+	 * default, tracks no progress.
+	 * 
+	 * @param progressInterval Milliseconds between progress lines, or 0.
+	 */
+	public void setProgressInterval(long progressInterval) {
+		// O(1) set value of progressInterval.
+		this.progressInterval = progressInterval;
+	}
+
+	/**
+	 * Gets tracker of the current or last run.
+	 * 
+	 * @return Progress tracker, or null if progress was not tracked.
+	 */
+	public ProgressTracker getProgress() {
+		// O(1) return tracker from memory.
+		return progress;
+	}
+
+	/**
+	 * Sets whether latencies are recorded while an index is built, see
+	 * LatencyHistogram: each dictionary chunk, common words line and user text
+	 * line, each batch when parsers batch, and each stage. The p50, p99, p99.9
+	 * and max of each are printed at the end of every run. Off by default.
+	 * 
+	 * @param trackLatency True to record latencies.
+	 */
+	public void setLatencyTracking(boolean trackLatency) {
+		// O(1) set value of trackLatency.
+		this.trackLatency = trackLatency;
+	}
 
-		menuPaths = Menu.getPaths();
+	/**
+	 * Gets latencies of the last run.
+	 * 
+	 * @return Report, or null if latencies were not recorded.
+	 */
+	public LatencyReport getLatencyReport() {
+		// O(1) return report from memory.
+		return latencyReport;
+	}
 
+	/**
+	 * Sets a vocabulary file, see EligibleVocabulary, used in place of parsing
+	 * the dictionary and common words files. It is rebuilt first if missing or
+	 * out of date with either file, then user words are filtered by probing it
+	 * and definitions read from it. Null, the default, parses both files on
+	 * every run.
+	 * 
+	 * @param vocabularyArtifact Path of vocabulary file, eg. the dictionary
+	 *                           path with VocabularyBuilder.DEFAULT_SUFFIX
+	 *                           appended, or null.
+	 */
+	public void setVocabularyArtifact(Path vocabularyArtifact) {
+		// O(1) set value of vocabularyArtifact.
+		this.vocabularyArtifact = vocabularyArtifact;
+	}
+
+	/**
+	 * Sets a settings file for AdaptiveStrategy, which then runs the common
+	 * words and user text parsers, tuning batch size and worker count while the
+	 * first part of each file is parsed and saving them per input profile for
+	 * later runs. The dictionary keeps its own strategy, as it is read in a
+	 * handful of large chunks. Null, the default, keeps the parsers' own
+	 * strategies.
+	 * 
+	 * @param adaptiveSettings Path of settings file, or null.
+	 */
+	public void setAdaptiveTuning(Path adaptiveSettings) {
+		// O(1) set value of adaptiveSettings.
+		this.adaptiveSettings = adaptiveSettings;
+	}
+
+	/**
+	 * Sets whether dictionary definitions are kept in native memory while
+	 * indexing, see OffHeapDefinitionStore. The memory is freed when
+	 * getNewIndex() finishes, or by close() after publishIndex(). Off by
+	 * default. Requires --enable-preview on JDK 21.
+	 * 
+	 * @param offHeapDefinitions True to keep definitions off heap.
+	 */
+	public void setOffHeapDefinitions(boolean offHeapDefinitions) {
+		// O(1) set value of offHeapDefinitions, applied to each build's
+		// DictionaryParser.
+		this.offHeapDefinitions = offHeapDefinitions;
+	}
+
+	/**
+	 * Frees native memory held for dictionary definitions. Call once the
+	 * subscriber of publishIndex() has finished.
+	 */
+	@Override
+	public void close() {
+		// O(s) frees s native memory segments.
+		dp.closeDefinitions();
+	}
+
+	/**
+	 * Parses and filters the files chosen in the Menu, then publishes the index
+	 * in sorted order, building each entry only when a subscriber requests it.
+	 * Unlike getNewIndex() the finished index is never held as a whole, see
+	 * IndexPublisher and Outputter.saveToFile(Flow.Publisher, String).
+	 * 
+	 * @return Publisher of index entries, accepting one subscriber.
+	 */
+	public IndexPublisher publishIndex() {
+		// O(n²) - parsing and filtering as in getNewIndex(), entries built on demand.
+		buildLock.lock();
+		try {
+			List<String> menuPaths = Menu.getPaths();
+			resetParsers();
+
+			dp.setFile(menuPaths.get(0));
+			cwp.setFile(menuPaths.get(1));
+			uip.setFile(menuPaths.get(2));
+
+			EligibleVocabulary vocabulary = openVocabulary(menuPaths.get(0), menuPaths.get(1));
+			if (vocabulary != null) {
+				uip.parse();
+				Filter f = new Filter(uip.getUserWordSet(), vocabulary);
+				return new IndexPublisher(f.getFilteredWords(), uip.getIndex(), vocabulary.asMap());
+			}
+			dp.parse();
+			cwp.parse();
+			uip.parse();
+
+			Filter f = new Filter(uip.getUserWordSet(), dp.getDictionaryWordSet(), cwp.getCommonWordSet());
+			return new IndexPublisher(f.getFilteredWords(), uip.getIndex(), dp.getDictionaryWords());
+		} finally {
+			buildLock.unlock();
+		}
+	}
+
+	private void generateIndex(List<String> menuPaths) {
+
+		// O(n²) - includes buildMap() & getFilteredWords() functions, O(n²) dominates.
+		resetParsers();
 		dp.setFile(menuPaths.get(0));
 		cwp.setFile(menuPaths.get(1));
 		uip.setFile(menuPaths.get(2));
 		o.setOutputPath(menuPaths.get(3));
 
 		long start = System.currentTimeMillis();
+		footprintReport = footprint == null ? null : new FootprintReport();
+		progress = progressInterval > 0 ? new ProgressTracker() : null;
+		dp.setProgress(progress);
+		cwp.setProgress(progress);
+		uip.setProgress(progress);
+		if (progress != null) {
+			progress.start(progressInterval);
+		}
+		if (adaptiveSettings != null) {
+			cwp.setStrategy(new AdaptiveStrategy(adaptiveSettings));
+			uip.setStrategy(new AdaptiveStrategy(adaptiveSettings));
+		}
+		latencyReport = trackLatency ? new LatencyReport() : null;
+		if (latencyReport != null) {
+			dp.setStrategy(new TimedStrategy(dp.getStrategy(), latencyReport.get("dictionary chunk"),
+					latencyReport.get("dictionary batch")));
+			cwp.setStrategy(new TimedStrategy(cwp.getStrategy(), latencyReport.get("common words line"),
+					latencyReport.get("common words batch")));
+			uip.setLineLatency(latencyReport.get("user text line"));
+		}
 
+		try {
+			if (shards > 1) {
+				try {
+					startStage("shards", null);
+					this.building = new ShardCoordinator(shards).buildIndex(menuPaths.get(0), menuPaths.get(1),
+							menuPaths.get(2));
+					recordFootprint("merge", null, null, null);
+				} catch (IOException e) {
+					System.out.println("[ERROR] " + e.getMessage() + ". " + Menu.getRecoveryNote());
+					Menu.recover(e);
+					return;
+				}
+			} else {
+				try {
+					buildIndex(menuPaths);
+				} finally {
+					close();
+				}
+			}
+
+			Map<String, IndexEntry> snapshot = snapshotOf(building);
+			building = null;
+			current.set(snapshot);
+
+			startStage("save", null);
+			if (sortedInterval > 0) {
+				o.saveSorted(snapshot, o.getOutputPath(), sortedInterval);
+			} else {
+				o.saveToFile(snapshot, o.getOutputPath());
+			}
+			if (saveCompressed) {
+				o.saveCompressed(snapshot, o.getOutputPath() + ".idx");
+			}
+		} finally {
+			endStage();
+			if (progress != null) {
+				progress.stop();
+			}
+		}
+
+		long finish = System.currentTimeMillis();
+		long total = finish - start;
+		setTime(total);
+
+		System.out.println("Index saved to file in " + time + " milliseconds.");
+
+		if (footprintReport != null) {
+			saveFootprintReport(o.getOutputPath() + ".footprint.json");
+		}
+		if (latencyReport != null) {
+			System.out.println();
+			System.out.print(latencyReport.toTable());
+		}
+	}
+
+	private void buildIndex(List<String> menuPaths) {
+		// O(n²) - includes buildMap() & getFilteredWords() functions, O(n²) dominates.
+		EligibleVocabulary vocabulary = openVocabulary(menuPaths.get(0), menuPaths.get(1));
+		if (vocabulary != null) {
+			buildIndex(menuPaths, vocabulary);
+			return;
+		}
+		startStage("dictionary", menuPaths.get(0));
 		dp.parse();
+		recordFootprint("dictionary", null, null, null);
+		startStage("common words", menuPaths.get(1));
 		cwp.parse();
+		recordFootprint("common words", null, null, null);
+		if (estimateUniqueWords) {
+			Map<String, String> dictionary = dp.getDictionaryWords();
+			HashSet<String> common = cwp.getCommonWordSet();
+			uip.setEstimateUniqueWords(true);
+			uip.setEligibility(word -> dictionary.containsKey(word) && !common.contains(word));
+		}
+		startStage("user text", menuPaths.get(2));
 		uip.parse();
+		rawSketch = uip.getRawSketch();
+		eligibleSketch = uip.getEligibleSketch();
+		recordFootprint("user text", null, null, null);
+		startStage("filter", null);
 
-		Filter f = new Filter(uip.getUserWordSet(), dp.getDictionaryWordSet(), cwp.getCommonWordSet());
+		HashSet<String> userSet = uip.getUserWordSet();
+		HashSet<String> dictionarySet = dp.getDictionaryWordSet();
+		HashSet<String> commonSet = cwp.getCommonWordSet();
+		recordFootprint("filter input", userSet, dictionarySet, commonSet);
+		Filter f = new Filter(userSet, dictionarySet, commonSet);
 		HashSet<String> filteredSet = new HashSet<String>();
 		filteredSet = f.getFilteredWords();
+		recordFootprint("filter", userSet, filteredSet, commonSet);
 
+		if (suggestSpellings) {
+			suggestSpellings(f.getRejectedWords(), dp.getDictionaryWords().keySet(), menuPaths.get(0));
+		}
+
+		startStage("map build", null);
 		mb.buildMap(filteredSet, uip.getIndex(), dp.getDictionaryWords());
 
-		this.Index = mb.getFinalMap();
+		this.building = mb.getFinalMap();
+		recordFootprint("map build", null, null, null);
+	}
 
-		o.saveToFile(Index, o.getOutputPath());
+	private void buildIndex(List<String> menuPaths, EligibleVocabulary vocabulary) {
+		// O(n) - one probe per distinct user word, definitions decoded only for
+		// words in the index.
+		if (estimateUniqueWords) {
+			uip.setEstimateUniqueWords(true);
+			uip.setEligibility(vocabulary::contains);
+		}
+		startStage("user text", menuPaths.get(2));
+		uip.parse();
+		rawSketch = uip.getRawSketch();
+		eligibleSketch = uip.getEligibleSketch();
+		recordFootprint("user text", null, null, null);
 
-		long finish = System.currentTimeMillis();
-		long total = finish - start;
-		setTime(total);
+		startStage("filter", null);
+		Filter f = new Filter(uip.getUserWordSet(), vocabulary);
+		HashSet<String> filteredSet = f.getFilteredWords();
+		if (suggestSpellings) {
+			suggestSpellings(f.getRejectedWords(), vocabulary.getWords(), vocabularyArtifact.toString());
+		}
 
-		System.out.println("Index saved to file in " + time + " milliseconds.");
+		startStage("map build", null);
+		mb.buildMap(filteredSet, uip.getIndex(), vocabulary.asMap());
+		this.building = mb.getFinalMap();
+		recordFootprint("map build", null, null, null);
+	}
+
+	private EligibleVocabulary openVocabulary(String dictionary, String common) {
+		// O(1) if the vocabulary is current, otherwise O(n) rebuilds it from n
+		// dictionary and common words. Null if no vocabulary is set, or it
+		// cannot be used and the files are to be parsed instead.
+		if (vocabularyArtifact == null) {
+			return null;
+		}
+		try {
+			if (!EligibleVocabulary.isCurrent(vocabularyArtifact, Path.of(dictionary), Path.of(common))) {
+				startStage("vocabulary", dictionary);
+				System.out.println("Building vocabulary " + vocabularyArtifact + ".");
+				VocabularyBuilder.build(Path.of(dictionary), Path.of(common), vocabularyArtifact);
+			}
+			return EligibleVocabulary.open(vocabularyArtifact);
+		} catch (IOException e) {
+			System.out.println("[WARNING] Could not use vocabulary " + vocabularyArtifact
+					+ ", parsing dictionary and common words instead.");
+			return null;
+		}
+	}
+
+	private static Map<String, IndexEntry> snapshotOf(Map<String, IndexEntry> index) {
+		// O(n * p) copies n entries of p pages.
+		HashMap<String, IndexEntry> copy = new HashMap<String, IndexEntry>(index.size() * 4 / 3 + 1);
+		index.forEach((word, entry) -> copy.put(word, entry.immutableCopy()));
+		return Collections.unmodifiableMap(copy);
+	}
+
+	private void resetParsers() {
+		// O(1) - new parsers and MapBuilder, so a build never changes the
+		// pages or sets of an index already published.
+		dp = new DictionaryParser();
+		dp.setOffHeapDefinitions(offHeapDefinitions);
+		cwp = new CommonWordsParser();
+		uip = new UserInputParser();
+		mb = new MapBuilder();
+	}
+
+	private void startStage(String stage, String file) {
+		// O(1) tells the progress tracker, if any, a new stage has started, and
+		// times the stage before it.
+		endStage();
+		if (latencyReport != null) {
+			this.stage = stage;
+			this.stageStart = System.nanoTime();
+		}
+		if (progress != null) {
+			progress.startStage(stage, file);
+		}
+	}
+
+	private void endStage() {
+		// O(1) records the time of the current stage, if latencies are tracked.
+		if (latencyReport != null && stage != null) {
+			latencyReport.get("stage " + stage).recordSince(stageStart);
+		}
+		stage = null;
+	}
+
+	private void recordFootprint(String stage, HashSet<String> userSet, HashSet<String> dictionarySet,
+			HashSet<String> commonSet) {
+		// O(n) estimates the structures built by stage, O(s) per structure when
+		// sampled. Nothing is done if accounting is off.
+		if (footprintReport == null) {
+			return;
+		}
+		switch (stage) {
+		case "dictionary" -> {
+			Map<String, String> words = dp.getDictionaryWords();
+			footprintReport.add(stage, "dictionary words", words.size(), footprint.stringMap(words),
+					words instanceof OffHeapDefinitionMap ? "definitions off heap" : "");
+		}
+		case "common words" -> {
+			Set<String> words = (Set<String>) cwp.getWords();
+			footprintReport.add(stage, "common word skip list", words.size(), footprint.stringSet(words, true), "");
+		}
+		case "user text" -> {
+			footprintReport.add(stage, "user word pages", uip.getIndex().size(), footprint.postings(uip.getIndex()),
+					"");
+			PositionIndex positions = uip.getPositions();
+			if (positions != null) {
+				footprintReport.add(stage, "word positions", positions.getWordCount(), positions.getEncodedBytes(),
+						"encoded bytes only");
+			}
+		}
+		case "filter input", "filter" -> {
+			footprintReport.add(stage, "user word set", userSet.size(), footprint.stringSet(userSet, false),
+					"words shared with user word pages");
+			footprintReport.add(stage, stage.equals("filter") ? "filtered words" : "dictionary word set",
+					dictionarySet.size(), footprint.stringSet(dictionarySet, false),
+					"words shared with dictionary words");
+			footprintReport.add(stage, "common word set", commonSet.size(), footprint.stringSet(commonSet, false),
+					"words shared with common word skip list");
+		}
+		case "map build", "merge" -> {
+			footprintReport.add(stage, "index", building.size(), footprint.index(building),
+					stage.equals("merge") ? "pages and definitions not counted"
+							: "words and pages shared with user word pages");
+		}
+		}
+		footprintReport.add(stage, "heap used (measured)", 0, HeapFootprint.heapUsed(), "includes garbage");
+	}
+
+	private void saveFootprintReport(String file) {
+		// O(r) where r = number of report rows.
+		System.out.println();
+		System.out.print(footprintReport.toTable());
+		try {
+			Files.writeString(Path.of(file), footprintReport.toJson());
+		} catch (IOException e) {
+			System.out.println("[ERROR] IO Exception. Could not save footprint report to " + file
+					+ ". " + Menu.getRecoveryNote());
+			Menu.recover(e);
+		}
+	}
+
+	private void suggestSpellings(HashSet<String> rejectedWords, Collection<String> terms, String dictionaryPath) {
+		// O(n) lookups for n rejected words, cached results are O(1).
+		Path dictionary = Path.of(dictionaryPath);
+		Path cacheFile = Path.of(dictionaryPath + ".suggest");
+		SpellingSuggester suggester = openSuggester(terms, dictionary);
+		try {
+			suggester.loadCache(cacheFile, dictionary);
+			suggestions = suggester.suggestAll(rejectedWords);
+			suggester.saveCache(cacheFile, dictionary);
+		} catch (IOException e) {
+			System.out.println("[ERROR] Could not read or write spelling cache " + cacheFile);
+			suggestions = suggester.suggestAll(rejectedWords);
+		}
+		o.saveSuggestions(suggestions, o.getOutputPath() + ".suggestions.txt");
+	}
 
+	private SpellingSuggester openSuggester(Collection<String> terms, Path dictionary) {
+		// O(n + d) loads the saved deletion index of n terms and d deletes, or
+		// O(n * p²) builds and saves it if missing or out of date.
+		Path indexFile = Path.of(dictionary + SpellingSuggester.INDEX_SUFFIX);
+		try {
+			SpellingSuggester saved = SpellingSuggester.loadIndex(indexFile, dictionary, terms.size());
+			if (saved != null) {
+				return saved;
+			}
+		} catch (IOException e) {
+			System.out.println("[WARNING] Could not read spelling index " + indexFile + ", rebuilding it.");
+		}
+		SpellingSuggester suggester = new SpellingSuggester(terms);
+		try {
+			suggester.saveIndex(indexFile, dictionary);
+		} catch (IOException e) {
+			System.out.println("[WARNING] Could not save spelling index " + indexFile);
+		}
+		return suggester;
 	}
 }
@@ -0,0 +1,239 @@
+package ie.atu.sw;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Latency Histogram - Counts durations in log-linear buckets, as HdrHistogram
+ * does: every power of two is split into 32 equal buckets, so any value is
+ * reported within about 3% whatever its size, from nanoseconds to hours, in a
+ * fixed 1,888 buckets.
+ *
+ * Recording is a bucket calculation and one atomic increment, cheap enough to
+ * leave on. Counts are striped, each thread writing to the stripe picked by its
+ * thread id, so threads recording at once mostly touch different memory.
+ * Per-thread recorders are not used, as virtual threads are created per task
+ * and would each need their own. Histograms are mergeable, so the stripes, or
+ * histograms of separate runs, add into one.
+ *
+ * See LatencyReport, TimedStrategy.
+ *
+ * @author Ben Murray
+ * @version 1.0
+ * @since JDK 19
+ *
+ */
+public class LatencyHistogram {
+
+	private static final int SUB_BITS = 5;
+	private static final int SUB_BUCKETS = 1 << SUB_BITS;
+	private static final int BUCKETS = (64 - SUB_BITS) * SUB_BUCKETS;
+	private static final int SUM = BUCKETS;
+	private static final int MAX = BUCKETS + 1;
+
+	private AtomicLongArray[] stripes;
+	private int mask;
+
+	/**
+	 * Constructor for LatencyHistogram, with one stripe per available
+	 * processor, rounded up to a power of two.
+	 */
+	public LatencyHistogram() {
+		// O(s * b) allocates s stripes of b buckets.
+		int processors = Runtime.getRuntime().availableProcessors();
+		int count = Integer.highestOneBit(Math.max(1, processors - 1)) << (processors > 1 ? 1 : 0);
+		this.stripes = new AtomicLongArray[count];
+		for (int i = 0; i < count; i++) {
+			stripes[i] = new AtomicLongArray(BUCKETS + 2);
+		}
+		this.mask = count - 1;
+	}
+
+	/**
+	 * Records one duration. Safe to call from any number of threads at once.
+	 *
+	 * @param nanos Duration in nanoseconds, negative values count as 0.
+	 */
+	public void record(long nanos) {
+		// O(1) one bucket calculation and increment, plus a read of the maximum.
+		long value = Math.max(0, nanos);
+		long id = Thread.currentThread().threadId();
+		AtomicLongArray stripe = stripes[(int) (id ^ (id >>> 16)) * 0x9E3779B9 >>> 16 & mask];
+		stripe.getAndIncrement(bucketOf(value));
+		stripe.getAndAdd(SUM, value);
+		long max = stripe.get(MAX);
+		while (value > max && !stripe.compareAndSet(MAX, max, value)) {
+			max = stripe.get(MAX);
+		}
+	}
+
+	/**
+	 * Records the time since start.
+	 *
+	 * @param start Value of System.nanoTime() when the timed work began.
+	 */
+	public void recordSince(long start) {
+		// O(1) - see record().
+		record(System.nanoTime() - start);
+	}
+
+	/**
+	 * Adds every count of another histogram to this one.
+	 *
+	 * @param other Histogram to add, unchanged.
+	 */
+	public void add(LatencyHistogram other) {
+		// O(b) adds b buckets.
+		long[] counts = other.counts();
+		AtomicLongArray stripe = stripes[0];
+		for (int i = 0; i < BUCKETS; i++) {
+			if (counts[i] != 0) {
+				stripe.getAndAdd(i, counts[i]);
+			}
+		}
+		stripe.getAndAdd(SUM, counts[SUM]);
+		long max = stripe.get(MAX);
+		while (counts[MAX] > max && !stripe.compareAndSet(MAX, max, counts[MAX])) {
+			max = stripe.get(MAX);
+		}
+	}
+
+	/**
+	 * Gets number of durations recorded.
+	 *
+	 * @return Count.
+	 */
+	public long getCount() {
+		// O(s * b) sums s stripes.
+		long[] counts = counts();
+		long total = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			total += counts[i];
+		}
+		return total;
+	}
+
+	/**
+	 * Gets the longest duration recorded, exactly.
+	 *
+	 * @return Maximum in nanoseconds, 0 if empty.
+	 */
+	public long getMax() {
+		// O(s) reads s stripes.
+		long max = 0;
+		for (AtomicLongArray stripe : stripes) {
+			max = Math.max(max, stripe.get(MAX));
+		}
+		return max;
+	}
+
+	/**
+	 * Gets the mean duration, exactly.
+	 *
+	 * @return Mean in nanoseconds, 0 if empty.
+	 */
+	public double getMean() {
+		// O(s * b) sums s stripes.
+		long count = getCount();
+		long sum = 0;
+		for (AtomicLongArray stripe : stripes) {
+			sum += stripe.get(SUM);
+		}
+		return count == 0 ? 0 : (double) sum / count;
+	}
+
+	/**
+	 * Gets the duration at or below which percentile percent of durations fall,
+	 * to the precision of its bucket.
+	 *
+	 * @param percentile Percentile, eg. 99.9.
+	 * @return Highest value of the bucket holding that rank, capped at the
+	 *         maximum, in nanoseconds. 0 if empty.
+	 */
+	public long getValueAtPercentile(double percentile) {
+		// O(s * b) sums s stripes, then scans b buckets.
+		long[] counts = counts();
+		long total = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			total += counts[i];
+		}
+		if (total == 0) {
+			return 0;
+		}
+		long rank = Math.max(1, (long) Math.ceil(Math.min(100, percentile) / 100 * total));
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += counts[i];
+			if (seen >= rank) {
+				return Math.min(highestValueOf(i), counts[MAX]);
+			}
+		}
+		return counts[MAX];
+	}
+
+	/**
+	 * Summarises the histogram as count, p50, p99, p99.9 and max.
+	 *
+	 * @return Summary, eg. "n=1200 p50=1.2 ms p99=4.0 ms p99.9=5.1 ms max=6.3
+	 *         ms".
+	 */
+	@Override
+	public String toString() {
+		// O(s * b) - see getValueAtPercentile().
+		return "n=" + getCount() + " p50=" + format(getValueAtPercentile(50)) + " p99="
+				+ format(getValueAtPercentile(99)) + " p99.9=" + format(getValueAtPercentile(99.9)) + " max="
+				+ format(getMax());
+	}
+
+	/**
+	 * Formats a duration with a unit suited to its size.
+	 *
+	 * @param nanos Duration in nanoseconds.
+	 * @return Formatted duration, eg. "850 ns", "12.3 us", "4.56 ms".
+	 */
+	public static String format(long nanos) {
+		// O(1) choose unit.
+		if (nanos < 1_000) {
+			return nanos + " ns";
+		} else if (nanos < 1_000_000) {
+			return String.format(Locale.ROOT, "%.1f us", nanos / 1e3);
+		} else if (nanos < 1_000_000_000) {
+			return String.format(Locale.ROOT, "%.2f ms", nanos / 1e6);
+		}
+		return String.format(Locale.ROOT, "%.2f s", nanos / 1e9);
+	}
+
+	private long[] counts() {
+		// O(s * b) merges s stripes, with the sum and maximum at the end.
+		long[] counts = new long[BUCKETS + 2];
+		for (AtomicLongArray stripe : stripes) {
+			for (int i = 0; i < SUM; i++) {
+				counts[i] += stripe.get(i);
+			}
+			counts[SUM] += stripe.get(SUM);
+			counts[MAX] = Math.max(counts[MAX], stripe.get(MAX));
+		}
+		return counts;
+	}
+
+	private static int bucketOf(long value) {
+		// O(1) - values below 32 have a bucket each, above that the top bit
+		// picks the power of two and the next five bits the bucket within it.
+		if (value < SUB_BUCKETS) {
+			return (int) value;
+		}
+		int magnitude = 63 - Long.numberOfLeadingZeros(value);
+		int shift = magnitude - SUB_BITS;
+		return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+	}
+
+	private static long highestValueOf(int bucket) {
+		// O(1) inverse of bucketOf().
+		if (bucket < SUB_BUCKETS) {
+			return bucket;
+		}
+		int shift = bucket / SUB_BUCKETS - 1;
+		long lowest = (1L << (shift + SUB_BITS)) | ((long) (bucket % SUB_BUCKETS) << shift);
+		return lowest + (1L << shift) - 1;
+	}
+}
@@ -0,0 +1,72 @@
+package ie.atu.sw;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Latency Report - Named latency histograms of one run, eg. per task, per
+ * batch and per stage, printed as a table of count, p50, p99, p99.9 and max.
+ *
+ * See LatencyHistogram, Indexer.setLatencyTracking().
+ *
+ * @author Ben Murray
+ * @version 1.0
+ * @since JDK 19
+ *
+ */
+public class LatencyReport {
+
+	private Map<String, LatencyHistogram> histograms = Collections
+			.synchronizedMap(new LinkedHashMap<String, LatencyHistogram>());
+
+	/**
+	 * Gets the histogram of a name, creating it the first time. Look histograms
+	 * up once and keep them, rather than on every record.
+	 *
+	 * @param name Name of what is timed, eg. "stage dictionary".
+	 * @return Histogram for name.
+	 */
+	public LatencyHistogram get(String name) {
+		// O(1) get or put on a synchronized LinkedHashMap.
+		return histograms.computeIfAbsent(name, n -> new LatencyHistogram());
+	}
+
+	/**
+	 * Gets names of histograms in the order they were created.
+	 *
+	 * @return Names.
+	 */
+	public List<String> getNames() {
+		// O(h) copies h names.
+		synchronized (histograms) {
+			return new ArrayList<String>(histograms.keySet());
+		}
+	}
+
+	/**
+	 * Formats the report as a fixed width table, leaving out empty histograms.
+	 *
+	 * @return Table, one line per histogram.
+	 */
+	public String toTable() {
+		// O(h * b) for h histograms of b buckets.
+		StringBuilder sb = new StringBuilder();
+		sb.append(String.format("%-28s %10s %10s %10s %10s %10s%n", "Latency", "Count", "p50", "p99", "p99.9",
+				"Max"));
+		for (String name : getNames()) {
+			LatencyHistogram histogram = get(name);
+			long count = histogram.getCount();
+			if (count > 0) {
+				sb.append(String.format("%-28s %10d %10s %10s %10s %10s%n", name, count,
+						LatencyHistogram.format(histogram.getValueAtPercentile(50)),
+						LatencyHistogram.format(histogram.getValueAtPercentile(99)),
+						LatencyHistogram.format(histogram.getValueAtPercentile(99.9)),
+						LatencyHistogram.format(histogram.getMax())));
+			}
+		}
+		return sb.toString();
+	}
+}
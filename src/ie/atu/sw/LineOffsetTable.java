@@ -0,0 +1,99 @@
+package ie.atu.sw;
+
+import java.util.Arrays;
+
+/**
+ * Line Offset Table - Byte offset of the start of every line in a file, so a
+ * line can be read by seeking straight to it. Lines are split exactly as
+ * Files.lines() splits them (on "\n", "\r" or "\r\n"), so line numbers agree
+ * with those seen by the parsers.
+ *
+ * See Concordance, MappedFile.
+ *
+ * @author Ben Murray
+ * @version 1.0
+ * @since JDK 19
+ *
+ */
+public class LineOffsetTable {
+
+	private long[] offsets;
+	private int lineCount;
+	private long fileSize;
+
+	private LineOffsetTable(long[] offsets, int lineCount, long fileSize) {
+		// O(1) set values of fields.
+		this.offsets = offsets;
+		this.lineCount = lineCount;
+		this.fileSize = fileSize;
+	}
+
+	/**
+	 * Builds the table with a single sequential scan of a mapped file.
+	 *
+	 * @param source Mapped file to be scanned.
+	 * @return Table of line start offsets.
+	 */
+	public static LineOffsetTable build(MappedFile source) {
+		// O(n) where n = bytes in file.
+		long size = source.size();
+		long[] offsets = new long[1024];
+		int count = 0;
+		byte[] window = new byte[64 * 1024];
+		boolean lineStart = true;
+		boolean afterReturn = false;
+		for (long position = 0; position < size; position += window.length) {
+			int length = source.read(position, window, 0, window.length);
+			for (int i = 0; i < length; i++) {
+				byte b = window[i];
+				if (afterReturn && b == '\n') {
+					afterReturn = false;
+					lineStart = true;
+					continue;
+				}
+				if (lineStart) {
+					if (count == offsets.length) {
+						offsets = Arrays.copyOf(offsets, count * 2);
+					}
+					offsets[count++] = position + i;
+					lineStart = false;
+				}
+				afterReturn = b == '\r';
+				lineStart = b == '\n' || afterReturn;
+			}
+		}
+		return new LineOffsetTable(offsets, count, size);
+	}
+
+	/**
+	 * Gets number of lines in the file.
+	 *
+	 * @return Number of lines.
+	 */
+	public int getLineCount() {
+		// O(1) return int from memory.
+		return lineCount;
+	}
+
+	/**
+	 * Gets byte offset of the first character of a line.
+	 *
+	 * @param line Zero based line index.
+	 * @return Offset of start of line in file.
+	 */
+	public long getStart(int line) {
+		// O(1) array access.
+		return offsets[line];
+	}
+
+	/**
+	 * Gets byte offset just past the end of a line, including its terminator.
+	 *
+	 * @param line Zero based line index.
+	 * @return Offset of start of next line, or file size for the last line.
+	 */
+	public long getEnd(int line) {
+		// O(1) array access.
+		return line + 1 < lineCount ? offsets[line + 1] : fileSize;
+	}
+}
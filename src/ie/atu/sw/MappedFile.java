@@ -0,0 +1,129 @@
+package ie.atu.sw;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Mapped File - Read-only memory mapping of a whole file, addressed by long
+ * offsets. Files larger than a single MappedByteBuffer can hold are mapped as
+ * a series of 1 GB segments. Contents that are not in a file of their own,
+ * such as a decompressed gzip file, can be loaded into heap segments instead.
+ *
+ * See CsvDictionaryReader, CompressedInput.map().
+ *
+ * @author Ben Murray
+ * @version 1.0
+ * @since JDK 19
+ *
+ */
+public class MappedFile {
+
+	private static final int SEGMENT_BITS = 30;
+	private static final long SEGMENT_SIZE = 1L << SEGMENT_BITS;
+	private static final long SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+	private ByteBuffer[] segments;
+	private long size;
+
+	private MappedFile(ByteBuffer[] segments, long size) {
+		// O(1) set values of segments and size.
+		this.segments = segments;
+		this.size = size;
+	}
+
+	/**
+	 * Maps a file into memory. The channel is closed once mapped, mappings stay
+	 * valid until garbage collected.
+	 *
+	 * @param file Path of file to be mapped.
+	 * @return Mapped view of the file.
+	 * @throws IOException If the file cannot be opened or mapped.
+	 */
+	public static MappedFile open(Path file) throws IOException {
+		// O(n) where n = number of 1 GB segments.
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = channel.size();
+			int count = (int) ((size + SEGMENT_SIZE - 1) >>> SEGMENT_BITS);
+			MappedByteBuffer[] segments = new MappedByteBuffer[count];
+			for (int i = 0; i < count; i++) {
+				long start = (long) i << SEGMENT_BITS;
+				segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(SEGMENT_SIZE, size - start));
+			}
+			return new MappedFile(segments, size);
+		}
+	}
+
+	/**
+	 * Reads a whole stream into heap segments, for contents that cannot be
+	 * mapped directly. The stream is not closed.
+	 *
+	 * @param in Stream to read until end.
+	 * @return View of the stream contents.
+	 * @throws IOException If the stream cannot be read.
+	 */
+	public static MappedFile load(InputStream in) throws IOException {
+		// O(n) where n = bytes read.
+		List<ByteBuffer> segments = new ArrayList<ByteBuffer>();
+		long size = 0;
+		byte[] segment;
+		do {
+			segment = in.readNBytes((int) SEGMENT_SIZE);
+			segments.add(ByteBuffer.wrap(segment));
+			size += segment.length;
+		} while (segment.length == SEGMENT_SIZE);
+		return new MappedFile(segments.toArray(new ByteBuffer[0]), size);
+	}
+
+	/**
+	 * Gets size of the mapped file in bytes.
+	 *
+	 * @return Size of file in bytes.
+	 */
+	public long size() {
+		// O(1) return long from memory.
+		return size;
+	}
+
+	/**
+	 * Gets a single byte.
+	 *
+	 * @param position Offset of byte in file.
+	 * @return Byte at position.
+	 */
+	public byte get(long position) {
+		// O(1) segment lookup and absolute get.
+		return segments[(int) (position >>> SEGMENT_BITS)].get((int) (position & SEGMENT_MASK));
+	}
+
+	/**
+	 * Copies bytes starting at position into an array, crossing segment
+	 * boundaries where necessary.
+	 *
+	 * @param position    Offset of first byte in file.
+	 * @param destination Array bytes are copied into.
+	 * @param offset      Offset in destination of first byte.
+	 * @param length      Maximum number of bytes to copy.
+	 * @return Number of bytes copied, less than length only at end of file.
+	 */
+	public int read(long position, byte[] destination, int offset, int length) {
+		// O(n) where n = length.
+		int copied = 0;
+		length = (int) Math.min(length, Math.max(0, size - position));
+		while (copied < length) {
+			ByteBuffer segment = segments[(int) (position >>> SEGMENT_BITS)];
+			int start = (int) (position & SEGMENT_MASK);
+			int count = Math.min(length - copied, segment.limit() - start);
+			segment.get(start, destination, offset + copied, count);
+			copied += count;
+			position += count;
+		}
+		return copied;
+	}
+}
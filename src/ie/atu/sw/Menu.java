@@ -1,5 +1,7 @@
 package ie.atu.sw;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Scanner;
@@ -22,6 +24,7 @@ public class Menu {
 	private static String userOutputPath = "";
 	private static List<String> paths = new ArrayList<>();
 	private static boolean keepRunning = true;
+	private static volatile boolean headless = false;
 	private static boolean printSortedWords = false;
 	private static boolean printRevSortedWords = false;
 	private static boolean printTotalUniqueWords = false;
@@ -173,6 +176,53 @@ public class Menu {
 		Menu.paths = paths;
 	}
 
+	/**
+	 * Checks if the program is running without a user, eg. from BatchRunner.
+	 * 
+	 * @return True if menus must not be shown.
+	 */
+	public static boolean isHeadless() {
+		// O(1) Return boolean from memory.
+		return headless;
+	}
+
+	/**
+	 * Sets whether the program is running without a user. When headless,
+	 * recover() throws rather than showing the menu.
+	 * 
+	 * @param headless False by default, true for batch runs.
+	 */
+	public static void setHeadless(boolean headless) {
+		// O(1) Update boolean value.
+		Menu.headless = headless;
+	}
+
+	/**
+	 * Gets what recover() will do, to end an error message with.
+	 * 
+	 * @return "Returning to Menu.", or "Failing job." if headless.
+	 */
+	public static String getRecoveryNote() {
+		// O(1) return String constant.
+		return headless ? "Failing job." : "Returning to Menu.";
+	}
+
+	/**
+	 * Returns to the menu after an error has been reported, so the user can
+	 * correct a path. When headless there is no user, so the error is thrown
+	 * instead to fail the job that caused it.
+	 * 
+	 * @param e Error that was reported.
+	 * @throws UncheckedIOException If headless, wrapping e.
+	 */
+	public static void recover(IOException e) {
+		// O(1) when headless, otherwise see showMenu().
+		if (headless) {
+			throw new UncheckedIOException(e);
+		}
+		showMenu();
+	}
+
 	/**
 	 * Displays menu and prompts user to input paths for file to be indexed,
 	 * dictionary file, common words file and output file.
@@ -0,0 +1,97 @@
+package ie.atu.sw;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Off Heap Definition Map - Map of words to definitions whose definitions live
+ * in an OffHeapDefinitionStore. Only the words and an int handle per word are
+ * kept on the heap. Definitions are decoded on each get(), so callers such as
+ * MapBuilder only pay for the words they look up. Safe for concurrent puts
+ * from the dictionary parsing threads.
+ *
+ * See OffHeapDefinitionStore, DictionaryParser.
+ *
+ * @author Ben Murray
+ * @version 1.0
+ * @since JDK 21
+ *
+ */
+public class OffHeapDefinitionMap extends AbstractMap<String, String> {
+
+	private OffHeapDefinitionStore store;
+	private ConcurrentHashMap<String, Integer> handles = new ConcurrentHashMap<String, Integer>();
+
+	/**
+	 * Constructor for OffHeapDefinitionMap.
+	 *
+	 * @param store Store definitions are written to.
+	 */
+	public OffHeapDefinitionMap(OffHeapDefinitionStore store) {
+		// O(1) set value of store.
+		this.store = store;
+	}
+
+	@Override
+	public String put(String word, String definition) {
+		// O(n) copies n bytes of definition off heap. Replaced definitions are
+		// not reclaimed until the store is closed.
+		Integer previous = handles.put(word, store.add(definition));
+		return previous == null ? null : store.get(previous);
+	}
+
+	@Override
+	public String get(Object word) {
+		// O(n) decodes n bytes of definition.
+		Integer handle = handles.get(word);
+		return handle == null ? null : store.get(handle);
+	}
+
+	@Override
+	public boolean containsKey(Object word) {
+		// O(1) ConcurrentHashMap lookup, nothing decoded.
+		return handles.containsKey(word);
+	}
+
+	@Override
+	public int size() {
+		// O(1) size of handle map.
+		return handles.size();
+	}
+
+	@Override
+	public Set<String> keySet() {
+		// O(1) view of handle map keys.
+		return handles.keySet();
+	}
+
+	@Override
+	public Set<Map.Entry<String, String>> entrySet() {
+		// O(1) view, each definition decoded as its entry is reached.
+		return new AbstractSet<Map.Entry<String, String>>() {
+			@Override
+			public Iterator<Map.Entry<String, String>> iterator() {
+				Iterator<Map.Entry<String, Integer>> entries = handles.entrySet().iterator();
+				return new Iterator<Map.Entry<String, String>>() {
+					public boolean hasNext() {
+						return entries.hasNext();
+					}
+
+					public Map.Entry<String, String> next() {
+						Map.Entry<String, Integer> entry = entries.next();
+						return new SimpleImmutableEntry<String, String>(entry.getKey(), store.get(entry.getValue()));
+					}
+				};
+			}
+
+			@Override
+			public int size() {
+				return handles.size();
+			}
+		};
+	}
+}
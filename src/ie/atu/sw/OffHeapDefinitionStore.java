@@ -0,0 +1,117 @@
+package ie.atu.sw;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Off Heap Definition Store - Holds definitions as UTF-8 bytes in 64 MB
+ * segments of native memory, allocated from a shared Arena with the Foreign
+ * Function &amp; Memory API, so the garbage collector never has to scan or
+ * copy them. Each definition is identified by an int handle (segment number
+ * and 4 byte aligned offset) and is only decoded back into a String when it is
+ * asked for. Closing the store frees every segment at once.
+ *
+ * The FFM API is a preview API in JDK 21 (final from JDK 22), so on JDK 21
+ * this class is compiled and run with --enable-preview. Nothing else loads it
+ * unless off-heap definitions are switched on.
+ *
+ * See OffHeapDefinitionMap, DictionaryParser.setOffHeapDefinitions().
+ *
+ * @author Ben Murray
+ * @version 1.0
+ * @since JDK 21
+ *
+ */
+public class OffHeapDefinitionStore implements AutoCloseable {
+
+	private static final int OFFSET_BITS = 24;
+	private static final long SEGMENT_SIZE = 4L << OFFSET_BITS;
+	private static final int MAX_SEGMENTS = 1 << (31 - OFFSET_BITS);
+
+	private Arena arena = Arena.ofShared();
+	private List<MemorySegment> segments = new ArrayList<MemorySegment>();
+	private MemorySegment current;
+	private long used;
+	private long bytesStored;
+
+	/**
+	 * Copies a definition into native memory.
+	 *
+	 * @param definition Definition to store.
+	 * @return Handle of the stored definition.
+	 */
+	public int add(String definition) {
+		// O(n) where n = length of definition, encoded outside the lock.
+		byte[] bytes = definition.getBytes(StandardCharsets.UTF_8);
+		long size = (4 + bytes.length + 3) & ~3L;
+		synchronized (this) {
+			if (current == null || used + size > current.byteSize()) {
+				if (segments.size() == MAX_SEGMENTS) {
+					throw new IllegalStateException("Definition store is full");
+				}
+				current = arena.allocate(Math.max(SEGMENT_SIZE, size), 8);
+				segments.add(current);
+				used = 0;
+			}
+			long offset = used;
+			current.set(ValueLayout.JAVA_INT_UNALIGNED, offset, bytes.length);
+			MemorySegment.copy(bytes, 0, current, ValueLayout.JAVA_BYTE, offset + 4, bytes.length);
+			used += size;
+			bytesStored += size;
+			return (segments.size() - 1) << OFFSET_BITS | (int) (offset >>> 2);
+		}
+	}
+
+	/**
+	 * Decodes a stored definition.
+	 *
+	 * @param handle Handle returned by add().
+	 * @return Definition.
+	 */
+	public String get(int handle) {
+		// O(n) where n = length of definition.
+		MemorySegment segment;
+		synchronized (this) {
+			segment = segments.get(handle >>> OFFSET_BITS);
+		}
+		long offset = (long) (handle & ((1 << OFFSET_BITS) - 1)) << 2;
+		int length = segment.get(ValueLayout.JAVA_INT_UNALIGNED, offset);
+		byte[] bytes = new byte[length];
+		MemorySegment.copy(segment, ValueLayout.JAVA_BYTE, offset + 4, bytes, 0, length);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Gets bytes of native memory taken by stored definitions, including length
+	 * prefixes and alignment.
+	 *
+	 * @return Bytes used.
+	 */
+	public synchronized long getBytesStored() {
+		// O(1) return long from memory.
+		return bytesStored;
+	}
+
+	/**
+	 * Gets bytes of native memory allocated, whole segments.
+	 *
+	 * @return Bytes allocated.
+	 */
+	public synchronized long getBytesAllocated() {
+		// O(s) sums s segments.
+		return segments.stream().mapToLong(MemorySegment::byteSize).sum();
+	}
+
+	/**
+	 * Frees all native memory. Handles must not be used afterwards.
+	 */
+	@Override
+	public void close() {
+		// O(s) frees s segments.
+		arena.close();
+	}
+}
@@ -1,13 +1,22 @@
 package ie.atu.sw;
 
 import java.io.FileNotFoundException;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Flow;
 
 /**
  * Outputter - Methods for outputting complete indexes to file or console. Extra
@@ -57,22 +66,142 @@ public class Outputter {
 	public void saveToFile(Map<String, IndexEntry> finalMap, String file) {
 		// O(n) where n is number of words in final output map.
 		try (PrintWriter pw = new PrintWriter(file)) {
-			finalMap.keySet().forEach(word -> {
-				String wordTitleCase = word.substring(0, 1).toUpperCase() + word.substring(1);
-				pw.println(wordTitleCase);
-				pw.println();
-				pw.println("Definition: ");
-				pw.println(finalMap.get(word).getDefinition());
-				pw.println("Pages : " + finalMap.get(word).getPages().toString());
-				pw.println();
-			});
+			finalMap.keySet().forEach(word -> writeEntry(pw, word, finalMap.get(word)));
 		} catch (FileNotFoundException e) {
 			System.out.println("[ERROR] File Not Found. Please input a valid output file path.");
-			Menu.showMenu();
+			Menu.recover(e);
 		}
 		;
 	}
 
+	/**
+	 * Save an index to file as it is published, in sorted order. Entries are
+	 * written while later ones are still being built, and only a batch of
+	 * entries is held at a time.
+	 * 
+	 * @param publisher Publisher of index entries, see Indexer.publishIndex().
+	 * @param file      Path to file index will be written to.
+	 * @return Number of entries written.
+	 */
+	public long saveToFile(Flow.Publisher<Map.Entry<String, IndexEntry>> publisher, String file) {
+		// O(n) where n is number of entries published.
+		try {
+			IndexFileSubscriber subscriber = new IndexFileSubscriber(file);
+			publisher.subscribe(subscriber);
+			return subscriber.getCompletion().join();
+		} catch (FileNotFoundException e) {
+			System.out.println("[ERROR] File Not Found. Please input a valid output file path.");
+			Menu.recover(e);
+			return 0;
+		} catch (CompletionException e) {
+			System.out.println("[ERROR] Could not save index to " + file + ": " + e.getCause() + ". "
+					+ Menu.getRecoveryNote());
+			Menu.recover(e.getCause() instanceof IOException io ? io : new IOException(e.getCause()));
+			return 0;
+		}
+	}
+
+	/**
+	 * Write a single index entry in the text index format.
+	 * 
+	 * @param pw    Destination.
+	 * @param word  Indexed word.
+	 * @param entry Definition and pages of word.
+	 */
+	static void writeEntry(PrintWriter pw, String word, IndexEntry entry) {
+		// O(p) where p is number of pages in entry.
+		String wordTitleCase = word.substring(0, 1).toUpperCase() + word.substring(1);
+		pw.println(wordTitleCase);
+		pw.println();
+		pw.println("Definition: ");
+		pw.println(entry.getDefinition());
+		pw.println("Pages : " + entry.getPages().toString());
+		pw.println();
+	}
+
+	/**
+	 * Save finished Index to file in sorted order, grouped into sections by
+	 * initial letter, each starting with a "== A ==" line. A sidecar file, named
+	 * as the index with ".offsets" appended, records the byte offset of each
+	 * section and of every interval-th word, so SortedIndexLookup can seek
+	 * straight to a word. IndexFileReader reads the index like any other.
+	 * 
+	 * @param finalMap Finished index of words, their definitions and list of pages
+	 *                 they are found on.
+	 * @param file     Path to file index will be written to.
+	 * @param interval Number of words between offsets recorded in the sidecar.
+	 */
+	public void saveSorted(Map<String, IndexEntry> finalMap, String file, int interval) {
+		// O(n log n) sorts n words in final output map.
+		List<String> words = new ArrayList<String>(finalMap.keySet());
+		words.sort(Comparator.naturalOrder());
+		try (CountingOutputStream out = new CountingOutputStream(Files.newOutputStream(Path.of(file)));
+				PrintWriter pw = new PrintWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+				PrintWriter offsets = new PrintWriter(file + SortedIndexLookup.SIDECAR_SUFFIX,
+						StandardCharsets.UTF_8)) {
+			offsets.println(SortedIndexLookup.SIDECAR_HEADER + interval);
+			char section = 0;
+			for (int i = 0; i < words.size(); i++) {
+				String word = words.get(i);
+				char initial = word.isEmpty() ? ' ' : word.charAt(0);
+				if (initial != section || i % interval == 0) {
+					pw.flush();
+					if (initial != section) {
+						offsets.println("section " + initial + " " + out.getCount());
+						pw.println("== " + Character.toUpperCase(initial) + " ==");
+						pw.println();
+						pw.flush();
+						section = initial;
+					}
+					offsets.println("term " + word + " " + out.getCount());
+				}
+				writeEntry(pw, word, finalMap.get(word));
+			}
+		} catch (IOException e) {
+			System.out.println("[ERROR] IO Exception. Could not save sorted index to " + file
+					+ ". " + Menu.getRecoveryNote());
+			Menu.recover(e);
+		}
+	}
+
+	/**
+	 * Save finished Index to file in compressed binary form, see
+	 * CompressedIndexFile. Much smaller and faster to load than the text form for
+	 * words found on many pages.
+	 *
+	 * @param finalMap Finished index of words, their definitions and list of pages
+	 *                 they are found on.
+	 * @param file     Path to file index will be written to.
+	 */
+	public void saveCompressed(Map<String, IndexEntry> finalMap, String file) {
+		// O(n log n) where n is number of words in final output map.
+		try {
+			CompressedIndexFile.write(finalMap, Path.of(file));
+		} catch (IOException e) {
+			System.out.println("[ERROR] IO Exception. Could not save compressed index to " + file
+					+ ". " + Menu.getRecoveryNote());
+			Menu.recover(e);
+		}
+	}
+
+	/**
+	 * Save suggested dictionary entries for words missing from the dictionary,
+	 * one word per line, eg. "recieve : receive, relieve".
+	 * 
+	 * @param suggestions Mapping of missing words to suggested entries.
+	 * @param file        Path to file suggestions will be written to.
+	 */
+	public void saveSuggestions(Map<String, List<String>> suggestions, String file) {
+		// O(n) where n is number of missing words.
+		try (PrintWriter pw = new PrintWriter(file)) {
+			suggestions.forEach((word, matches) -> pw.println(word + " : " + String.join(", ", matches)));
+		} catch (FileNotFoundException e) {
+			System.out.println("[ERROR] File Not Found. Could not save suggestions to " + file
+					+ ". " + Menu.getRecoveryNote());
+			Menu.recover(e);
+		}
+	}
+
 	/**
 	 * Print finished index to console. Not used in normal operation, but available
 	 * for use if required for extended functionality.
@@ -157,10 +286,27 @@ public class Outputter {
 	 *                 they are found on.
 	 */
 	public void printUniqueWords(Map<String, IndexEntry> finalMap) {
-		// O(n) where n is number of words in final output map.
+		// O(1) size() of map, no copy of keys needed.
+		System.out.println();
+		System.out.println("Total number of unique words = " + finalMap.size());
+	}
+
+	/**
+	 * Print estimated number of distinct words in the user file to console, from
+	 * HyperLogLog sketches built while parsing, before and after filtering.
+	 * 
+	 * @param raw      Sketch of all words in the user file.
+	 * @param eligible Sketch of words that pass the Filter, may be null.
+	 */
+	public void printEstimatedUniqueWords(HyperLogLog raw, HyperLogLog eligible) {
+		// O(m) where m = number of sketch registers.
 		System.out.println();
-		List<String> UniqueWords = new ArrayList<String>(finalMap.keySet());
-		System.out.println("Total number of unique words = " + UniqueWords.size());
+		System.out.printf("Estimated unique words in text = %d (+/- %.1f%%)%n", raw.estimate(),
+				raw.getRelativeError() * 100);
+		if (eligible != null) {
+			System.out.printf("Estimated unique words after filtering = %d (+/- %.1f%%)%n", eligible.estimate(),
+					eligible.getRelativeError() * 100);
+		}
 	}
 
 	/**
@@ -195,4 +341,33 @@ public class Outputter {
 			n--;
 		}
 	}
+
+	private static class CountingOutputStream extends FilterOutputStream {
+
+		private long count;
+
+		private CountingOutputStream(OutputStream out) {
+			// O(1) wraps out.
+			super(out);
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			// O(1) writes and counts a byte.
+			out.write(b);
+			count++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			// O(n) writes and counts n bytes.
+			out.write(b, off, len);
+			count += len;
+		}
+
+		private long getCount() {
+			// O(1) return long from memory.
+			return count;
+		}
+	}
 }
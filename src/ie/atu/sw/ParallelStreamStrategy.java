@@ -0,0 +1,65 @@
+package ie.atu.sw;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Parallel Stream Strategy - Runs work items as a parallel stream inside a
+ * dedicated ForkJoinPool, so the parallelism can be chosen independently of
+ * the common pool.
+ * 
+ * See ExecutionStrategy.
+ * 
+ * @author Ben Murray
+ * @version 1.0
+ * @since JDK 19
+ *
+ */
+public class ParallelStreamStrategy implements ExecutionStrategy {
+
+	private int parallelism;
+
+	/**
+	 * Constructor for ParallelStreamStrategy.
+	 * 
+	 * @param parallelism Target parallelism of the ForkJoinPool.
+	 */
+	public ParallelStreamStrategy(int parallelism) {
+		// O(1) set value of parallelism.
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("Parallelism must be at least 1: " + parallelism);
+		}
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Gets target parallelism of the ForkJoinPool.
+	 * 
+	 * @return Target parallelism.
+	 */
+	public int getParallelism() {
+		// O(1) return int from memory.
+		return parallelism;
+	}
+
+	/**
+	 * Runs task for each item as a parallel stream, waits for all to finish.
+	 */
+	@Override
+	public <T> void execute(Stream<T> items, Consumer<T> task) {
+		// O(n) each item is processed once, split across the pool.
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try {
+			pool.submit(() -> items.parallel().forEach(task)).join();
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Override
+	public String getName() {
+		// O(1) build short String.
+		return "ParallelStreamStrategy[parallelism=" + parallelism + "]";
+	}
+}
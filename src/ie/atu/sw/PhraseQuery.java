@@ -0,0 +1,147 @@
+package ie.atu.sw;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Phrase Query - Finds phrases and words near each other using the positions
+ * recorded in a PositionIndex. Position lists are intersected with cursors
+ * that skip forward, starting from the rarest word, so common words like "the"
+ * are never decoded in full.
+ *
+ * See PositionIndex, PositionList.
+ *
+ * @author Ben Murray
+ * @version 1.0
+ * @since JDK 19
+ *
+ */
+public class PhraseQuery {
+
+	private PositionIndex index;
+
+	/**
+	 * Constructor for PhraseQuery.
+	 *
+	 * @param index Positions recorded while parsing the text.
+	 */
+	public PhraseQuery(PositionIndex index) {
+		// O(1) set value of index.
+		this.index = index;
+	}
+
+	/**
+	 * Finds every occurrence of a phrase.
+	 *
+	 * @param words Normalised words of the phrase, in order.
+	 * @return Positions of the first word of each occurrence, ascending.
+	 */
+	public List<Long> findPhrase(String... words) {
+		// O(k * r * log b) - for r occurrences of the rarest word, each of k
+		// cursors seeks with a skip table search over b blocks.
+		List<Long> matches = new ArrayList<Long>();
+		if (words.length == 0) {
+			return matches;
+		}
+		PositionList.Cursor[] cursors = new PositionList.Cursor[words.length];
+		Integer[] order = new Integer[words.length];
+		for (int i = 0; i < words.length; i++) {
+			PositionList list = index.getPositionList(words[i]);
+			if (list == null) {
+				return matches;
+			}
+			cursors[i] = list.cursor();
+			order[i] = i;
+		}
+		Arrays.sort(order, (a, b) -> Integer.compare(index.getPositionList(words[a]).size(),
+				index.getPositionList(words[b]).size()));
+
+		long start = 0;
+		search: while (true) {
+			for (int i : order) {
+				long found = cursors[i].advance(start + i);
+				if (found == -1) {
+					break search;
+				} else if (found != start + i) {
+					start = found - i;
+					continue search;
+				}
+			}
+			matches.add(start);
+			start++;
+		}
+		return matches;
+	}
+
+	/**
+	 * Finds occurrences of one word within a number of words of another, in
+	 * either direction.
+	 *
+	 * @param word   Normalised word whose occurrences are returned.
+	 * @param near   Normalised word that must occur close by.
+	 * @param within Maximum distance in words.
+	 * @return Positions of word that have near within range, ascending.
+	 */
+	public List<Long> findNear(String word, String near, int within) {
+		// O(n * log b) for n occurrences of word.
+		List<Long> matches = new ArrayList<Long>();
+		PositionList words = index.getPositionList(word);
+		PositionList nearWords = index.getPositionList(near);
+		if (words == null || nearWords == null) {
+			return matches;
+		}
+		if (word.equals(near)) {
+			return findRepeated(words, within);
+		}
+		PositionList.Cursor wordCursor = words.cursor();
+		PositionList.Cursor nearCursor = nearWords.cursor();
+		while (wordCursor.hasNext()) {
+			long position = wordCursor.next();
+			long found = nearCursor.advance(Math.max(0, position - within));
+			if (found == -1) {
+				break;
+			} else if (found <= position + within) {
+				matches.add(position);
+			}
+		}
+		return matches;
+	}
+
+	private static List<Long> findRepeated(PositionList words, int within) {
+		// O(n) for n occurrences - an occurrence is near another of the same word
+		// only if its previous or next occurrence is within range.
+		List<Long> matches = new ArrayList<Long>();
+		PositionList.Cursor cursor = words.cursor();
+		long previous = -1;
+		boolean previousClose = false;
+		while (cursor.hasNext()) {
+			long position = cursor.next();
+			boolean close = previous != -1 && position - previous <= within;
+			if (previous != -1 && (previousClose || close)) {
+				matches.add(previous);
+			}
+			previous = position;
+			previousClose = close;
+		}
+		if (previousClose) {
+			matches.add(previous);
+		}
+		return matches;
+	}
+
+	/**
+	 * Gets the pages on which a set of positions fall, eg. "which pages contain
+	 * the phrase".
+	 *
+	 * @param positions Word positions.
+	 * @return Sorted set of page numbers.
+	 */
+	public TreeSet<Integer> pagesOf(List<Long> positions) {
+		// O(n log l) for n positions and l lines.
+		TreeSet<Integer> pages = new TreeSet<Integer>();
+		positions.forEach(position -> pages.add(index.pageOf(position)));
+		return pages;
+	}
+}
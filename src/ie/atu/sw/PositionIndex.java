@@ -0,0 +1,137 @@
+package ie.atu.sw;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Position Index - Records the position of every occurrence of every word, as
+ * an ordinal counting words from the start of the text, along with the ordinal
+ * of the first word on each line. Together with a LineOffsetTable this locates
+ * any occurrence in the source file without rescanning it. Positions are held
+ * delta encoded in a PositionList per word.
+ *
+ * See UserInputParser, Concordance, PhraseQuery.
+ *
+ * @author Ben Murray
+ * @version 1.0
+ * @since JDK 19
+ *
+ */
+public class PositionIndex {
+
+	private static final long[] NONE = new long[0];
+
+	private Map<String, PositionList> postings = new HashMap<String, PositionList>();
+	private PositionList lineStarts = new PositionList();
+	private long wordCount;
+
+	/**
+	 * Marks the start of the next line. Must be called for every line, in order,
+	 * before the words on it are added.
+	 */
+	public void startLine() {
+		// O(1) amortised append to position list.
+		lineStarts.add(wordCount);
+	}
+
+	/**
+	 * Releases unused capacity once parsing is complete.
+	 */
+	public void trim() {
+		// O(n) where n = total encoded bytes.
+		lineStarts.trim();
+		postings.values().forEach(PositionList::trim);
+	}
+
+	/**
+	 * Records an occurrence of a word at the next position.
+	 *
+	 * @param word Normalised word.
+	 */
+	public void add(String word) {
+		// O(1) amortised HashMap lookup and array append.
+		postings.computeIfAbsent(word, w -> new PositionList()).add(wordCount++);
+	}
+
+	/**
+	 * Gets positions of every occurrence of a word, in ascending order.
+	 *
+	 * @param word Normalised word.
+	 * @return Array of word positions, empty if word does not occur.
+	 */
+	public long[] getPositions(String word) {
+		// O(n) decodes n positions.
+		PositionList list = postings.get(word);
+		return list == null ? NONE : list.toArray();
+	}
+
+	/**
+	 * Gets the encoded position list of a word, for cursor based queries.
+	 *
+	 * @param word Normalised word.
+	 * @return Position list, or null if word does not occur.
+	 */
+	public PositionList getPositionList(String word) {
+		// O(1) HashMap lookup.
+		return postings.get(word);
+	}
+
+	/**
+	 * Gets the page on which the word at a position occurs, numbered as
+	 * UserInputParser numbers pages.
+	 *
+	 * @param position Word position.
+	 * @return Page number, starting from 1.
+	 */
+	public int pageOf(long position) {
+		// O(log n) - see lineOf().
+		return 1 + (lineOf(position) + 1) / UserInputParser.LINES_PER_PAGE;
+	}
+
+	/**
+	 * Gets approximate memory used by the encoded position lists and line table,
+	 * excluding the words themselves.
+	 *
+	 * @return Size in bytes.
+	 */
+	public long getEncodedBytes() {
+		// O(n) where n = number of distinct words.
+		long total = lineStarts.getEncodedBytes();
+		for (PositionList list : postings.values()) {
+			total += list.getEncodedBytes();
+		}
+		return total;
+	}
+
+	/**
+	 * Gets the zero based line on which the word at a position occurs.
+	 *
+	 * @param position Word position.
+	 * @return Zero based line index.
+	 */
+	public int lineOf(long position) {
+		// O(log b + 64) - the last line whose first word is at or before position.
+		return Math.max(0, lineStarts.countAtMost(position) - 1);
+	}
+
+	/**
+	 * Gets position of the first word on a line.
+	 *
+	 * @param line Zero based line index.
+	 * @return Position of first word on line.
+	 */
+	public long getFirstWord(int line) {
+		// O(64) - see PositionList.get().
+		return lineStarts.get(line);
+	}
+
+	/**
+	 * Gets total number of words recorded.
+	 *
+	 * @return Number of words.
+	 */
+	public long getWordCount() {
+		// O(1) return long from memory.
+		return wordCount;
+	}
+}
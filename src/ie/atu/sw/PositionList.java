@@ -0,0 +1,230 @@
+package ie.atu.sw;
+
+import java.util.Arrays;
+
+/**
+ * Position List - Compact, append only list of ascending word positions. Each
+ * position is stored as a variable length (7 bits per byte) delta from the one
+ * before, so frequent words cost about a byte per occurrence. A skip entry is
+ * kept every 64 positions, letting a Cursor jump over whole blocks when
+ * seeking forward.
+ *
+ * See PositionIndex, PhraseQuery.
+ *
+ * @author Ben Murray
+ * @version 1.0
+ * @since JDK 19
+ *
+ */
+public class PositionList {
+
+	private static final int BLOCK_SIZE = 64;
+
+	private byte[] bytes = new byte[4];
+	private int length;
+	private int count;
+	private long last;
+	private int[] skipOffsets = new int[1];
+	private long[] skipBases = new long[1];
+
+	/**
+	 * Appends a position. Positions must be added in ascending order.
+	 *
+	 * @param position Word position, not less than the last one added.
+	 */
+	public void add(long position) {
+		// O(1) amortised, arrays double when full.
+		if (count % BLOCK_SIZE == 0) {
+			int block = count / BLOCK_SIZE;
+			if (block == skipOffsets.length) {
+				skipOffsets = Arrays.copyOf(skipOffsets, block * 2);
+				skipBases = Arrays.copyOf(skipBases, block * 2);
+			}
+			skipOffsets[block] = length;
+			skipBases[block] = last;
+		}
+		long delta = position - last;
+		while ((delta & ~0x7FL) != 0) {
+			append((byte) ((delta & 0x7F) | 0x80));
+			delta >>>= 7;
+		}
+		append((byte) delta);
+		last = position;
+		count++;
+	}
+
+	/**
+	 * Gets number of positions in the list.
+	 *
+	 * @return Number of positions.
+	 */
+	public int size() {
+		// O(1) return int from memory.
+		return count;
+	}
+
+	/**
+	 * Gets approximate memory used by the encoded positions and skip table.
+	 *
+	 * @return Size in bytes.
+	 */
+	public long getEncodedBytes() {
+		// O(1) calculation.
+		return bytes.length + skipOffsets.length * 4L + skipBases.length * 8L;
+	}
+
+	/**
+	 * Gets the position at an index, decoding from the start of its block.
+	 *
+	 * @param i Index of position, 0 to size() - 1.
+	 * @return Position at index.
+	 */
+	public long get(int i) {
+		// O(64) at most one block is decoded.
+		Cursor cursor = cursor();
+		cursor.seekBlock(i / BLOCK_SIZE);
+		long position = -1;
+		for (int j = i % BLOCK_SIZE; j >= 0; j--) {
+			position = cursor.next();
+		}
+		return position;
+	}
+
+	/**
+	 * Counts positions less than or equal to a value.
+	 *
+	 * @param value Value to compare positions with.
+	 * @return Number of positions not greater than value.
+	 */
+	public int countAtMost(long value) {
+		// O(log b + 64) - see Cursor.advance().
+		Cursor cursor = cursor();
+		return cursor.advance(value + 1) == -1 ? count : cursor.index - 1;
+	}
+
+	/**
+	 * Releases unused capacity once no more positions will be added.
+	 */
+	public void trim() {
+		// O(n) copies n bytes.
+		int blocks = (count + BLOCK_SIZE - 1) / BLOCK_SIZE;
+		bytes = Arrays.copyOf(bytes, length);
+		skipOffsets = Arrays.copyOf(skipOffsets, Math.max(1, blocks));
+		skipBases = Arrays.copyOf(skipBases, Math.max(1, blocks));
+	}
+
+	/**
+	 * Decodes every position into an array.
+	 *
+	 * @return Array of positions in ascending order.
+	 */
+	public long[] toArray() {
+		// O(n) decodes n positions.
+		long[] positions = new long[count];
+		Cursor cursor = cursor();
+		for (int i = 0; i < count; i++) {
+			positions[i] = cursor.next();
+		}
+		return positions;
+	}
+
+	/**
+	 * Gets a new cursor positioned before the first position.
+	 *
+	 * @return Cursor over this list.
+	 */
+	public Cursor cursor() {
+		// O(1) create cursor.
+		return new Cursor();
+	}
+
+	private void append(byte b) {
+		// O(1) amortised, array doubles when full.
+		if (length == bytes.length) {
+			bytes = Arrays.copyOf(bytes, Math.max(8, length * 2));
+		}
+		bytes[length++] = b;
+	}
+
+	/**
+	 * Cursor - Forward only reader over a PositionList.
+	 */
+	public class Cursor {
+		private int index;
+		private int offset;
+		private long value;
+
+		/**
+		 * Checks if any positions remain.
+		 *
+		 * @return True if next() will return a position.
+		 */
+		public boolean hasNext() {
+			// O(1) comparison.
+			return index < count;
+		}
+
+		/**
+		 * Reads the next position.
+		 *
+		 * @return Next position, or -1 if none remain.
+		 */
+		public long next() {
+			// O(1) decodes one varint of at most 10 bytes.
+			if (index >= count) {
+				return -1;
+			}
+			long delta = 0;
+			int shift = 0;
+			byte b;
+			do {
+				b = bytes[offset++];
+				delta |= (long) (b & 0x7F) << shift;
+				shift += 7;
+			} while (b < 0);
+			index++;
+			value += delta;
+			return value;
+		}
+
+		/**
+		 * Moves forward to the first position not less than target, skipping whole
+		 * blocks where possible. Never moves backwards.
+		 *
+		 * @param target Position to seek to.
+		 * @return First position at or after target, or -1 if none remain.
+		 */
+		public long advance(long target) {
+			// O(log b + 64) - binary search of b skip entries, then at most one block.
+			if (index > 0 && value >= target) {
+				return value;
+			}
+			int blocks = (count + BLOCK_SIZE - 1) / BLOCK_SIZE;
+			int low = index / BLOCK_SIZE;
+			int high = blocks - 1;
+			while (low < high) {
+				int mid = (low + high + 1) >>> 1;
+				if (skipBases[mid] < target) {
+					low = mid;
+				} else {
+					high = mid - 1;
+				}
+			}
+			if (low * BLOCK_SIZE > index) {
+				seekBlock(low);
+			}
+			long position;
+			do {
+				position = next();
+			} while (position != -1 && position < target);
+			return position;
+		}
+
+		private void seekBlock(int block) {
+			// O(1) jump to the skip entry at the start of a block.
+			index = block * BLOCK_SIZE;
+			offset = skipOffsets[block];
+			value = skipBases[block];
+		}
+	}
+}
@@ -0,0 +1,222 @@
+package ie.atu.sw;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Supplier;
+
+/**
+ * Postings Benchmark - Measures how word to page postings scale as writer
+ * threads are added. The words of a text are tokenized once, then split
+ * between threads which add every (word, page) pair to:
+ *
+ * a HashMap of TreeSets behind one lock, as UserInputParser.updateIndex()
+ * would need to be shared; a ConcurrentHashMap of synchronized TreeSets, which
+ * serialises writers of the same hot word; and ConcurrentPostings.
+ *
+ * Throughput is the median of several runs in millions of pairs per second.
+ * Every multimap is checked against the single threaded result.
+ *
+ * See ConcurrentPostings, CorpusGenerator.
+ *
+ * @author Ben Murray
+ * @version 1.0
+ * @since JDK 19
+ *
+ */
+public class PostingsBenchmark {
+
+	private static final int WARMUP_RUNS = 2;
+	private static final int MEASURED_RUNS = 5;
+
+	private String[] words;
+	private int[] pages;
+
+	/**
+	 * Postings Sink - A multimap under test.
+	 */
+	private interface PostingsSink {
+
+		public abstract void add(String word, int page);
+
+		public abstract Map<String, SortedSet<Integer>> result();
+	}
+
+	/**
+	 * Constructor for PostingsBenchmark, tokenizes the text to be indexed.
+	 *
+	 * @param text Text file, paged as UserInputParser pages it.
+	 * @throws IOException If the file cannot be read.
+	 */
+	public PostingsBenchmark(Path text) throws IOException {
+		// O(n) where n = number of words in text.
+		List<String> tokenWords = new ArrayList<String>();
+		List<Integer> tokenPages = new ArrayList<Integer>();
+		Tokenizer tokenizer = Tokenizer.getDefault();
+		int line = 0;
+		for (String lineText : Files.readAllLines(text)) {
+			int page = 1 + ++line / UserInputParser.LINES_PER_PAGE;
+			tokenizer.tokenize(lineText, word -> {
+				tokenWords.add(word);
+				tokenPages.add(page);
+			});
+		}
+		this.words = tokenWords.toArray(new String[0]);
+		this.pages = tokenPages.stream().mapToInt(Integer::intValue).toArray();
+	}
+
+	/**
+	 * Adds every pair to a fresh multimap from threads writers, and records the
+	 * median throughput.
+	 *
+	 * @param name     Name of the multimap.
+	 * @param sink     Supplies a fresh multimap for each run.
+	 * @param threads  Number of writer threads.
+	 * @param expected Single threaded result to check against, or null.
+	 * @return Millions of pairs added per second.
+	 * @throws InterruptedException If interrupted while waiting for writers.
+	 */
+	private double measure(String name, Supplier<PostingsSink> sink, int threads,
+			Map<String, SortedSet<Integer>> expected) throws InterruptedException {
+		// O(n) per run where n = number of words.
+		long[] nanos = new long[MEASURED_RUNS];
+		for (int run = -WARMUP_RUNS; run < MEASURED_RUNS; run++) {
+			PostingsSink postings = sink.get();
+			CountDownLatch start = new CountDownLatch(1);
+			Thread[] writers = new Thread[threads];
+			for (int t = 0; t < threads; t++) {
+				int from = (int) ((long) words.length * t / threads);
+				int to = (int) ((long) words.length * (t + 1) / threads);
+				writers[t] = Thread.ofPlatform().start(() -> {
+					try {
+						start.await();
+					} catch (InterruptedException e) {
+						return;
+					}
+					for (int i = from; i < to; i++) {
+						postings.add(words[i], pages[i]);
+					}
+				});
+			}
+			long begin = System.nanoTime();
+			start.countDown();
+			for (Thread writer : writers) {
+				writer.join();
+			}
+			long elapsed = System.nanoTime() - begin;
+			if (run >= 0) {
+				nanos[run] = elapsed;
+			}
+			if (run == MEASURED_RUNS - 1 && expected != null && !expected.equals(postings.result())) {
+				System.out.println("[MISMATCH] " + name + " with " + threads + " threads");
+			}
+		}
+		Arrays.sort(nanos);
+		double throughput = words.length / (nanos[MEASURED_RUNS / 2] / 1e3);
+		System.out.printf("%-40s %8d %12.2f%n", name, threads, throughput);
+		return throughput;
+	}
+
+	/**
+	 * Gets the result of adding every pair from one thread.
+	 *
+	 * @return Mapping of words to pages.
+	 */
+	public Map<String, SortedSet<Integer>> expected() {
+		// O(n log p) where n = number of words.
+		PostingsSink sink = locked();
+		for (int i = 0; i < words.length; i++) {
+			sink.add(words[i], pages[i]);
+		}
+		return sink.result();
+	}
+
+	private static PostingsSink locked() {
+		// O(1) - one lock around the updateIndex() logic.
+		HashMap<String, TreeSet<Integer>> map = new HashMap<String, TreeSet<Integer>>();
+		return new PostingsSink() {
+			public synchronized void add(String word, int page) {
+				map.computeIfAbsent(word, w -> new TreeSet<Integer>()).add(page);
+			}
+
+			public synchronized Map<String, SortedSet<Integer>> result() {
+				return new HashMap<String, SortedSet<Integer>>(map);
+			}
+		};
+	}
+
+	private static PostingsSink synchronizedSets() {
+		// O(1) - lock free map, one lock per word.
+		ConcurrentHashMap<String, SortedSet<Integer>> map = new ConcurrentHashMap<String, SortedSet<Integer>>();
+		return new PostingsSink() {
+			public void add(String word, int page) {
+				map.computeIfAbsent(word, w -> Collections.synchronizedSortedSet(new TreeSet<Integer>())).add(page);
+			}
+
+			public Map<String, SortedSet<Integer>> result() {
+				HashMap<String, SortedSet<Integer>> copy = new HashMap<String, SortedSet<Integer>>();
+				map.forEach((word, pages) -> copy.put(word, new TreeSet<Integer>(pages)));
+				return copy;
+			}
+		};
+	}
+
+	private static PostingsSink concurrentPostings() {
+		// O(1) - see ConcurrentPostings.
+		ConcurrentPostings postings = new ConcurrentPostings();
+		return new PostingsSink() {
+			public void add(String word, int page) {
+				postings.add(word, page);
+			}
+
+			public Map<String, SortedSet<Integer>> result() {
+				return new HashMap<String, SortedSet<Integer>>(postings.toMap());
+			}
+		};
+	}
+
+	/**
+	 * Main - Runs the benchmark, eg. "PostingsBenchmark text.txt 16". Without a
+	 * file, a 16 MB Zipfian text is generated with CorpusGenerator.
+	 *
+	 * @param args Optional text file and maximum thread count, default twice
+	 *             the available processors.
+	 * @throws IOException          If the text cannot be read or generated.
+	 * @throws InterruptedException If interrupted while waiting for writers.
+	 */
+	public static void main(String[] args) throws IOException, InterruptedException {
+		// O(n * t) for n words and t thread counts.
+		Path text;
+		if (args.length > 0) {
+			text = Path.of(args[0]);
+		} else {
+			text = Files.createTempFile("postings", ".txt");
+			text.toFile().deleteOnExit();
+			new CorpusGenerator(42, 50000, 1.1).writeText(text, 16L << 20);
+		}
+		int maxThreads = args.length > 1 ? Integer.parseInt(args[1])
+				: 2 * Runtime.getRuntime().availableProcessors();
+
+		PostingsBenchmark benchmark = new PostingsBenchmark(text);
+		Map<String, SortedSet<Integer>> expected = benchmark.expected();
+		System.out.printf("%d words, %d distinct, %d processors%n", benchmark.words.length, expected.size(),
+				Runtime.getRuntime().availableProcessors());
+		System.out.printf("%-40s %8s %12s%n", "Postings", "Threads", "M words/s");
+		for (int threads = 1; threads <= maxThreads; threads *= 2) {
+			benchmark.measure("HashMap<TreeSet> + one lock", PostingsBenchmark::locked, threads, expected);
+			benchmark.measure("ConcurrentHashMap<synchronized TreeSet>", PostingsBenchmark::synchronizedSets,
+					threads, expected);
+			benchmark.measure("ConcurrentPostings", PostingsBenchmark::concurrentPostings, threads, expected);
+		}
+	}
+}
@@ -0,0 +1,335 @@
+package ie.atu.sw;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.TreeSet;
+
+/**
+ * Postings Codec - Compact binary encoding of ascending page lists. Pages are
+ * split into blocks of 128. Each block starts with a small header, the gap
+ * from the last page of the previous block and the span of the block, both as
+ * variable length integers (7 bits per byte). The pages of the block follow,
+ * frame of reference bit packed: each is stored as its offset from the first
+ * page of the block, using just enough bits for the span.
+ *
+ * As the header gives the last page and the packed size of a block, a
+ * PageCursor skips whole blocks without decoding them, and as every value in a
+ * block has the same width it binary searches within a block, unpacking only
+ * the values it compares.
+ *
+ * See CompressedIndexFile, IndexEntry.
+ *
+ * @author Ben Murray
+ * @version 1.0
+ * @since JDK 19
+ *
+ */
+public class PostingsCodec {
+
+	static final int BLOCK_SIZE = 128;
+
+	/**
+	 * Writes an ascending list of pages.
+	 *
+	 * @param pages Page numbers in ascending order, eg. IndexEntry.getPages().
+	 * @param out   Destination.
+	 * @throws IOException If out cannot be written.
+	 */
+	public static void encode(Collection<Integer> pages, DataOutput out) throws IOException {
+		// O(n) where n = number of pages.
+		int[] values = pages.stream().mapToInt(Integer::intValue).toArray();
+		writeVarInt(out, values.length);
+		int previous = 0;
+		for (int start = 0; start < values.length; start += BLOCK_SIZE) {
+			int count = Math.min(BLOCK_SIZE, values.length - start);
+			int first = values[start];
+			int span = values[start + count - 1] - first;
+			int width = widthOf(span);
+			writeVarInt(out, first - previous);
+			writeVarInt(out, span);
+			byte[] packed = new byte[packedLength(count, width)];
+			for (int i = 0; i < count; i++) {
+				pack(packed, i * width, width, values[start + i] - first);
+			}
+			out.write(packed);
+			previous = first + span;
+		}
+	}
+
+	/**
+	 * Reads a list of pages written by encode().
+	 *
+	 * @param in Source, positioned at the start of the list. Left positioned
+	 *           after it.
+	 * @return Sorted set of page numbers.
+	 */
+	public static TreeSet<Integer> decode(ByteBuffer in) {
+		// O(n) where n = number of pages.
+		TreeSet<Integer> pages = new TreeSet<Integer>();
+		PageCursor cursor = new PageCursor(in);
+		int page;
+		while ((page = cursor.next()) != -1) {
+			pages.add(page);
+		}
+		in.position(cursor.end());
+		return pages;
+	}
+
+	/**
+	 * Reads a list of pages written by encode() from a stream, eg. a socket, one
+	 * block at a time.
+	 *
+	 * @param in Source, positioned at the start of the list. Left positioned
+	 *           after it.
+	 * @return Sorted set of page numbers.
+	 * @throws IOException If in cannot be read, or ends within the list.
+	 */
+	public static TreeSet<Integer> decode(DataInput in) throws IOException {
+		// O(n) where n = number of pages.
+		TreeSet<Integer> pages = new TreeSet<Integer>();
+		int remaining = readVarInt(in);
+		int previous = 0;
+		while (remaining > 0) {
+			int count = Math.min(BLOCK_SIZE, remaining);
+			int first = previous + readVarInt(in);
+			int span = readVarInt(in);
+			int width = widthOf(span);
+			byte[] packed = new byte[packedLength(count, width)];
+			in.readFully(packed);
+			for (int i = 0; i < count; i++) {
+				pages.add(first + unpack(packed, i * width, width));
+			}
+			previous = first + span;
+			remaining -= count;
+		}
+		return pages;
+	}
+
+	/**
+	 * Moves past a list of pages written by encode() without decoding it.
+	 *
+	 * @param in Source, positioned at the start of the list. Left positioned
+	 *           after it.
+	 */
+	public static void skip(ByteBuffer in) {
+		// O(b) reads the headers of b blocks.
+		in.position(new PageCursor(in).end());
+	}
+
+	/**
+	 * Writes a non-negative int in 1 to 5 bytes, 7 bits per byte, low bits first.
+	 *
+	 * @param out   Destination.
+	 * @param value Value to write.
+	 * @throws IOException If out cannot be written.
+	 */
+	public static void writeVarInt(DataOutput out, int value) throws IOException {
+		// O(1) at most 5 bytes.
+		while ((value & ~0x7F) != 0) {
+			out.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte(value);
+	}
+
+	/**
+	 * Reads an int written by writeVarInt().
+	 *
+	 * @param in Source, advanced past the value.
+	 * @return Value read.
+	 */
+	public static int readVarInt(ByteBuffer in) {
+		// O(1) at most 5 bytes.
+		int value = 0;
+		int shift = 0;
+		byte b;
+		do {
+			b = in.get();
+			value |= (b & 0x7F) << shift;
+			shift += 7;
+		} while (b < 0);
+		return value;
+	}
+
+	/**
+	 * Reads an int written by writeVarInt() from a stream.
+	 *
+	 * @param in Source, advanced past the value.
+	 * @return Value read.
+	 * @throws IOException If in cannot be read.
+	 */
+	public static int readVarInt(DataInput in) throws IOException {
+		// O(1) at most 5 bytes.
+		int value = 0;
+		int shift = 0;
+		byte b;
+		do {
+			b = in.readByte();
+			value |= (b & 0x7F) << shift;
+			shift += 7;
+		} while (b < 0);
+		return value;
+	}
+
+	private static int widthOf(int span) {
+		// O(1) number of bits needed to hold span.
+		return 32 - Integer.numberOfLeadingZeros(span);
+	}
+
+	private static int packedLength(int count, int width) {
+		// O(1) calculation.
+		return (int) (((long) count * width + 7) / 8);
+	}
+
+	private static void pack(byte[] packed, int bit, int width, int value) {
+		// O(w) where w = width in bits.
+		for (int i = 0; i < width; i++, bit++) {
+			if ((value >>> i & 1) != 0) {
+				packed[bit >>> 3] = (byte) (packed[bit >>> 3] | 1 << (bit & 7));
+			}
+		}
+	}
+
+	private static int unpack(byte[] packed, int bit, int width) {
+		// O(w) where w = width in bits, inverse of pack().
+		int value = 0;
+		for (int i = 0; i < width; i++, bit++) {
+			value |= (packed[bit >>> 3] >>> (bit & 7) & 1) << i;
+		}
+		return value;
+	}
+
+	/**
+	 * Page Cursor - Forward only reader over one encoded page list, reading the
+	 * buffer in place.
+	 */
+	public static class PageCursor {
+		private ByteBuffer in;
+		private int remaining;
+		private int end = -1;
+		private int blockFirst;
+		private int blockLast;
+		private int blockCount;
+		private int width;
+		private int body;
+		private int index;
+
+		/**
+		 * Constructor for PageCursor. The buffer is not moved.
+		 *
+		 * @param in Buffer positioned at the start of an encoded list.
+		 */
+		public PageCursor(ByteBuffer in) {
+			// O(1) reads list length and first block header.
+			this.in = in.duplicate();
+			this.remaining = readVarInt(this.in);
+			nextBlock();
+		}
+
+		/**
+		 * Reads the next page.
+		 *
+		 * @return Next page, or -1 if none remain.
+		 */
+		public int next() {
+			// O(1) unpacks one value.
+			if (index == blockCount) {
+				if (remaining == 0) {
+					return -1;
+				}
+				nextBlock();
+			}
+			return blockFirst + unpack(index++);
+		}
+
+		/**
+		 * Moves forward to the first page not less than target, skipping blocks
+		 * whose last page is below target and binary searching the block that
+		 * holds it. Never moves backwards.
+		 *
+		 * @param target Page to seek to.
+		 * @return First page at or after target, or -1 if none remain.
+		 */
+		public int advance(int target) {
+			// O(b + log 128) - reads b block headers, unpacks log 128 values.
+			while (blockLast < target || index == blockCount) {
+				if (remaining == 0) {
+					index = blockCount;
+					return -1;
+				}
+				nextBlock();
+			}
+			int low = index;
+			int high = blockCount - 1;
+			while (low < high) {
+				int mid = (low + high) >>> 1;
+				if (blockFirst + unpack(mid) < target) {
+					low = mid + 1;
+				} else {
+					high = mid;
+				}
+			}
+			index = low + 1;
+			return blockFirst + unpack(low);
+		}
+
+		/**
+		 * Gets position in the buffer just after this list, skipping any blocks
+		 * not yet read.
+		 *
+		 * @return Buffer position after the list.
+		 */
+		public int end() {
+			// O(b) reads the headers of the b blocks not yet reached.
+			if (end == -1) {
+				ByteBuffer scan = in.duplicate();
+				int left = remaining;
+				scan.position(body + packedLength(blockCount, width));
+				while (left > 0) {
+					int count = Math.min(BLOCK_SIZE, left);
+					readVarInt(scan);
+					int skip = packedLength(count, widthOf(readVarInt(scan)));
+					scan.position(scan.position() + skip);
+					left -= count;
+				}
+				end = scan.position();
+			}
+			return end;
+		}
+
+		private void nextBlock() {
+			// O(1) reads a block header, leaving the body packed.
+			if (blockCount > 0) {
+				in.position(body + packedLength(blockCount, width));
+			}
+			blockCount = Math.min(BLOCK_SIZE, remaining);
+			remaining -= blockCount;
+			index = 0;
+			if (blockCount == 0) {
+				body = in.position();
+				return;
+			}
+			blockFirst = blockLast + readVarInt(in);
+			blockLast = blockFirst + readVarInt(in);
+			width = widthOf(blockLast - blockFirst);
+			body = in.position();
+		}
+
+		private int unpack(int i) {
+			// O(1) reads the at most 5 bytes holding value i.
+			if (width == 0) {
+				return 0;
+			}
+			int bit = i * width;
+			int bytes = ((bit & 7) + width + 7) >>> 3;
+			long word = 0;
+			for (int b = 0; b < bytes; b++) {
+				word |= (in.get(body + (bit >>> 3) + b) & 0xFFL) << (b * 8);
+			}
+			return (int) ((word >>> (bit & 7)) & ((1L << width) - 1));
+		}
+	}
+}
@@ -0,0 +1,72 @@
+package ie.atu.sw;
+
+/**
+ * Progress MXBean - Management interface of ProgressTracker, published over
+ * JMX as "ie.atu.sw:type=Progress" while an index is being built, so a long
+ * run can be watched from JConsole or any other JMX client.
+ * 
+ * See ProgressTracker, Indexer.setProgressInterval().
+ * 
+ * @author Ben Murray
+ * @version 1.0
+ * @since JDK 19
+ *
+ */
+public interface ProgressMXBean {
+
+	/**
+	 * Gets the stage of indexing currently running, eg. "dictionary".
+	 * 
+	 * @return Name of current stage.
+	 */
+	public abstract String getStage();
+
+	/**
+	 * Gets bytes of input read so far, across all stages.
+	 * 
+	 * @return Bytes read.
+	 */
+	public abstract long getBytesRead();
+
+	/**
+	 * Gets lines of input read so far, across all stages.
+	 * 
+	 * @return Lines read.
+	 */
+	public abstract long getLinesRead();
+
+	/**
+	 * Gets words tokenized so far, across all stages.
+	 * 
+	 * @return Tokens produced.
+	 */
+	public abstract long getTokens();
+
+	/**
+	 * Gets pages of the user file indexed so far.
+	 * 
+	 * @return Pages indexed.
+	 */
+	public abstract long getPages();
+
+	/**
+	 * Gets the read rate of the current stage.
+	 * 
+	 * @return Bytes per second since the stage started.
+	 */
+	public abstract double getBytesPerSecond();
+
+	/**
+	 * Gets how far through its input the current stage is.
+	 * 
+	 * @return Percent complete, or -1 if the size of the input is unknown.
+	 */
+	public abstract double getPercentComplete();
+
+	/**
+	 * Gets estimated time left in the current stage at its current rate.
+	 * 
+	 * @return Seconds left, or -1 if unknown.
+	 */
+	public abstract long getEtaSeconds();
+}
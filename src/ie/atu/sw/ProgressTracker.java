@@ -0,0 +1,226 @@
+package ie.atu.sw;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Progress Tracker - Counts bytes, lines, tokens and pages as the parsers read
+ * their input, and reports rate, percent complete and ETA of the current
+ * stage. Counters are LongAdders, so the parsing threads never lock or contend
+ * on a single variable; readers sum the stripes only when a report is made.
+ *
+ * Bytes are counted as characters plus a line terminator, exact for ASCII
+ * input. Percent complete and ETA compare them with the size of the stage's
+ * file, so are unknown (-1) for gzip compressed input.
+ *
+ * A reporter thread prints a progress line at a fixed interval, and the
+ * tracker is registered with the platform MBeanServer while it runs.
+ *
+ * See ProgressMXBean, Indexer.setProgressInterval().
+ *
+ * @author Ben Murray
+ * @version 1.0
+ * @since JDK 19
+ *
+ */
+public class ProgressTracker implements ProgressMXBean {
+
+	/**
+	 * Name the tracker is registered under with the platform MBeanServer.
+	 */
+	public static final String OBJECT_NAME = "ie.atu.sw:type=Progress";
+
+	private LongAdder bytes = new LongAdder();
+	private LongAdder lines = new LongAdder();
+	private LongAdder tokens = new LongAdder();
+	private LongAdder pages = new LongAdder();
+	private volatile String stage = "starting";
+	private volatile long stageSize = -1;
+	private volatile long stageStartBytes;
+	private volatile long stageStartNanos = System.nanoTime();
+	private Thread reporter;
+
+	/**
+	 * Starts a new stage of indexing.
+	 *
+	 * @param stage Name of the stage, eg. "dictionary".
+	 * @param file  Input file read by the stage, or null if it reads none.
+	 */
+	public void startStage(String stage, String file) {
+		// O(1) reads the size of file.
+		long size = -1;
+		if (file != null) {
+			try {
+				Path path = Path.of(file);
+				size = CompressedInput.isGzip(path) ? -1 : Files.size(path);
+			} catch (IOException | RuntimeException e) {
+				size = -1;
+			}
+		}
+		this.stageStartBytes = bytes.sum();
+		this.stageStartNanos = System.nanoTime();
+		this.stageSize = size;
+		this.stage = stage;
+	}
+
+	/**
+	 * Counts a line read, called from parsing threads.
+	 *
+	 * @param characters Characters in line, without its terminator.
+	 * @param words      Tokens found in line.
+	 */
+	public void addLine(int characters, int words) {
+		// O(1) adds to uncontended LongAdder cells.
+		bytes.add(characters + 1);
+		lines.increment();
+		tokens.add(words);
+	}
+
+	/**
+	 * Counts a page of the user file indexed, called from parsing threads.
+	 */
+	public void addPage() {
+		// O(1) adds to uncontended LongAdder cell.
+		pages.increment();
+	}
+
+	@Override
+	public String getStage() {
+		// O(1) return String from memory.
+		return stage;
+	}
+
+	@Override
+	public long getBytesRead() {
+		// O(c) sums c LongAdder cells.
+		return bytes.sum();
+	}
+
+	@Override
+	public long getLinesRead() {
+		// O(c) sums c LongAdder cells.
+		return lines.sum();
+	}
+
+	@Override
+	public long getTokens() {
+		// O(c) sums c LongAdder cells.
+		return tokens.sum();
+	}
+
+	@Override
+	public long getPages() {
+		// O(c) sums c LongAdder cells.
+		return pages.sum();
+	}
+
+	@Override
+	public double getBytesPerSecond() {
+		// O(c) sums c LongAdder cells.
+		double seconds = (System.nanoTime() - stageStartNanos) / 1e9;
+		return seconds <= 0 ? 0 : (bytes.sum() - stageStartBytes) / seconds;
+	}
+
+	@Override
+	public double getPercentComplete() {
+		// O(c) sums c LongAdder cells.
+		long size = stageSize;
+		if (size <= 0) {
+			return -1;
+		}
+		return Math.min(100, 100.0 * (bytes.sum() - stageStartBytes) / size);
+	}
+
+	@Override
+	public long getEtaSeconds() {
+		// O(c) sums c LongAdder cells.
+		long size = stageSize;
+		double rate = getBytesPerSecond();
+		if (size <= 0 || rate <= 0) {
+			return -1;
+		}
+		return Math.max(0, Math.round((size - (bytes.sum() - stageStartBytes)) / rate));
+	}
+
+	/**
+	 * Formats the current progress as one line, eg. "[PROGRESS] user text 42.0%
+	 * 3.1 MB/s 120000 lines 1800000 words 3000 pages ETA 12 s".
+	 *
+	 * @return Progress line.
+	 */
+	public String format() {
+		// O(c) sums c LongAdder cells.
+		double percent = getPercentComplete();
+		long eta = getEtaSeconds();
+		return String.format("[PROGRESS] %s %s %.1f MB/s %d lines %d words %d pages ETA %s", stage,
+				percent < 0 ? "?%" : String.format("%.1f%%", percent), getBytesPerSecond() / 1e6, getLinesRead(),
+				getTokens(), getPages(), eta < 0 ? "?" : eta + " s");
+	}
+
+	/**
+	 * Registers this tracker over JMX and starts a daemon thread printing
+	 * format() every period, until stop() is called.
+	 *
+	 * @param periodMillis Milliseconds between progress lines.
+	 */
+	public void start(long periodMillis) {
+		// O(1) starts one platform thread.
+		register();
+		reporter = Thread.ofPlatform().daemon().name("progress-reporter").start(() -> {
+			try {
+				while (true) {
+					Thread.sleep(periodMillis);
+					System.out.println(format());
+				}
+			} catch (InterruptedException e) {
+				// Stopped.
+			}
+		});
+	}
+
+	/**
+	 * Stops the reporter thread and unregisters this tracker from JMX.
+	 */
+	public void stop() {
+		// O(1) interrupts reporter thread.
+		if (reporter != null) {
+			reporter.interrupt();
+			reporter = null;
+		}
+		unregister();
+	}
+
+	private void register() {
+		// O(1) replaces any tracker left registered by an earlier run.
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName(OBJECT_NAME);
+			if (server.isRegistered(name)) {
+				server.unregisterMBean(name);
+			}
+			server.registerMBean(this, name);
+		} catch (JMException e) {
+			System.out.println("[WARNING] Could not register progress with JMX: " + e.getMessage());
+		}
+	}
+
+	private void unregister() {
+		// O(1) removes this tracker from the MBeanServer.
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName(OBJECT_NAME);
+			if (server.isRegistered(name)) {
+				server.unregisterMBean(name);
+			}
+		} catch (JMException e) {
+			// Already gone.
+		}
+	}
+}
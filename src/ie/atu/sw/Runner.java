@@ -1,9 +1,11 @@
 package ie.atu.sw;
 
+import java.util.Arrays;
+
 /**
  * Runner for Multithreaded Indexing API version 1.0. Contains main method.
  * 
- * See Indexer, Outputter.
+ * See Indexer, Outputter, BatchRunner.
  * 
  * @author Ben Murray
  * @version 1.0
@@ -13,12 +15,23 @@ package ie.atu.sw;
 public class Runner {
 
 	/**
-	 * Main - Runs program and manages Menu calls.
+	 * Main - Runs program and manages Menu calls. With "--batch manifest
+	 * [workers]" runs the jobs of a manifest without menus, see BatchRunner.
 	 */
 	public static void main(String[] args) {
 		// O(n²) method with greatest time complexity = O(n²)
+		if (args.length > 0 && args[0].equals("--batch")) {
+			try {
+				BatchRunner.main(Arrays.copyOfRange(args, 1, args.length));
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return;
+		}
 		Indexer i = new Indexer();
 		Outputter o = new Outputter();
+		i.setProgressInterval(2000);
+		i.setLatencyTracking(true);
 
 		Menu.showHeader();
 		Menu.showMenu();
@@ -35,6 +48,9 @@ public class Runner {
 		}
 		if (Menu.isPrintTotalUniqueWords()) {
 			o.printUniqueWords(i.getCurrentIndex());
+			if (i.getRawSketch() != null) {
+				o.printEstimatedUniqueWords(i.getRawSketch(), i.getEligibleSketch());
+			}
 		}
 		if (Menu.isPrintMostFrequentWords()) {
 			o.printMostFrequentWords(i.getCurrentIndex(), Menu.getMostFrequentNumber());
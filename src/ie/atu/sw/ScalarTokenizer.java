@@ -0,0 +1,41 @@
+package ie.atu.sw;
+
+import java.util.function.Consumer;
+
+/**
+ * Scalar Tokenizer - Single pass, character at a time tokenizer. Replaces the
+ * replaceAll/toLowerCase/split chain with one loop and no regex, and is the
+ * fallback when the Vector API is unavailable.
+ * 
+ * See Tokenizer.
+ * 
+ * @author Ben Murray
+ * @version 1.0
+ * @since JDK 19
+ *
+ */
+public class ScalarTokenizer implements Tokenizer {
+
+	/**
+	 * Splits a line of text into normalised words.
+	 */
+	@Override
+	public void tokenize(String text, Consumer<String> sink) {
+		// O(n) where n = number of characters in text.
+		char[] word = new char[text.length()];
+		int length = 0;
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			char lower = (char) (c | 0x20);
+			if (lower >= 'a' && lower <= 'z') {
+				word[length++] = lower;
+			} else if (c == ' ' && length > 0) {
+				sink.accept(new String(word, 0, length));
+				length = 0;
+			}
+		}
+		if (length > 0) {
+			sink.accept(new String(word, 0, length));
+		}
+	}
+}
@@ -0,0 +1,166 @@
+package ie.atu.sw;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Scaling Harness - Runs the full Indexer pipeline over generated inputs of
+ * increasing size and reports time and peak heap usage against input size, as
+ * a CSV file and as a plot printed to the console.
+ *
+ * See CorpusGenerator, Indexer.
+ *
+ * @author Ben Murray
+ * @version 1.0
+ * @since JDK 19
+ *
+ */
+public class ScalingHarness {
+
+	private static final int PLOT_WIDTH = 50;
+
+	private Path workDir;
+	private CorpusGenerator generator;
+	private List<long[]> results = new ArrayList<long[]>();
+
+	/**
+	 * Constructor for ScalingHarness, generates the dictionary and common words
+	 * files shared by every run.
+	 *
+	 * @param workDir   Directory generated inputs and outputs are written to.
+	 * @param generator Generator used for all inputs.
+	 * @throws IOException If the shared inputs cannot be written.
+	 */
+	public ScalingHarness(Path workDir, CorpusGenerator generator) throws IOException {
+		// O(n) where n = vocabulary size.
+		this.workDir = Files.createDirectories(workDir);
+		this.generator = generator;
+		generator.writeDictionary(dictionaryPath(), 0.8);
+		generator.writeCommonWords(commonWordsPath(), 1000);
+	}
+
+	/**
+	 * Generates a text file of the given size and runs the full indexing pipeline
+	 * over it. Result row is {input bytes, milliseconds, peak heap bytes, index
+	 * size}.
+	 *
+	 * @param megabytes Size of text file in megabytes.
+	 * @return Result row for this run.
+	 * @throws IOException If the text file cannot be written.
+	 */
+	public long[] run(long megabytes) throws IOException {
+		// O(n²) - dominated by Indexer.getNewIndex().
+		Path text = workDir.resolve("text-" + megabytes + "mb.txt");
+		if (!Files.exists(text)) {
+			generator.writeText(text, megabytes * 1024 * 1024);
+		}
+		List<String> paths = new ArrayList<String>();
+		paths.add(dictionaryPath().toString());
+		paths.add(commonWordsPath().toString());
+		paths.add(text.toString());
+		paths.add(workDir.resolve("index-" + megabytes + "mb.txt").toString());
+		Menu.setPaths(paths);
+
+		System.gc();
+		List<MemoryPoolMXBean> heapPools = heapPools();
+		heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+
+		Indexer indexer = new Indexer();
+		int indexSize = indexer.getNewIndex().size();
+
+		long peak = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+		long[] row = { Files.size(text), indexer.getTime(), peak, indexSize };
+		results.add(row);
+		return row;
+	}
+
+	/**
+	 * Writes results of all runs so far to a CSV file in the working directory.
+	 *
+	 * @throws IOException If the file cannot be written.
+	 */
+	public void saveResults() throws IOException {
+		// O(n) where n = number of runs.
+		try (PrintWriter pw = new PrintWriter(workDir.resolve("scaling.csv").toFile())) {
+			pw.println("input_bytes,millis,peak_heap_bytes,index_entries");
+			results.forEach(r -> pw.println(r[0] + "," + r[1] + "," + r[2] + "," + r[3]));
+		}
+	}
+
+	/**
+	 * Prints time and peak heap usage against input size as horizontal bar
+	 * plots.
+	 */
+	public void plotResults() {
+		// O(n) where n = number of runs.
+		plot("Time (ms) vs input size", 1);
+		plot("Peak heap (MB) vs input size", 2);
+	}
+
+	/**
+	 * Runs the pipeline over a series of input sizes.
+	 *
+	 * Usage: ScalingHarness &lt;directory&gt; [size in MB]...
+	 *
+	 * @param args Working directory followed by input sizes in megabytes.
+	 */
+	public static void main(String[] args) throws IOException {
+		// O(n²) - one full pipeline run per size.
+		Path dir = Path.of(args.length > 0 ? args[0] : "scaling");
+		List<Long> sizes = new ArrayList<Long>();
+		for (int i = 1; i < args.length; i++) {
+			sizes.add(Long.parseLong(args[i]));
+		}
+		if (sizes.isEmpty()) {
+			sizes = List.of(1L, 4L, 16L, 64L);
+		}
+
+		ScalingHarness harness = new ScalingHarness(dir, new CorpusGenerator(42, 50_000, 1.0));
+		for (long size : sizes) {
+			long[] r = harness.run(size);
+			System.out.printf("%6d MB : %8d ms, %6d MB peak heap, %7d entries%n", size, r[1], r[2] >> 20, r[3]);
+		}
+		harness.saveResults();
+		harness.plotResults();
+	}
+
+	private void plot(String title, int column) {
+		// O(n) where n = number of runs.
+		long max = results.stream().mapToLong(r -> r[column]).max().orElse(1);
+		System.out.println();
+		System.out.println(title);
+		results.forEach(r -> {
+			long value = column == 2 ? r[column] >> 20 : r[column];
+			int bar = (int) (PLOT_WIDTH * r[column] / Math.max(1, max));
+			System.out.printf("%8d MB |%-" + PLOT_WIDTH + "s| %d%n", r[0] >> 20, "#".repeat(bar), value);
+		});
+	}
+
+	private Path dictionaryPath() {
+		// O(1) resolve path.
+		return workDir.resolve("dictionary.csv");
+	}
+
+	private Path commonWordsPath() {
+		// O(1) resolve path.
+		return workDir.resolve("google-1000.txt");
+	}
+
+	private static List<MemoryPoolMXBean> heapPools() {
+		// O(n) where n = number of memory pools.
+		List<MemoryPoolMXBean> pools = new ArrayList<MemoryPoolMXBean>();
+		ManagementFactory.getMemoryPoolMXBeans().forEach(pool -> {
+			if (pool.getType() == MemoryType.HEAP) {
+				pools.add(pool);
+			}
+		});
+		return pools;
+	}
+}
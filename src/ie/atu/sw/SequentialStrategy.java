@@ -0,0 +1,27 @@
+package ie.atu.sw;
+
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Sequential Strategy - Runs every task on the calling thread. Baseline for
+ * comparison with the concurrent strategies.
+ * 
+ * See ExecutionStrategy.
+ * 
+ * @author Ben Murray
+ * @version 1.0
+ * @since JDK 19
+ *
+ */
+public class SequentialStrategy implements ExecutionStrategy {
+
+	/**
+	 * Runs task for each item, in order, on the calling thread.
+	 */
+	@Override
+	public <T> void execute(Stream<T> items, Consumer<T> task) {
+		// O(n) calls task n times.
+		items.forEach(task);
+	}
+}
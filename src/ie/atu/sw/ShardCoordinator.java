@@ -0,0 +1,251 @@
+package ie.atu.sw;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+
+/**
+ * Shard Coordinator - Builds an index with several worker JVMs on the same
+ * host, so each heap and garbage collector only ever sees part of the text.
+ * The text is split into page aligned shards, see TextShard, and each shard is
+ * handed to a ShardWorker process over a loopback socket. Workers send back
+ * their partial index sorted by word, which the coordinator decodes straight
+ * off each socket and merges one entry at a time, so no partial index is ever
+ * held whole on its heap. Page lists are sorted sets, so shards may merge in
+ * any order.
+ *
+ * A shard whose worker exits with an error, disconnects or times out is
+ * retried in a fresh process, up to a set number of attempts. Entries merged
+ * from a failed attempt are merged again by the retry, which only adds pages
+ * already present.
+ *
+ * See ShardWorker, Indexer.setShards().
+ *
+ * @author Ben Murray
+ * @version 1.0
+ * @since JDK 19
+ *
+ */
+public class ShardCoordinator {
+
+	private static final int CONNECT_TIMEOUT = 60_000;
+
+	private int workers;
+	private int maxAttempts = 3;
+	private int timeout = 30 * 60_000;
+	private List<String> jvmOptions = new ArrayList<String>();
+	private AtomicInteger failedAttempts = new AtomicInteger();
+
+	/**
+	 * Constructor for ShardCoordinator.
+	 *
+	 * @param workers Number of shards, and so of worker JVMs run at once.
+	 */
+	public ShardCoordinator(int workers) {
+		// O(1) set value of workers.
+		this.workers = workers;
+	}
+
+	/**
+	 * Sets the number of times a shard is attempted before giving up, 3 by
+	 * default.
+	 *
+	 * @param maxAttempts Attempts per shard, at least 1.
+	 */
+	public void setMaxAttempts(int maxAttempts) {
+		// O(1) set value of maxAttempts.
+		this.maxAttempts = Math.max(1, maxAttempts);
+	}
+
+	/**
+	 * Sets how long a worker may take to return its shard before it is killed
+	 * and the shard retried, 30 minutes by default.
+	 *
+	 * @param timeout Timeout in milliseconds.
+	 */
+	public void setTimeout(int timeout) {
+		// O(1) set value of timeout.
+		this.timeout = timeout;
+	}
+
+	/**
+	 * Sets extra options passed to each worker JVM, eg. "-Xmx512m".
+	 *
+	 * @param jvmOptions JVM options.
+	 */
+	public void setJvmOptions(List<String> jvmOptions) {
+		// O(1) set value of jvmOptions.
+		this.jvmOptions = jvmOptions;
+	}
+
+	/**
+	 * Gets number of worker attempts that failed and were retried or given up
+	 * on.
+	 *
+	 * @return Number of failed attempts.
+	 */
+	public int getFailedAttempts() {
+		// O(1) return int from memory.
+		return failedAttempts.get();
+	}
+
+	/**
+	 * Builds the index of a text file across worker JVMs.
+	 *
+	 * @param dictionary Path of dictionary file.
+	 * @param common     Path of common words file.
+	 * @param text       Path of text file to be indexed.
+	 * @return Index of user words, definitions and lists of pages where words
+	 *         occur.
+	 * @throws IOException If the text cannot be read, or a shard fails on every
+	 *                     attempt.
+	 */
+	public HashMap<String, IndexEntry> buildIndex(String dictionary, String common, String text)
+			throws IOException {
+		// O(n) to plan and merge, parsing itself runs in the workers.
+		List<TextShard> shards = TextShard.plan(Path.of(text), workers);
+		HashMap<String, IndexEntry> index = new HashMap<String, IndexEntry>();
+		ReentrantLock mergeLock = new ReentrantLock();
+		BiConsumer<String, IndexEntry> merge = (word, entry) -> {
+			mergeLock.lock();
+			try {
+				IndexEntry existing = index.putIfAbsent(word, entry);
+				if (existing != null) {
+					existing.getPages().addAll(entry.getPages());
+				}
+			} finally {
+				mergeLock.unlock();
+			}
+		};
+		List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+		try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (int i = 0; i < shards.size(); i++) {
+				int number = i;
+				results.add(pool.submit(() -> runShard(number, shards.get(number), dictionary, common, text, merge)));
+			}
+		}
+		for (Future<Integer> result : results) {
+			try {
+				result.get();
+			} catch (InterruptedException | ExecutionException e) {
+				throw e.getCause() instanceof IOException io ? io : new IOException(e);
+			}
+		}
+		return index;
+	}
+
+	private int runShard(int number, TextShard shard, String dictionary, String common, String text,
+			BiConsumer<String, IndexEntry> merge) throws IOException, InterruptedException {
+		// O(a) attempts, each a full worker run.
+		IOException last = null;
+		for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+			try {
+				return runAttempt(shard, dictionary, common, text, merge);
+			} catch (IOException e) {
+				failedAttempts.incrementAndGet();
+				last = e;
+				System.out.println("[WARNING] Shard " + (number + 1) + " (" + shard + ") attempt " + attempt
+						+ " failed: " + e.getMessage());
+			}
+		}
+		throw new IOException("Shard " + (number + 1) + " failed after " + maxAttempts + " attempts", last);
+	}
+
+	private int runAttempt(TextShard shard, String dictionary, String common, String text,
+			BiConsumer<String, IndexEntry> merge) throws IOException, InterruptedException {
+		// O(n) where n = size of partial index returned, merged as it is read.
+		try (ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+			Process process = launch(server.getLocalPort());
+			try {
+				int entries;
+				try (Socket socket = accept(server, process)) {
+					socket.setSoTimeout(timeout);
+					DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+					out.writeUTF(dictionary);
+					out.writeUTF(common);
+					out.writeUTF(text);
+					shard.write(out);
+					out.flush();
+					DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 1 << 16));
+					try {
+						entries = CompressedIndexFile.read(in, merge);
+						if (in.readInt() != ShardWorker.END_MARKER) {
+							throw new IOException("incomplete result from worker");
+						}
+					} catch (EOFException e) {
+						throw new IOException("incomplete result from worker", e);
+					}
+				}
+				if (!process.waitFor(CONNECT_TIMEOUT, TimeUnit.MILLISECONDS) || process.exitValue() != 0) {
+					throw new IOException("worker did not exit cleanly");
+				}
+				return entries;
+			} finally {
+				process.destroyForcibly();
+			}
+		}
+	}
+
+	private Socket accept(ServerSocket server, Process process) throws IOException {
+		// O(t) polls once a second, for up to t seconds, until the worker
+		// connects or exits.
+		server.setSoTimeout(1000);
+		long deadline = System.currentTimeMillis() + CONNECT_TIMEOUT;
+		while (true) {
+			try {
+				return server.accept();
+			} catch (SocketTimeoutException e) {
+				if (!process.isAlive()) {
+					throw new IOException("worker exited with status " + process.exitValue() + " before connecting");
+				} else if (System.currentTimeMillis() > deadline) {
+					throw new IOException("worker did not connect");
+				}
+			}
+		}
+	}
+
+	private Process launch(int port) throws IOException {
+		// O(1) starts a JVM with the same module or class path as this one.
+		List<String> command = new ArrayList<String>();
+		command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+		command.addAll(jvmOptions);
+		if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+			command.add("--add-modules=jdk.incubator.vector");
+		}
+		Module module = ShardWorker.class.getModule();
+		if (module.isNamed()) {
+			command.add("-p");
+			command.add(System.getProperty("jdk.module.path"));
+			command.add("-m");
+			command.add(module.getName() + "/" + ShardWorker.class.getName());
+		} else {
+			command.add("-cp");
+			command.add(System.getProperty("java.class.path"));
+			command.add(ShardWorker.class.getName());
+		}
+		command.add(Integer.toString(port));
+		Process process = new ProcessBuilder(command).redirectOutput(ProcessBuilder.Redirect.DISCARD)
+				.redirectError(ProcessBuilder.Redirect.INHERIT).start();
+		// Closed input makes a worker that falls back to the Menu fail fast.
+		process.getOutputStream().close();
+		return process;
+	}
+}
@@ -0,0 +1,68 @@
+package ie.atu.sw;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+
+/**
+ * Shard Worker - Entry point of a worker JVM started by ShardCoordinator.
+ * Connects back to the coordinator over loopback, receives the input paths
+ * and the shard of the text to index, runs the usual parse, Filter and
+ * MapBuilder steps on that shard, and streams the partial index back sorted by
+ * word in the CompressedIndexFile format.
+ *
+ * See ShardCoordinator, TextShard.
+ *
+ * @author Ben Murray
+ * @version 1.0
+ * @since JDK 19
+ *
+ */
+public class ShardWorker {
+
+	static final int END_MARKER = 0x454E4421;
+
+	/**
+	 * Runs one shard and exits, with status 0 only if the result was sent.
+	 *
+	 * Usage: ShardWorker &lt;coordinator port&gt;
+	 *
+	 * @param args Loopback port of the coordinator.
+	 */
+	public static void main(String[] args) throws IOException {
+		// O(n²) - same steps as Indexer.generateIndex() over one shard.
+		int port = Integer.parseInt(args[0]);
+		try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+			DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+			String dictionary = in.readUTF();
+			String common = in.readUTF();
+			String text = in.readUTF();
+			TextShard shard = TextShard.read(in);
+
+			DictionaryParser dp = new DictionaryParser();
+			CommonWordsParser cwp = new CommonWordsParser();
+			UserInputParser uip = new UserInputParser();
+			MapBuilder mb = new MapBuilder();
+			dp.setFile(dictionary);
+			cwp.setFile(common);
+			uip.setFile(text);
+			uip.setShard(shard);
+
+			dp.parse();
+			cwp.parse();
+			uip.parse();
+
+			Filter f = new Filter(uip.getUserWordSet(), dp.getDictionaryWordSet(), cwp.getCommonWordSet());
+			mb.buildMap(f.getFilteredWords(), uip.getIndex(), dp.getDictionaryWords());
+
+			DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+			CompressedIndexFile.write(mb.getFinalMap(), out);
+			out.writeInt(END_MARKER);
+			out.flush();
+		}
+		System.exit(0);
+	}
+}
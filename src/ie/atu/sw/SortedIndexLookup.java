@@ -0,0 +1,167 @@
+package ie.atu.sw;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Sorted Index Lookup - Finds words in a text index saved by
+ * Outputter.saveSorted() without reading it all. The sidecar of offsets is
+ * loaded and binary searched for the last recorded word not after the one
+ * wanted, then the index is read from that offset, so at most one interval of
+ * entries is parsed per lookup.
+ *
+ * See Outputter.saveSorted(), IndexFileReader.
+ *
+ * @author Ben Murray
+ * @version 1.0
+ * @since JDK 19
+ *
+ */
+public class SortedIndexLookup implements Closeable {
+
+	/**
+	 * Appended to the index path to name its sidecar.
+	 */
+	public static final String SIDECAR_SUFFIX = ".offsets";
+
+	/**
+	 * First line of a sidecar, followed by the interval between recorded words.
+	 */
+	static final String SIDECAR_HEADER = "# sorted index offsets, interval ";
+
+	private FileChannel channel;
+	private List<String> terms = new ArrayList<String>();
+	private List<Long> termOffsets = new ArrayList<Long>();
+	private TreeMap<Character, Long> sections = new TreeMap<Character, Long>();
+
+	private SortedIndexLookup(Path index, Path sidecar) throws IOException {
+		// O(s) loads s sidecar lines.
+		List<String> lines = Files.readAllLines(sidecar, StandardCharsets.UTF_8);
+		if (lines.isEmpty() || !lines.get(0).startsWith(SIDECAR_HEADER)) {
+			throw new IOException("Not a sorted index sidecar: " + sidecar);
+		}
+		for (String line : lines.subList(1, lines.size())) {
+			String[] fields = line.split(" ");
+			if (fields.length != 3) {
+				throw new IOException("Malformed sidecar line: " + line);
+			}
+			long offset = Long.parseLong(fields[2]);
+			if (fields[0].equals("section") && fields[1].length() == 1) {
+				sections.put(fields[1].charAt(0), offset);
+			} else if (fields[0].equals("term")) {
+				terms.add(fields[1]);
+				termOffsets.add(offset);
+			} else {
+				throw new IOException("Malformed sidecar line: " + line);
+			}
+		}
+		this.channel = FileChannel.open(index, StandardOpenOption.READ);
+	}
+
+	/**
+	 * Opens a sorted index and its sidecar.
+	 *
+	 * @param index Path of file written by Outputter.saveSorted().
+	 * @return Opened index, close when done.
+	 * @throws IOException If either file cannot be read.
+	 */
+	public static SortedIndexLookup open(Path index) throws IOException {
+		// O(s) - see constructor.
+		return new SortedIndexLookup(index, Path.of(index + SIDECAR_SUFFIX));
+	}
+
+	/**
+	 * Looks up one word.
+	 *
+	 * @param word Normalised word.
+	 * @return Index entry, or null if word is not in the index.
+	 * @throws IOException If the index cannot be read.
+	 */
+	public IndexEntry get(String word) throws IOException {
+		// O(log s) binary search of the sidecar, then O(k) parses at most one
+		// interval of k entries.
+		int found = Collections.binarySearch(terms, word);
+		int start = found >= 0 ? found : -found - 2;
+		if (start < 0) {
+			return null;
+		}
+		BufferedReader reader = readerAt(termOffsets.get(start));
+		try {
+			Map.Entry<String, IndexEntry> entry;
+			while ((entry = IndexFileReader.readEntry(reader)) != null) {
+				int order = entry.getKey().compareTo(word);
+				if (order >= 0) {
+					return order == 0 ? entry.getValue() : null;
+				}
+			}
+			return null;
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * Reads every entry of one section.
+	 *
+	 * @param letter Initial letter of the section, eg. 'a'.
+	 * @return Sorted mapping of words to index entries, empty if there is no
+	 *         such section.
+	 * @throws IOException If the index cannot be read.
+	 */
+	public TreeMap<String, IndexEntry> getSection(char letter) throws IOException {
+		// O(n) parses the n entries of the section.
+		TreeMap<String, IndexEntry> section = new TreeMap<String, IndexEntry>();
+		Long offset = sections.get(letter);
+		if (offset == null) {
+			return section;
+		}
+		BufferedReader reader = readerAt(offset);
+		try {
+			Map.Entry<String, IndexEntry> entry;
+			while ((entry = IndexFileReader.readEntry(reader)) != null && entry.getKey().charAt(0) == letter) {
+				section.put(entry.getKey(), entry.getValue());
+			}
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+		return section;
+	}
+
+	/**
+	 * Gets the initial letters of the sections in the index.
+	 *
+	 * @return Letters in order.
+	 */
+	public List<Character> getSections() {
+		// O(s) copies s section letters.
+		return new ArrayList<Character>(sections.keySet());
+	}
+
+	private BufferedReader readerAt(long offset) throws IOException {
+		// O(1) positions the shared channel. Lookups are not thread safe.
+		channel.position(offset);
+		return new BufferedReader(Channels.newReader(channel, StandardCharsets.UTF_8), 1 << 13);
+	}
+
+	/**
+	 * Closes the index file.
+	 */
+	@Override
+	public void close() throws IOException {
+		// O(1) closes channel.
+		channel.close();
+	}
+}
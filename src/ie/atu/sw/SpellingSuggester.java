@@ -0,0 +1,372 @@
+package ie.atu.sw;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Spelling Suggester - Maps words missing from the dictionary to their nearest
+ * dictionary entries within edit distance 2, using a SymSpell style deletion
+ * index: every dictionary term is indexed under each string obtained by
+ * deleting up to 2 characters from its prefix, so a lookup only generates the
+ * deletes of the misspelt word and verifies the few terms found under them.
+ *
+ * The deletion index is built once per dictionary: saveIndex() writes it next
+ * to the dictionary and loadIndex() reads it back on later runs, for as long
+ * as the dictionary file is unchanged, instead of generating every delete
+ * again. Results are cached too, and the cache is saved and reloaded the same
+ * way.
+ *
+ * See Filter.getRejectedWords(), Indexer.
+ *
+ * @author Ben Murray
+ * @version 1.0
+ * @since JDK 19
+ *
+ */
+public class SpellingSuggester {
+
+	private static final int MAX_DISTANCE = 2;
+	private static final int PREFIX_LENGTH = 7;
+	private static final int MAX_SUGGESTIONS = 3;
+	private static final int FILE_MAGIC = 0x53504C31;
+	private static final int INDEX_MAGIC = 0x53504931;
+
+	/**
+	 * Suffix added to a dictionary path to name its saved deletion index.
+	 */
+	public static final String INDEX_SUFFIX = ".suggest.idx";
+
+	private String[] terms;
+	private Set<String> termSet;
+	// Deletes mapped to ids of terms, the number of ids held in element 0.
+	private Map<String, int[]> deletes = new HashMap<String, int[]>();
+	private Map<String, List<String>> cache = new ConcurrentHashMap<String, List<String>>();
+
+	/**
+	 * Constructor for SpellingSuggester, builds the deletion index over a set of
+	 * dictionary terms.
+	 *
+	 * @param dictionaryTerms Normalised dictionary words.
+	 */
+	public SpellingSuggester(Collection<String> dictionaryTerms) {
+		// O(n * p²) for n terms, p = prefix length. Each list of ids holds its size
+		// in element 0 and doubles when full, so hot buckets grow in amortised
+		// O(1).
+		this.terms = dictionaryTerms.toArray(new String[0]);
+		this.termSet = new HashSet<String>(dictionaryTerms);
+		for (int id = 0; id < terms.length; id++) {
+			for (String delete : deletesOf(prefix(terms[id]))) {
+				int[] ids = deletes.get(delete);
+				if (ids == null) {
+					deletes.put(delete, new int[] { 1, id });
+					continue;
+				}
+				int size = ids[0];
+				if (size + 1 == ids.length) {
+					ids = Arrays.copyOf(ids, ids.length * 2);
+					deletes.put(delete, ids);
+				}
+				ids[++size] = id;
+				ids[0] = size;
+			}
+		}
+	}
+
+	private SpellingSuggester(String[] terms, Map<String, int[]> deletes) {
+		// O(n) for n terms - index already built, see loadIndex().
+		this.terms = terms;
+		this.termSet = new HashSet<String>(Arrays.asList(terms));
+		this.deletes = deletes;
+	}
+
+	/**
+	 * Saves the deletion index, tagged with the size and modification time of
+	 * the dictionary it was built from, so loadIndex() can skip building it.
+	 *
+	 * @param file       Path of index file, eg. dictionary path + INDEX_SUFFIX.
+	 * @param dictionary Path of dictionary file.
+	 * @throws IOException If either file cannot be accessed.
+	 */
+	public void saveIndex(Path file, Path dictionary) throws IOException {
+		// O(n + d) for n terms and d deletes, ids delta encoded as varints.
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+			out.writeInt(INDEX_MAGIC);
+			out.writeLong(Files.size(dictionary));
+			out.writeLong(Files.getLastModifiedTime(dictionary).toMillis());
+			out.writeInt(terms.length);
+			for (String term : terms) {
+				out.writeUTF(term);
+			}
+			out.writeInt(deletes.size());
+			for (Map.Entry<String, int[]> entry : deletes.entrySet()) {
+				out.writeUTF(entry.getKey());
+				int[] ids = entry.getValue();
+				writeVarInt(out, ids[0]);
+				int previous = 0;
+				for (int i = 1; i <= ids[0]; i++) {
+					writeVarInt(out, ids[i] - previous);
+					previous = ids[i];
+				}
+			}
+		}
+	}
+
+	/**
+	 * Loads a deletion index saved by saveIndex().
+	 *
+	 * @param file       Path of index file.
+	 * @param dictionary Path of dictionary file.
+	 * @param termCount  Number of dictionary terms expected.
+	 * @return Suggester over the saved index, or null if the file is missing,
+	 *         or the dictionary or its terms have changed since it was saved.
+	 * @throws IOException If the index file exists but cannot be read.
+	 */
+	public static SpellingSuggester loadIndex(Path file, Path dictionary, int termCount) throws IOException {
+		// O(n + d) for n terms and d deletes.
+		if (!Files.exists(file)) {
+			return null;
+		}
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+			if (in.readInt() != INDEX_MAGIC || in.readLong() != Files.size(dictionary)
+					|| in.readLong() != Files.getLastModifiedTime(dictionary).toMillis()
+					|| in.readInt() != termCount) {
+				return null;
+			}
+			String[] terms = new String[termCount];
+			for (int i = 0; i < termCount; i++) {
+				terms[i] = in.readUTF();
+			}
+			int count = in.readInt();
+			Map<String, int[]> deletes = new HashMap<String, int[]>(count * 4 / 3 + 1);
+			for (int i = 0; i < count; i++) {
+				String delete = in.readUTF();
+				int size = readVarInt(in);
+				int[] ids = new int[size + 1];
+				ids[0] = size;
+				int previous = 0;
+				for (int j = 1; j <= size; j++) {
+					previous += readVarInt(in);
+					ids[j] = previous;
+				}
+				deletes.put(delete, ids);
+			}
+			return new SpellingSuggester(terms, deletes);
+		}
+	}
+
+	private static void writeVarInt(DataOutput out, int value) throws IOException {
+		// O(1) at most 5 bytes, 7 bits each.
+		while ((value & ~0x7F) != 0) {
+			out.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte(value);
+	}
+
+	private static int readVarInt(DataInput in) throws IOException {
+		// O(1) at most 5 bytes.
+		int value = 0;
+		int shift = 0;
+		byte b;
+		do {
+			b = in.readByte();
+			value |= (b & 0x7F) << shift;
+			shift += 7;
+		} while (b < 0);
+		return value;
+	}
+
+	/**
+	 * Gets the nearest dictionary terms to a word, closest first, at most 3.
+	 *
+	 * @param word Normalised word.
+	 * @return Suggested terms, empty if none is within edit distance 2.
+	 */
+	public List<String> suggest(String word) {
+		// O(1) for cached words, otherwise O(p²) deletes plus verification.
+		List<String> cached = cache.get(word);
+		if (cached != null) {
+			return cached;
+		}
+		List<String> suggestions = lookup(word);
+		cache.put(word, suggestions);
+		return suggestions;
+	}
+
+	/**
+	 * Gets suggestions for every word in a collection, in parallel.
+	 *
+	 * @param words Normalised words missing from the dictionary.
+	 * @return Sorted mapping of each word to its suggestions.
+	 */
+	public Map<String, List<String>> suggestAll(Collection<String> words) {
+		// O(n) lookups for n words, split across the common pool.
+		Map<String, List<String>> results = new ConcurrentHashMap<String, List<String>>();
+		words.parallelStream().forEach(word -> results.put(word, suggest(word)));
+		return new TreeMap<String, List<String>>(results);
+	}
+
+	/**
+	 * Saves the suggestion cache, tagged with the size and modification time of
+	 * the dictionary it was built from.
+	 *
+	 * @param file       Path of cache file.
+	 * @param dictionary Path of dictionary file.
+	 * @throws IOException If either file cannot be accessed.
+	 */
+	public void saveCache(Path file, Path dictionary) throws IOException {
+		// O(n) where n = number of cached words.
+		try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(file))) {
+			out.writeInt(FILE_MAGIC);
+			out.writeLong(Files.size(dictionary));
+			out.writeLong(Files.getLastModifiedTime(dictionary).toMillis());
+			out.writeInt(cache.size());
+			for (Map.Entry<String, List<String>> entry : cache.entrySet()) {
+				out.writeUTF(entry.getKey());
+				out.writeByte(entry.getValue().size());
+				for (String suggestion : entry.getValue()) {
+					out.writeUTF(suggestion);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Loads a suggestion cache saved by saveCache(). Nothing is loaded if the
+	 * file is missing, or if the dictionary has changed since it was saved.
+	 *
+	 * @param file       Path of cache file.
+	 * @param dictionary Path of dictionary file.
+	 * @return True if the cache was loaded.
+	 * @throws IOException If the cache file exists but cannot be read.
+	 */
+	public boolean loadCache(Path file, Path dictionary) throws IOException {
+		// O(n) where n = number of cached words.
+		if (!Files.exists(file)) {
+			return false;
+		}
+		try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+			if (in.readInt() != FILE_MAGIC || in.readLong() != Files.size(dictionary)
+					|| in.readLong() != Files.getLastModifiedTime(dictionary).toMillis()) {
+				return false;
+			}
+			int count = in.readInt();
+			for (int i = 0; i < count; i++) {
+				String word = in.readUTF();
+				int size = in.readByte();
+				List<String> suggestions = new ArrayList<String>(size);
+				for (int j = 0; j < size; j++) {
+					suggestions.add(in.readUTF());
+				}
+				cache.put(word, List.copyOf(suggestions));
+			}
+		}
+		return true;
+	}
+
+	private List<String> lookup(String word) {
+		// O(p²) candidate deletes, each verified with a bounded edit distance.
+		if (termSet.contains(word)) {
+			return List.of(word);
+		}
+		TreeMap<Integer, List<String>> byDistance = new TreeMap<Integer, List<String>>();
+		Set<Integer> seen = new HashSet<Integer>();
+		for (String delete : deletesOf(prefix(word))) {
+			int[] ids = deletes.get(delete);
+			if (ids == null) {
+				continue;
+			}
+			for (int i = 1; i <= ids[0]; i++) {
+				int id = ids[i];
+				if (!seen.add(id)) {
+					continue;
+				}
+				int distance = distance(word, terms[id]);
+				if (distance <= MAX_DISTANCE) {
+					byDistance.computeIfAbsent(distance, d -> new ArrayList<String>()).add(terms[id]);
+				}
+			}
+		}
+		List<String> suggestions = new ArrayList<String>();
+		byDistance.values().forEach(group -> {
+			group.sort(null);
+			group.forEach(term -> {
+				if (suggestions.size() < MAX_SUGGESTIONS) {
+					suggestions.add(term);
+				}
+			});
+		});
+		return List.copyOf(suggestions);
+	}
+
+	private static String prefix(String word) {
+		// O(1) substring of at most 7 characters.
+		return word.length() > PREFIX_LENGTH ? word.substring(0, PREFIX_LENGTH) : word;
+	}
+
+	private static Set<String> deletesOf(String word) {
+		// O(p²) - the word, every single delete and every double delete.
+		Set<String> results = new HashSet<String>();
+		results.add(word);
+		for (int i = 0; i < word.length(); i++) {
+			String once = word.substring(0, i) + word.substring(i + 1);
+			results.add(once);
+			for (int j = i; j < once.length(); j++) {
+				results.add(once.substring(0, j) + once.substring(j + 1));
+			}
+		}
+		return results;
+	}
+
+	private static int distance(String a, String b) {
+		// O(n * m) optimal string alignment distance, stops early once every
+		// value in a row exceeds MAX_DISTANCE.
+		if (Math.abs(a.length() - b.length()) > MAX_DISTANCE) {
+			return MAX_DISTANCE + 1;
+		}
+		int[] previous2 = new int[b.length() + 1];
+		int[] previous = new int[b.length() + 1];
+		int[] current = new int[b.length() + 1];
+		for (int j = 0; j <= b.length(); j++) {
+			previous[j] = j;
+		}
+		for (int i = 1; i <= a.length(); i++) {
+			current[0] = i;
+			int rowMin = current[0];
+			for (int j = 1; j <= b.length(); j++) {
+				int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+				int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+				if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+					value = Math.min(value, previous2[j - 2] + 1);
+				}
+				current[j] = value;
+				rowMin = Math.min(rowMin, value);
+			}
+			if (rowMin > MAX_DISTANCE) {
+				return MAX_DISTANCE + 1;
+			}
+			int[] recycled = previous2;
+			previous2 = previous;
+			previous = current;
+			current = recycled;
+		}
+		return previous[b.length()];
+	}
+}
@@ -0,0 +1,167 @@
+package ie.atu.sw;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Strategy Benchmark - Runs DictionaryParser (one task per chunk) and
+ * CommonWordsParser (one task per line) with each ExecutionStrategy over a
+ * range of thread counts and input sizes, and reports throughput, process CPU
+ * time and stall time.
+ *
+ * Stall is the share of the thread time made available to a strategy that was
+ * not spent on CPU, ie. time lost to lock contention, queue hand-off and
+ * scheduling. A strategy that scales well keeps it low as threads are added.
+ *
+ * See ExecutionStrategy, CorpusGenerator.
+ *
+ * @author Ben Murray
+ * @version 1.0
+ * @since JDK 19
+ *
+ */
+public class StrategyBenchmark {
+
+	private static final int WARMUP_RUNS = 1;
+	private static final int MEASURED_RUNS = 3;
+	private static final int BATCH_SIZE = 256;
+
+	private com.sun.management.OperatingSystemMXBean os = (com.sun.management.OperatingSystemMXBean) ManagementFactory
+			.getOperatingSystemMXBean();
+	private List<String> rows = new ArrayList<String>();
+
+	/**
+	 * Builds the list of strategies to compare at a given thread count. Strategies
+	 * whose parallelism cannot be configured are only included once, at a thread
+	 * count of 1.
+	 *
+	 * @param threads Thread count for configurable strategies.
+	 * @return Strategies to be benchmarked.
+	 */
+	public List<ExecutionStrategy> strategiesFor(int threads) {
+		// O(1) build a short list.
+		List<ExecutionStrategy> strategies = new ArrayList<ExecutionStrategy>();
+		if (threads == 1) {
+			strategies.add(new SequentialStrategy());
+			strategies.add(new VirtualThreadPerTaskStrategy());
+			strategies.add(new VirtualThreadPerBatchStrategy(BATCH_SIZE));
+		}
+		strategies.add(new FixedPoolStrategy(threads, BATCH_SIZE));
+		strategies.add(new ParallelStreamStrategy(threads));
+		return strategies;
+	}
+
+	/**
+	 * Parses a file with the given parser and strategy and records the median of
+	 * several measured runs.
+	 *
+	 * @param strategy Strategy under test.
+	 * @param parser   Supplies a fresh parser for each run.
+	 * @param input    File to be parsed.
+	 * @param lines    Number of lines in the file.
+	 */
+	public void measure(ExecutionStrategy strategy, Supplier<AbstractThreadedParser> parser, Path input,
+			long lines) {
+		// O(n) per run where n = number of lines.
+		long[] wall = new long[MEASURED_RUNS];
+		long[] cpu = new long[MEASURED_RUNS];
+		for (int run = -WARMUP_RUNS; run < MEASURED_RUNS; run++) {
+			AbstractThreadedParser atp = parser.get();
+			atp.setFile(input.toString());
+			atp.setStrategy(strategy);
+			long cpuStart = os.getProcessCpuTime();
+			long start = System.nanoTime();
+			atp.parse();
+			if (run >= 0) {
+				wall[run] = System.nanoTime() - start;
+				cpu[run] = os.getProcessCpuTime() - cpuStart;
+			}
+		}
+		Arrays.sort(wall);
+		Arrays.sort(cpu);
+		long wallNanos = wall[MEASURED_RUNS / 2];
+		long cpuNanos = cpu[MEASURED_RUNS / 2];
+		double available = (double) wallNanos * threadsUsed(strategy);
+		double stall = Math.max(0, 1 - cpuNanos / available) * 100;
+		double throughput = lines / (wallNanos / 1e9);
+
+		String parserName = parser.get().getClass().getSimpleName();
+		String row = String.format("%-18s %-48s %9d %9.1f %12.0f %9.1f %7.1f", parserName, strategy.getName(),
+				lines, wallNanos / 1e6, throughput, cpuNanos / 1e6, stall);
+		System.out.println(row);
+		rows.add(parserName + "," + strategy.getName() + "," + lines + "," + wallNanos + "," + cpuNanos + ","
+				+ String.format("%.2f", stall));
+	}
+
+	/**
+	 * Writes all results recorded so far to a CSV file.
+	 *
+	 * @param file Path of CSV file.
+	 * @throws IOException If the file cannot be written.
+	 */
+	public void saveResults(Path file) throws IOException {
+		// O(n) where n = number of result rows.
+		try (PrintWriter pw = new PrintWriter(file.toFile())) {
+			pw.println("parser,strategy,lines,wall_nanos,cpu_nanos,stall_percent");
+			rows.forEach(pw::println);
+		}
+	}
+
+	/**
+	 * Runs every strategy over every thread count and input size, using a
+	 * generated dictionary file as input to both parsers.
+	 *
+	 * Usage: StrategyBenchmark &lt;directory&gt; [dictionary lines]...
+	 *
+	 * @param args Working directory followed by dictionary sizes in lines.
+	 */
+	public static void main(String[] args) throws IOException {
+		// O(s * t * n) for s sizes, t thread counts, n lines.
+		Path dir = Files.createDirectories(Path.of(args.length > 0 ? args[0] : "strategy-benchmark"));
+		List<Integer> sizes = new ArrayList<Integer>();
+		for (int i = 1; i < args.length; i++) {
+			sizes.add(Integer.parseInt(args[i]));
+		}
+		if (sizes.isEmpty()) {
+			sizes = List.of(10_000, 100_000, 500_000);
+		}
+
+		StrategyBenchmark benchmark = new StrategyBenchmark();
+		int cores = Runtime.getRuntime().availableProcessors();
+		System.out.printf("%-18s %-48s %9s %9s %12s %9s %7s%n", "Parser", "Strategy", "Lines", "Wall ms", "Lines/s",
+				"CPU ms", "Stall%");
+		for (int size : sizes) {
+			Path dictionary = dir.resolve("dictionary-" + size + ".csv");
+			if (!Files.exists(dictionary)) {
+				new CorpusGenerator(size, size, 1.0).writeDictionary(dictionary, 1.0);
+			}
+			long lines = size;
+			for (int threads = 1; threads <= cores; threads *= 2) {
+				for (ExecutionStrategy strategy : benchmark.strategiesFor(threads)) {
+					benchmark.measure(strategy, DictionaryParser::new, dictionary, lines);
+					benchmark.measure(strategy, CommonWordsParser::new, dictionary, lines);
+				}
+			}
+		}
+		benchmark.saveResults(dir.resolve("strategies.csv"));
+	}
+
+	private static int threadsUsed(ExecutionStrategy strategy) {
+		// O(1) - virtual threads run on one carrier per core by default.
+		if (strategy instanceof SequentialStrategy) {
+			return 1;
+		} else if (strategy instanceof FixedPoolStrategy fps) {
+			return fps.getThreads();
+		} else if (strategy instanceof ParallelStreamStrategy pss) {
+			return pss.getParallelism();
+		}
+		return Runtime.getRuntime().availableProcessors();
+	}
+}
@@ -0,0 +1,207 @@
+package ie.atu.sw;
+
+import java.io.BufferedReader;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Text Shard - A run of whole pages of a text file, described by the byte
+ * offset and line number of its first line and its number of lines. Shards
+ * always start on a page boundary, so a worker parsing one shard numbers its
+ * pages exactly as a single parse of the whole file would.
+ *
+ * See ShardCoordinator, ShardWorker, UserInputParser.setShard().
+ *
+ * @author Ben Murray
+ * @version 1.0
+ * @since JDK 19
+ *
+ */
+public class TextShard {
+
+	private long startByte;
+	private int firstLine;
+	private int lineCount;
+
+	/**
+	 * Constructor for TextShard.
+	 *
+	 * @param startByte Offset of first line in the (decompressed) file.
+	 * @param firstLine Line number of first line, counting from 1.
+	 * @param lineCount Number of lines in shard.
+	 */
+	public TextShard(long startByte, int firstLine, int lineCount) {
+		// O(1) set values of fields.
+		this.startByte = startByte;
+		this.firstLine = firstLine;
+		this.lineCount = lineCount;
+	}
+
+	/**
+	 * Splits a text file into shards of roughly equal size in bytes, each made
+	 * of whole pages.
+	 *
+	 * @param file   Path of text file, may be gzip compressed.
+	 * @param shards Number of shards wanted. Fewer are returned if the file has
+	 *               fewer pages.
+	 * @return Shards in file order, covering every line.
+	 * @throws IOException If the file cannot be read.
+	 */
+	public static List<TextShard> plan(Path file, int shards) throws IOException {
+		// O(n) - one sequential scan of n bytes, recording where each page starts.
+		long[] pageStarts = new long[1024];
+		int pages = 0;
+		int lines = 0;
+		long position = 0;
+		boolean lineStart = true;
+		boolean afterReturn = false;
+		byte[] window = new byte[1 << 16];
+		try (InputStream in = CompressedInput.open(file)) {
+			int length;
+			while ((length = in.read(window)) != -1) {
+				for (int i = 0; i < length; i++, position++) {
+					byte b = window[i];
+					if (afterReturn && b == '\n') {
+						afterReturn = false;
+						continue;
+					}
+					afterReturn = false;
+					if (lineStart) {
+						lines++;
+						if (lines % UserInputParser.LINES_PER_PAGE == 0) {
+							if (pages == pageStarts.length) {
+								pageStarts = Arrays.copyOf(pageStarts, pages * 2);
+							}
+							pageStarts[pages++] = position;
+						}
+						lineStart = false;
+					}
+					if (b == '\n' || b == '\r') {
+						lineStart = true;
+						afterReturn = b == '\r';
+					}
+				}
+			}
+		}
+
+		List<TextShard> plan = new ArrayList<TextShard>();
+		long start = 0;
+		int first = 1;
+		int page = 0;
+		for (int i = 1; i < shards; i++) {
+			long target = position * i / shards;
+			while (page < pages && pageStarts[page] <= Math.max(start, target - 1)) {
+				page++;
+			}
+			if (page == pages) {
+				break;
+			}
+			int next = (page + 1) * UserInputParser.LINES_PER_PAGE;
+			plan.add(new TextShard(start, first, next - first));
+			start = pageStarts[page];
+			first = next;
+		}
+		plan.add(new TextShard(start, first, lines - first + 1));
+		return plan;
+	}
+
+	/**
+	 * Gets offset of first line in the (decompressed) file.
+	 *
+	 * @return Byte offset.
+	 */
+	public long getStartByte() {
+		// O(1) return long from memory.
+		return startByte;
+	}
+
+	/**
+	 * Gets line number of first line, counting from 1.
+	 *
+	 * @return Line number.
+	 */
+	public int getFirstLine() {
+		// O(1) return int from memory.
+		return firstLine;
+	}
+
+	/**
+	 * Gets number of lines in shard.
+	 *
+	 * @return Number of lines.
+	 */
+	public int getLineCount() {
+		// O(1) return int from memory.
+		return lineCount;
+	}
+
+	/**
+	 * Gets the lines of this shard. Plain files are read from the first byte of
+	 * the shard, compressed files are decompressed from the start and the lines
+	 * before the shard skipped.
+	 *
+	 * @param file Path of text file the shard was planned from.
+	 * @return Stream of lines, to be closed after use.
+	 * @throws IOException If the file cannot be opened.
+	 */
+	public Stream<String> lines(Path file) throws IOException {
+		// O(n) where n = bytes in shard, plus bytes before it for compressed files.
+		if (CompressedInput.isGzip(file)) {
+			return CompressedInput.lines(file).skip(firstLine - 1).limit(lineCount);
+		}
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.READ).position(startByte);
+		BufferedReader reader = new BufferedReader(
+				new InputStreamReader(Channels.newInputStream(channel), StandardCharsets.UTF_8), 1 << 16);
+		return reader.lines().limit(lineCount).onClose(() -> {
+			try {
+				reader.close();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+	}
+
+	/**
+	 * Writes this shard, see read().
+	 *
+	 * @param out Destination.
+	 * @throws IOException If out cannot be written.
+	 */
+	public void write(DataOutput out) throws IOException {
+		// O(1) writes 3 values.
+		out.writeLong(startByte);
+		out.writeInt(firstLine);
+		out.writeInt(lineCount);
+	}
+
+	/**
+	 * Reads a shard written by write().
+	 *
+	 * @param in Source.
+	 * @return Shard read.
+	 * @throws IOException If in cannot be read.
+	 */
+	public static TextShard read(DataInput in) throws IOException {
+		// O(1) reads 3 values.
+		return new TextShard(in.readLong(), in.readInt(), in.readInt());
+	}
+
+	@Override
+	public String toString() {
+		// O(1) format fields.
+		return "lines " + firstLine + "-" + (firstLine + lineCount - 1);
+	}
+}
@@ -0,0 +1,62 @@
+package ie.atu.sw;
+
+import java.util.function.Consumer;
+
+/**
+ * Tokenizer - Splits a line of text into normalised index words. For ASCII
+ * text every implementation must produce exactly the words the original regex
+ * based normalisation did: characters other than [a-zA-Z ] are removed, letters
+ * are lowercased and the remainder is split on spaces, with empty words
+ * dropped. ScalarTokenizer and VectorTokenizer apply the same rule to all
+ * text, UnicodeTokenizer keeps letters of other scripts.
+ * 
+ * See ScalarTokenizer, VectorTokenizer, UnicodeTokenizer, UserInputParser.
+ * 
+ * @author Ben Murray
+ * @version 1.0
+ * @since JDK 19
+ *
+ */
+public interface Tokenizer {
+
+	/**
+	 * Splits a line of text into words, passing each non-empty word to sink in
+	 * the order it appears.
+	 * 
+	 * @param text Line of text to be split.
+	 * @param sink Receives each word found.
+	 */
+	public abstract void tokenize(String text, Consumer<String> sink);
+
+	/**
+	 * Gets the default tokenizer, a UnicodeTokenizer handing ASCII lines to
+	 * getAsciiDefault().
+	 * 
+	 * @return New Unicode aware tokenizer, with its own cache.
+	 */
+	public static Tokenizer getDefault() {
+		// O(1) - see UnicodeTokenizer().
+		return new UnicodeTokenizer();
+	}
+
+	/**
+	 * Gets the fastest ASCII only tokenizer available in this JVM. The
+	 * vectorised tokenizer is used when the jdk.incubator.vector module has been
+	 * resolved (eg. with --add-modules jdk.incubator.vector), otherwise the
+	 * scalar tokenizer.
+	 * 
+	 * @return Fastest available ASCII tokenizer.
+	 */
+	public static Tokenizer getAsciiDefault() {
+		// O(1) - single module lookup, VectorTokenizer is loaded reflectively so the
+		// incubator module is never linked when it is absent.
+		if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+			try {
+				return (Tokenizer) Class.forName("ie.atu.sw.VectorTokenizer").getDeclaredConstructor().newInstance();
+			} catch (ReflectiveOperationException | LinkageError e) {
+				// Fall through to scalar implementation.
+			}
+		}
+		return new ScalarTokenizer();
+	}
+}
@@ -0,0 +1,126 @@
+package ie.atu.sw;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Tokenizer Benchmark - Checks that each Tokenizer produces exactly the words
+ * of the original regex normalisation for every line of a file, then compares
+ * their throughput in MB/s. UnicodeTokenizer is expected to differ on lines
+ * with letters outside ASCII, which it keeps.
+ *
+ * Run with --add-modules jdk.incubator.vector to include VectorTokenizer.
+ *
+ * See Tokenizer.
+ *
+ * @author Ben Murray
+ * @version 1.0
+ * @since JDK 19
+ *
+ */
+public class TokenizerBenchmark {
+
+	private static final int ROUNDS = 5;
+
+	private List<String> lines;
+	private long bytes;
+
+	/**
+	 * Constructor for TokenizerBenchmark, loads the text to be tokenized.
+	 *
+	 * @param file Text file to be tokenized.
+	 * @throws IOException If the file cannot be read.
+	 */
+	public TokenizerBenchmark(Path file) throws IOException {
+		// O(n) where n = number of lines in file.
+		this.lines = Files.readAllLines(file);
+		this.bytes = Files.size(file);
+	}
+
+	/**
+	 * Checks a tokenizer against the original normalisation, line by line.
+	 *
+	 * @param tokenizer Tokenizer to be checked.
+	 * @return Number of lines whose words differ.
+	 */
+	public int verify(Tokenizer tokenizer) {
+		// O(n) where n = number of characters in text.
+		int mismatches = 0;
+		for (String line : lines) {
+			List<String> expected = new ArrayList<String>();
+			regex(line, expected::add);
+			List<String> actual = new ArrayList<String>();
+			tokenizer.tokenize(line, actual::add);
+			if (!expected.equals(actual)) {
+				if (mismatches == 0) {
+					System.out.println("[MISMATCH] " + line);
+				}
+				mismatches++;
+			}
+		}
+		return mismatches;
+	}
+
+	/**
+	 * Measures throughput of a tokenizer, best of several rounds.
+	 *
+	 * @param tokenizer Tokenizer to be measured.
+	 * @return Throughput in megabytes per second.
+	 */
+	public double measure(Tokenizer tokenizer) {
+		// O(r * n) for r rounds over n characters.
+		long best = Long.MAX_VALUE;
+		long[] words = new long[1];
+		for (int round = 0; round < ROUNDS; round++) {
+			long start = System.nanoTime();
+			lines.forEach(line -> tokenizer.tokenize(line, word -> words[0]++));
+			best = Math.min(best, System.nanoTime() - start);
+		}
+		return (bytes / 1e6) / (best / 1e9);
+	}
+
+	/**
+	 * Verifies and measures the regex, scalar, (when available) vector and
+	 * Unicode tokenizers over a text file.
+	 *
+	 * Usage: TokenizerBenchmark &lt;text file&gt;
+	 *
+	 * @param args Path of text file.
+	 */
+	public static void main(String[] args) throws IOException {
+		// O(t * r * n) for t tokenizers, r rounds over n characters.
+		if (args.length < 1) {
+			System.out.println("Usage: TokenizerBenchmark <text file>");
+			return;
+		}
+		TokenizerBenchmark benchmark = new TokenizerBenchmark(Path.of(args[0]));
+		List<Tokenizer> tokenizers = new ArrayList<Tokenizer>();
+		tokenizers.add(TokenizerBenchmark::regex);
+		tokenizers.add(new ScalarTokenizer());
+		Tokenizer best = Tokenizer.getAsciiDefault();
+		if (!(best instanceof ScalarTokenizer)) {
+			tokenizers.add(best);
+		}
+		tokenizers.add(Tokenizer.getDefault());
+		tokenizers.forEach(tokenizer -> {
+			String name = tokenizer.getClass().isSynthetic() ? "Regex" : tokenizer.getClass().getSimpleName();
+			int mismatches = benchmark.verify(tokenizer);
+			System.out.printf("%-16s %8.1f MB/s, %d mismatched lines%n", name, benchmark.measure(tokenizer),
+					mismatches);
+		});
+	}
+
+	private static void regex(String text, Consumer<String> sink) {
+		// O(n) - the normalisation originally used by UserInputParser.process().
+		Arrays.stream(text.replaceAll("[^a-zA-Z ]", "").toLowerCase().split("\\s+")).forEach(word -> {
+			if (!word.isEmpty()) {
+				sink.accept(word);
+			}
+		});
+	}
+}
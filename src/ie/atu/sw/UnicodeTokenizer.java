@@ -0,0 +1,163 @@
+package ie.atu.sw;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Unicode Tokenizer - Keeps the letters of every script, so "café" and "naïve"
+ * are indexed whole rather than as "caf" and "nave". A word is a run of
+ * characters between spaces (any Unicode space separator), normalised to NFC,
+ * keeping only letters and combining marks, lowercased.
+ *
+ * Lines of ASCII text are handed to a delegate tokenizer, by default the
+ * fastest available, whose output is the same for ASCII. In other lines, ASCII
+ * words are folded inline and only words containing other characters are
+ * normalised, each distinct raw word once: folded forms are kept in a bounded
+ * cache, cleared when full, which is safe to share between threads.
+ *
+ * See Tokenizer, ScalarTokenizer, VectorTokenizer.
+ *
+ * @author Ben Murray
+ * @version 1.0
+ * @since JDK 19
+ *
+ */
+public class UnicodeTokenizer implements Tokenizer {
+
+	private Tokenizer ascii;
+	private int cacheSize;
+	private ConcurrentHashMap<String, String> folded = new ConcurrentHashMap<String, String>();
+
+	/**
+	 * Constructor for UnicodeTokenizer, delegating ASCII lines to the fastest
+	 * available tokenizer and caching up to 65,536 folded words.
+	 */
+	public UnicodeTokenizer() {
+		// O(1) - see UnicodeTokenizer(Tokenizer, int).
+		this(Tokenizer.getAsciiDefault(), 1 << 16);
+	}
+
+	/**
+	 * Constructor for UnicodeTokenizer.
+	 *
+	 * @param ascii     Tokenizer for lines containing only ASCII characters.
+	 * @param cacheSize Most folded words cached, 0 to normalise every word.
+	 */
+	public UnicodeTokenizer(Tokenizer ascii, int cacheSize) {
+		// O(1) set values.
+		this.ascii = ascii;
+		this.cacheSize = cacheSize;
+	}
+
+	/**
+	 * Gets number of folded words currently cached.
+	 *
+	 * @return Cached words.
+	 */
+	public int getCachedCount() {
+		// O(1) size of ConcurrentHashMap.
+		return folded.size();
+	}
+
+	/**
+	 * Splits a line of text into normalised words.
+	 */
+	@Override
+	public void tokenize(String text, Consumer<String> sink) {
+		// O(n) where n = number of characters in text, plus O(w) to normalise
+		// each uncached non-ASCII word of w characters.
+		int n = text.length();
+		int i = 0;
+		while (i < n && text.charAt(i) < 0x80) {
+			i++;
+		}
+		if (i == n) {
+			ascii.tokenize(text, sink);
+			return;
+		}
+		char[] word = new char[n];
+		int length = 0;
+		int start = 0;
+		boolean plain = true;
+		for (i = 0; i <= n; i++) {
+			char c = i < n ? text.charAt(i) : ' ';
+			if (c == ' ' || (c >= 0x80 && Character.isSpaceChar(c))) {
+				if (!plain) {
+					String fold = fold(text.substring(start, i));
+					if (!fold.isEmpty()) {
+						sink.accept(fold);
+					}
+				} else if (length > 0) {
+					sink.accept(new String(word, 0, length));
+				}
+				length = 0;
+				start = i + 1;
+				plain = true;
+			} else if (c < 0x80) {
+				char lower = (char) (c | 0x20);
+				if (lower >= 'a' && lower <= 'z') {
+					word[length++] = lower;
+				}
+			} else {
+				plain = false;
+			}
+		}
+	}
+
+	/**
+	 * Folds one raw word, from the cache if it has been folded before.
+	 *
+	 * @param raw Characters between two spaces.
+	 * @return Normalised word, empty if it has no letters.
+	 */
+	public String fold(String raw) {
+		// O(1) if cached, otherwise O(w) for w characters.
+		if (cacheSize == 0) {
+			return normalise(raw);
+		}
+		String cached = folded.get(raw);
+		if (cached != null) {
+			return cached;
+		}
+		String fold = normalise(raw);
+		if (folded.size() >= cacheSize) {
+			folded.clear();
+		}
+		folded.put(raw, fold);
+		return fold;
+	}
+
+	/**
+	 * Normalises a word to NFC, keeping only letters and combining marks,
+	 * lowercased.
+	 *
+	 * @param raw Word to normalise.
+	 * @return Normalised word, empty if it has no letters.
+	 */
+	public static String normalise(String raw) {
+		// O(w) for w characters.
+		String nfc = Normalizer.normalize(raw, Normalizer.Form.NFC);
+		StringBuilder kept = new StringBuilder(nfc.length());
+		boolean letters = false;
+		for (int i = 0; i < nfc.length();) {
+			int cp = nfc.codePointAt(i);
+			int type = Character.getType(cp);
+			if (Character.isLetter(cp)) {
+				kept.appendCodePoint(cp);
+				letters = true;
+			} else if (type == Character.NON_SPACING_MARK || type == Character.COMBINING_SPACING_MARK
+					|| type == Character.ENCLOSING_MARK) {
+				kept.appendCodePoint(cp);
+			}
+			i += Character.charCount(cp);
+		}
+		if (!letters) {
+			return "";
+		}
+		String lower = kept.toString().toLowerCase(Locale.ROOT);
+		return Normalizer.isNormalized(lower, Normalizer.Form.NFC) ? lower
+				: Normalizer.normalize(lower, Normalizer.Form.NFC);
+	}
+}
@@ -4,16 +4,22 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.HashSet;
-import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * User Input Parser - Parses user-specified file, extracts a mapping of words
- * found to pages they were found on.
+ * found to pages they were found on. The file may be gzip compressed.
  * 
- * See AbstractParser.
+ * See AbstractParser, CompressedInput.
  * 
  * @author Ben Murray
  * @version 1.0
@@ -22,10 +28,28 @@ import java.util.TreeSet;
  */
 public class UserInputParser extends AbstractParser {
 
+	static final int LINES_PER_PAGE = 40;
+
 	private Map<String, TreeSet<Integer>> index = new HashMap<>();
 	private HashSet<String> userWordSet = new HashSet<String>();
 	private int lineNumber = 0;
 	private int pageCounter = 1;
+	private Tokenizer tokenizer = Tokenizer.getDefault();
+	private boolean recordPositions = false;
+	private MappedFile source;
+	private LineOffsetTable lineOffsets;
+	private PositionIndex positions;
+	private boolean buildIndex = true;
+	private boolean estimateUniqueWords = false;
+	private double sketchError = 0.01;
+	private Predicate<String> eligibility;
+	private HyperLogLog rawSketch;
+	private HyperLogLog eligibleSketch;
+	private Consumer<String> wordSink;
+	private TextShard shard;
+	private int lineTokens;
+	private ExecutionStrategy strategy;
+	private LatencyHistogram lineLatency;
 
 	/**
 	 * Gets a set of words found in user-specified input file, extracted from index
@@ -51,6 +75,220 @@ public class UserInputParser extends AbstractParser {
 		return index;
 	}
 
+	/**
+	 * Gets tokenizer used to split lines into words.
+	 * 
+	 * @return Tokenizer used by this parser.
+	 */
+	public Tokenizer getTokenizer() {
+		// O(1) return tokenizer from memory.
+		return tokenizer;
+	}
+
+	/**
+	 * Sets tokenizer used to split lines into words. Defaults to a
+	 * UnicodeTokenizer over the fastest available, see Tokenizer.getDefault().
+	 * 
+	 * @param tokenizer Tokenizer to be used by this parser.
+	 */
+	public void setTokenizer(Tokenizer tokenizer) {
+		// O(1) set value of tokenizer.
+		this.tokenizer = tokenizer;
+	}
+
+	/**
+	 * Gets the strategy lines are tokenized with.
+	 * 
+	 * @return Execution strategy, or null if lines are parsed in order on the
+	 *         calling thread.
+	 */
+	public ExecutionStrategy getStrategy() {
+		// O(1) return strategy from memory.
+		return strategy;
+	}
+
+	/**
+	 * Sets a strategy to tokenize lines with in parallel, writing pages straight
+	 * into a ConcurrentPostings, eg. a FixedPoolStrategy. Null, the default,
+	 * parses lines in order on the calling thread. Positions and unique word
+	 * estimates need lines in order, so parsing is sequential whenever either is
+	 * on.
+	 * 
+	 * @param strategy Execution strategy, or null.
+	 */
+	public void setStrategy(ExecutionStrategy strategy) {
+		// O(1) set value of strategy.
+		this.strategy = strategy;
+	}
+
+	/**
+	 * Gets histogram of the time each line takes to tokenize and index.
+	 * 
+	 * @return Histogram, or null if lines are not timed.
+	 */
+	public LatencyHistogram getLineLatency() {
+		// O(1) return histogram from memory.
+		return lineLatency;
+	}
+
+	/**
+	 * Sets histogram of the time each line takes to tokenize and index, in
+	 * order or in parallel, so slow outlier lines show in its tail. Null, the
+	 * default, times nothing.
+	 * 
+	 * @param lineLatency Histogram, or null.
+	 */
+	public void setLineLatency(LatencyHistogram lineLatency) {
+		// O(1) set value of lineLatency.
+		this.lineLatency = lineLatency;
+	}
+
+	/**
+	 * Checks if word positions and line offsets are recorded while parsing.
+	 * 
+	 * @return True if positions are recorded.
+	 */
+	public boolean isRecordPositions() {
+		// O(1) return boolean from memory.
+		return recordPositions;
+	}
+
+	/**
+	 * Sets whether word positions and line offsets are recorded while parsing,
+	 * enabling getConcordance() and phrase search with PhraseQuery. Off by
+	 * default, as it costs one extra scan of the file and around a byte or two
+	 * per word occurrence.
+	 * 
+	 * @param recordPositions True to record positions.
+	 */
+	public void setRecordPositions(boolean recordPositions) {
+		// O(1) set value of recordPositions.
+		this.recordPositions = recordPositions;
+	}
+
+	/**
+	 * Gets position of every word occurrence recorded during the last parse.
+	 * 
+	 * @return Position index, or null if positions were not recorded.
+	 */
+	public PositionIndex getPositions() {
+		// O(1) return index from memory.
+		return positions;
+	}
+
+	/**
+	 * Gets a concordance over the last file parsed, for extracting the context
+	 * around each occurrence of a word.
+	 * 
+	 * @return Concordance, or null if positions were not recorded.
+	 */
+	public Concordance getConcordance() {
+		// O(1) wraps structures built during parse().
+		if (positions == null) {
+			return null;
+		}
+		return new Concordance(source, lineOffsets, positions, tokenizer);
+	}
+
+	/**
+	 * Checks if the word to pages index is built while parsing.
+	 *
+	 * @return True if the index is built.
+	 */
+	public boolean isBuildIndex() {
+		// O(1) return boolean from memory.
+		return buildIndex;
+	}
+
+	/**
+	 * Sets whether the word to pages index is built while parsing. Turn off, with
+	 * estimation on, to count distinct words in constant memory.
+	 *
+	 * @param buildIndex False to skip building the index.
+	 */
+	public void setBuildIndex(boolean buildIndex) {
+		// O(1) set value of buildIndex.
+		this.buildIndex = buildIndex;
+	}
+
+	/**
+	 * Checks if distinct words are estimated with HyperLogLog sketches while
+	 * parsing.
+	 *
+	 * @return True if distinct words are estimated.
+	 */
+	public boolean isEstimateUniqueWords() {
+		// O(1) return boolean from memory.
+		return estimateUniqueWords;
+	}
+
+	/**
+	 * Sets whether distinct words are estimated with HyperLogLog sketches while
+	 * parsing. Off by default.
+	 *
+	 * @param estimateUniqueWords True to estimate distinct words.
+	 */
+	public void setEstimateUniqueWords(boolean estimateUniqueWords) {
+		// O(1) set value of estimateUniqueWords.
+		this.estimateUniqueWords = estimateUniqueWords;
+	}
+
+	/**
+	 * Sets target relative error of the distinct word sketches, 0.01 (1%) by
+	 * default. Smaller errors use more memory, see HyperLogLog.forErrorBound().
+	 *
+	 * @param sketchError Target relative error.
+	 */
+	public void setSketchError(double sketchError) {
+		// O(1) set value of sketchError.
+		this.sketchError = sketchError;
+	}
+
+	/**
+	 * Sets the test a word must pass to be counted by the eligible word sketch,
+	 * usually "in the dictionary and not a common word", mirroring Filter.
+	 *
+	 * @param eligibility Test applied to each word, or null for no eligible
+	 *                    sketch.
+	 */
+	public void setEligibility(Predicate<String> eligibility) {
+		// O(1) set value of eligibility.
+		this.eligibility = eligibility;
+	}
+
+	/**
+	 * Gets sketch of every distinct word seen during the last parse.
+	 *
+	 * @return Sketch of all words, or null if estimation was off.
+	 */
+	public HyperLogLog getRawSketch() {
+		// O(1) return sketch from memory.
+		return rawSketch;
+	}
+
+	/**
+	 * Gets sketch of distinct words that passed the eligibility test during the
+	 * last parse.
+	 *
+	 * @return Sketch of eligible words, or null if estimation or eligibility was
+	 *         off.
+	 */
+	public HyperLogLog getEligibleSketch() {
+		// O(1) return sketch from memory.
+		return eligibleSketch;
+	}
+
+	/**
+	 * Sets a shard of the file to be parsed instead of the whole file. Pages are
+	 * numbered as in the whole file. Positions are not recorded for shards.
+	 *
+	 * @param shard Shard to be parsed, or null for the whole file.
+	 */
+	public void setShard(TextShard shard) {
+		// O(1) set value of shard.
+		this.shard = shard;
+	}
+
 	/**
 	 * Parses user file for a mapping of words in user-specified file to lists of
 	 * pages each word occurs on.
@@ -59,21 +297,126 @@ public class UserInputParser extends AbstractParser {
 	public void parse() {
 		// O(n²) calls process() (O(n)) n times.
 		String file = this.file;
-		try {
-			Files.lines(Path.of(file)).forEach(text -> process(text, ++lineNumber));
+		if (shard != null) {
+			lineNumber = shard.getFirstLine() - 1;
+			pageCounter = 1 + lineNumber / LINES_PER_PAGE;
+		}
+		try (Stream<String> lines = shard == null ? CompressedInput.lines(Path.of(file)) : shard.lines(Path.of(file))) {
+			if (recordPositions && shard == null) {
+				source = CompressedInput.map(Path.of(file));
+				lineOffsets = LineOffsetTable.build(source);
+				positions = new PositionIndex();
+			}
+			if (strategy != null && buildIndex && positions == null && !estimateUniqueWords) {
+				strategy.begin(file, Files.size(Path.of(file)));
+				parseConcurrently(lines);
+				return;
+			}
+			wordSink = buildWordSink();
+			lines.forEach(text -> process(text, ++lineNumber));
+			if (positions != null) {
+				positions.trim();
+			}
 		} catch (IOException e) {
-			System.out.println("[ERROR] IO Exception. Returning to Menu.");
-			Menu.showMenu();
+			System.out.println("[ERROR] IO Exception. " + Menu.getRecoveryNote());
+			Menu.recover(e);
 		}
 	}
 
+	private void parseConcurrently(Stream<String> lines) {
+		// O(n) - n lines numbered in order on this thread, then tokenized by the
+		// strategy's threads into one ConcurrentPostings.
+		ConcurrentPostings postings = new ConcurrentPostings();
+		Iterator<String> text = lines.iterator();
+		Iterator<NumberedLine> numbered = new Iterator<NumberedLine>() {
+			public boolean hasNext() {
+				return text.hasNext();
+			}
+
+			public NumberedLine next() {
+				return new NumberedLine(++lineNumber, text.next());
+			}
+		};
+		Stream<NumberedLine> items = StreamSupport
+				.stream(Spliterators.spliteratorUnknownSize(numbered, Spliterator.ORDERED | Spliterator.NONNULL), false);
+		strategy.execute(items, line -> {
+			// Same page as process() gives this line.
+			long start = lineLatency == null ? 0 : System.nanoTime();
+			int page = 1 + line.number() / LINES_PER_PAGE;
+			int[] words = new int[1];
+			tokenizer.tokenize(line.text(), word -> {
+				postings.add(word, page);
+				words[0]++;
+			});
+			if (progress != null) {
+				progress.addLine(line.text().length(), words[0]);
+				if (line.number() % LINES_PER_PAGE == 0) {
+					progress.addPage();
+				}
+			}
+			if (lineLatency != null) {
+				lineLatency.recordSince(start);
+			}
+		});
+		pageCounter = 1 + lineNumber / LINES_PER_PAGE;
+		postings.toMap().forEach((word, pages) -> index.merge(word, pages, (a, b) -> {
+			a.addAll(b);
+			return a;
+		}));
+	}
+
+	private record NumberedLine(int number, String text) {
+	}
+
+	private Consumer<String> buildWordSink() {
+		// O(1) - chains only the per-word actions enabled for this parse, so
+		// disabled features cost nothing per word.
+		Consumer<String> sink = word -> {
+		};
+		if (buildIndex) {
+			sink = sink.andThen(word -> updateIndex(word, pageCounter));
+		}
+		if (positions != null) {
+			sink = sink.andThen(word -> positions.add(word));
+		}
+		if (progress != null) {
+			sink = sink.andThen(word -> lineTokens++);
+		}
+		if (estimateUniqueWords) {
+			rawSketch = HyperLogLog.forErrorBound(sketchError);
+			sink = sink.andThen(word -> rawSketch.add(word));
+			if (eligibility != null) {
+				eligibleSketch = HyperLogLog.forErrorBound(sketchError);
+				sink = sink.andThen(word -> {
+					if (eligibility.test(word)) {
+						eligibleSketch.add(word);
+					}
+				});
+			}
+		}
+		return sink;
+	}
+
 	private void process(String text, int line) {
 		// O(n) calls updateIndex() n times.
-		if (line % 40 == 0) {
+		long start = lineLatency == null ? 0 : System.nanoTime();
+		if (line % LINES_PER_PAGE == 0) {
 			pageCounter++;
+			if (progress != null) {
+				progress.addPage();
+			}
+		}
+		if (positions != null) {
+			positions.startLine();
+		}
+		tokenizer.tokenize(text, wordSink);
+		if (progress != null) {
+			progress.addLine(text.length(), lineTokens);
+			lineTokens = 0;
+		}
+		if (lineLatency != null) {
+			lineLatency.recordSince(start);
 		}
-		Arrays.stream(text.replaceAll("[^a-zA-Z ]", "").toLowerCase().split("\\s+"))
-				.forEach(word -> updateIndex(word, pageCounter));
 	}
 
 	private void updateIndex(String word, int pageNumber) {
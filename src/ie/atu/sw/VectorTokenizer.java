@@ -0,0 +1,77 @@
+package ie.atu.sw;
+
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Vector Tokenizer - Classifies and lowercases a whole vector register of
+ * characters (32 or 64 bytes, depending on hardware) per step using the JDK
+ * Vector API, compacting letters and spaces into a buffer that is then split on
+ * spaces.
+ * 
+ * Text is narrowed to ISO-8859-1 first. Characters outside that range become
+ * '?', which is stripped exactly as the original character would have been, so
+ * output matches ScalarTokenizer for all input. Requires the
+ * jdk.incubator.vector module, see Tokenizer.getAsciiDefault().
+ * 
+ * See Tokenizer.
+ * 
+ * @author Ben Murray
+ * @version 1.0
+ * @since JDK 19
+ *
+ */
+public class VectorTokenizer implements Tokenizer {
+
+	private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+	private static final byte CASE_BIT = 0x20;
+
+	/**
+	 * Splits a line of text into normalised words.
+	 */
+	@Override
+	public void tokenize(String text, Consumer<String> sink) {
+		// O(n / v) vector steps, where v = vector length, plus O(n) split.
+		byte[] in = text.getBytes(StandardCharsets.ISO_8859_1);
+		byte[] kept = new byte[in.length + SPECIES.length()];
+		int length = 0;
+		int i = 0;
+		int bound = SPECIES.loopBound(in.length);
+		for (; i < bound; i += SPECIES.length()) {
+			ByteVector chars = ByteVector.fromArray(SPECIES, in, i);
+			ByteVector lower = chars.or(CASE_BIT);
+			VectorMask<Byte> letters = lower.compare(VectorOperators.GE, (byte) 'a')
+					.and(lower.compare(VectorOperators.LE, (byte) 'z'));
+			VectorMask<Byte> keep = letters.or(chars.compare(VectorOperators.EQ, (byte) ' '));
+			chars.blend(lower, letters).compress(keep).intoArray(kept, length);
+			length += keep.trueCount();
+		}
+		for (; i < in.length; i++) {
+			byte lower = (byte) (in[i] | CASE_BIT);
+			if (lower >= 'a' && lower <= 'z') {
+				kept[length++] = lower;
+			} else if (in[i] == ' ') {
+				kept[length++] = ' ';
+			}
+		}
+		split(kept, length, sink);
+	}
+
+	private static void split(byte[] kept, int length, Consumer<String> sink) {
+		// O(n) where n = number of letters and spaces kept.
+		int start = 0;
+		for (int i = 0; i <= length; i++) {
+			if (i == length || kept[i] == ' ') {
+				if (i > start) {
+					sink.accept(new String(kept, start, i - start, StandardCharsets.ISO_8859_1));
+				}
+				start = i + 1;
+			}
+		}
+	}
+}
@@ -0,0 +1,41 @@
+package ie.atu.sw;
+
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Virtual Thread Per Batch Strategy - Starts one virtual thread per batch of
+ * work items, reducing thread creation and scheduling cost for short tasks.
+ * 
+ * See AbstractBatchingStrategy.
+ * 
+ * @author Ben Murray
+ * @version 1.0
+ * @since JDK 19
+ *
+ */
+public class VirtualThreadPerBatchStrategy extends AbstractBatchingStrategy {
+
+	/**
+	 * Constructor for VirtualThreadPerBatchStrategy.
+	 * 
+	 * @param batchSize Number of items processed by each virtual thread.
+	 */
+	public VirtualThreadPerBatchStrategy(int batchSize) {
+		// O(1) delegate to super constructor.
+		super(batchSize);
+	}
+
+	/**
+	 * Runs task for each item, one virtual thread per batch, waits for all to
+	 * finish.
+	 */
+	@Override
+	public <T> void execute(Stream<T> items, Consumer<T> task) {
+		// O(n) each item is batched and processed once.
+		try (var pool = Executors.newVirtualThreadPerTaskExecutor()) {
+			forEachBatch(items, batch -> pool.execute(runBatch(batch, task)));
+		}
+	}
+}
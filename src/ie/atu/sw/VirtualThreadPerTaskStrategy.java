@@ -0,0 +1,31 @@
+package ie.atu.sw;
+
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Virtual Thread Per Task Strategy - Starts a new virtual thread for every work
+ * item (every line, for line based parsers). This is the original execution
+ * model of the threaded parsers and remains the default.
+ * 
+ * See ExecutionStrategy.
+ * 
+ * @author Ben Murray
+ * @version 1.0
+ * @since JDK 19
+ *
+ */
+public class VirtualThreadPerTaskStrategy implements ExecutionStrategy {
+
+	/**
+	 * Runs task for each item on its own virtual thread, waits for all to finish.
+	 */
+	@Override
+	public <T> void execute(Stream<T> items, Consumer<T> task) {
+		// O(n) submits n tasks, executor close() waits for completion.
+		try (var pool = Executors.newVirtualThreadPerTaskExecutor()) {
+			items.forEach(item -> pool.execute(() -> task.accept(item)));
+		}
+	}
+}
@@ -0,0 +1,154 @@
+package ie.atu.sw;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashSet;
+import java.util.Map;
+
+/**
+ * Vocabulary Builder - Writes the EligibleVocabulary of a dictionary and a
+ * common words file: every dictionary word that is not a common word, with its
+ * definition, and every common word, flagged as such. The sources are parsed
+ * once here, by DictionaryParser and CommonWordsParser, rather than on every
+ * run.
+ *
+ * File layout, big endian: magic, the size, modification time and SHA-256 of
+ * the dictionary then of the common words file, table capacity (a power of two
+ * at least twice the number of words), eligible and common word counts; then
+ * capacity slots of (hash, offset), offset 0 marking an empty slot; then the
+ * records, each a flag byte followed by the UTF-8 word and definition with
+ * variable length prefixes. A slot's offset is that of its record's word,
+ * relative to the first record.
+ *
+ * See EligibleVocabulary, Indexer.setVocabularyArtifact().
+ *
+ * @author Ben Murray
+ * @version 1.0
+ * @since JDK 19
+ *
+ */
+public class VocabularyBuilder {
+
+	/**
+	 * Appended to the dictionary path to name its vocabulary file by default.
+	 */
+	public static final String DEFAULT_SUFFIX = ".vocab";
+
+	/**
+	 * Parses both sources and writes their vocabulary. The file is written
+	 * beside output and moved into place, so runs reading an older vocabulary
+	 * are never given half a file.
+	 *
+	 * @param dictionary Path of dictionary file.
+	 * @param common     Path of common words file.
+	 * @param output     Path of vocabulary file.
+	 * @return Number of eligible words written.
+	 * @throws IOException If a source cannot be read or output written.
+	 */
+	public static int build(Path dictionary, Path common, Path output) throws IOException {
+		// O(n) parses and writes n dictionary and common words.
+		DictionaryParser dp = new DictionaryParser();
+		dp.setFile(dictionary.toString());
+		dp.parse();
+		CommonWordsParser cwp = new CommonWordsParser();
+		cwp.setFile(common.toString());
+		cwp.parse();
+		Map<String, String> definitions = dp.getDictionaryWords();
+		HashSet<String> commonSet = cwp.getCommonWordSet();
+		commonSet.remove("");
+
+		int eligible = 0;
+		for (String word : definitions.keySet()) {
+			if (!commonSet.contains(word)) {
+				eligible++;
+			}
+		}
+		int words = eligible + commonSet.size();
+		int capacity = Integer.highestOneBit(Math.max(1, words) * 2 - 1) << 1;
+		int[] hashes = new int[capacity];
+		int[] offsets = new int[capacity];
+		ByteArrayOutputStream pool = new ByteArrayOutputStream();
+		DataOutputStream records = new DataOutputStream(pool);
+		for (Map.Entry<String, String> entry : definitions.entrySet()) {
+			if (!commonSet.contains(entry.getKey())) {
+				addRecord(records, hashes, offsets, entry.getKey(), entry.getValue(), EligibleVocabulary.ELIGIBLE);
+			}
+		}
+		for (String word : commonSet) {
+			addRecord(records, hashes, offsets, word, "", EligibleVocabulary.COMMON);
+		}
+		if ((long) EligibleVocabulary.HEADER_SIZE + capacity * 8L + pool.size() > Integer.MAX_VALUE) {
+			throw new IOException("Vocabulary larger than 2 GB");
+		}
+
+		Path temp = Files.createTempFile(output.toAbsolutePath().getParent(), "vocab", ".tmp");
+		try {
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+				out.writeInt(EligibleVocabulary.FILE_MAGIC);
+				EligibleVocabulary.writeFingerprint(out, dictionary);
+				EligibleVocabulary.writeFingerprint(out, common);
+				out.writeInt(capacity);
+				out.writeInt(eligible);
+				out.writeInt(commonSet.size());
+				for (int slot = 0; slot < capacity; slot++) {
+					out.writeInt(hashes[slot]);
+					out.writeInt(offsets[slot]);
+				}
+				pool.writeTo(out);
+			}
+			Files.move(temp, output, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+		return eligible;
+	}
+
+	private static void addRecord(DataOutputStream records, int[] hashes, int[] offsets, String word,
+			String definition, byte flag) throws IOException {
+		// O(1) expected - linear probe for a free slot, then appends the record.
+		records.writeByte(flag);
+		int offset = records.size();
+		byte[] wordBytes = word.getBytes(StandardCharsets.UTF_8);
+		PostingsCodec.writeVarInt(records, wordBytes.length);
+		records.write(wordBytes);
+		byte[] definitionBytes = definition.getBytes(StandardCharsets.UTF_8);
+		PostingsCodec.writeVarInt(records, definitionBytes.length);
+		records.write(definitionBytes);
+
+		int h = EligibleVocabulary.hash(word);
+		int mask = hashes.length - 1;
+		int slot = h & mask;
+		while (offsets[slot] != 0) {
+			slot = (slot + 1) & mask;
+		}
+		hashes[slot] = h;
+		offsets[slot] = offset;
+	}
+
+	/**
+	 * Main - Builds a vocabulary from the command line, eg. "VocabularyBuilder
+	 * dictionary.csv google-1000.txt". Without an output path it is written
+	 * next to the dictionary with DEFAULT_SUFFIX appended.
+	 *
+	 * @param args Dictionary path, common words path, optional output path.
+	 * @throws IOException If a source cannot be read or output written.
+	 */
+	public static void main(String[] args) throws IOException {
+		// O(n) - see build().
+		if (args.length < 2) {
+			System.out.println("Usage: VocabularyBuilder <dictionary> <common words> [<output>]");
+			return;
+		}
+		Path output = Path.of(args.length > 2 ? args[2] : args[0] + DEFAULT_SUFFIX);
+		long start = System.currentTimeMillis();
+		int words = build(Path.of(args[0]), Path.of(args[1]), output);
+		System.out.println("Wrote " + words + " eligible words to " + output + " in "
+				+ (System.currentTimeMillis() - start) + " milliseconds.");
+	}
+}
@@ -6,4 +6,9 @@
  *
  */
 module MultiThreadedIndexingApi {
-}
\ No newline at end of file
+	requires java.management;
+	requires jdk.management;
+	requires static jdk.incubator.vector;
+
+	exports ie.atu.sw;
+}